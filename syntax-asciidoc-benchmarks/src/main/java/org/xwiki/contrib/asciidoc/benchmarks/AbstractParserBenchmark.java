@@ -0,0 +1,99 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.embed.EmbeddableComponentManager;
+import org.xwiki.component.manager.ComponentLookupException;
+
+/**
+ * Initializes the components the same way they are initialized when the rendering engine is used standalone, and
+ * disposes them (shutting down the AsciiDoctor runtimes) when the benchmark is over. The warm-up is long since the
+ * JRuby code needs to be compiled by the JIT compiler.
+ *
+ * @version $Id$
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class AbstractParserBenchmark
+{
+    /**
+     * The seed used to generate the benchmark inputs, so that all runs use the same inputs.
+     */
+    protected static final long SEED = 42L;
+
+    private EmbeddableComponentManager componentManager;
+
+    /**
+     * Initialize the components.
+     *
+     * @throws Exception if the benchmark can't be prepared
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        this.componentManager = new EmbeddableComponentManager();
+        this.componentManager.initialize(getClass().getClassLoader());
+        prepare();
+    }
+
+    /**
+     * Dispose the components.
+     */
+    @TearDown
+    public void tearDown()
+    {
+        this.componentManager.dispose();
+    }
+
+    /**
+     * Prepare the benchmark inputs and look up the benchmarked components.
+     *
+     * @throws Exception if the benchmark can't be prepared
+     */
+    protected abstract void prepare() throws Exception;
+
+    /**
+     * @param role the role of the component
+     * @param hint the hint of the component
+     * @param <T> the type of the component
+     * @return the component
+     * @throws ComponentLookupException if the component can't be found
+     */
+    protected <T> T getInstance(Class<T> role, String hint) throws ComponentLookupException
+    {
+        return this.componentManager.getInstance(role, hint);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.benchmarks;
+
+import java.io.StringReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.StreamParser;
+
+/**
+ * Benchmarks the whole AsciiDoc parsing pipeline (AsciiDoctor, HTML and plain text parsers) on contents of various
+ * kinds and sizes.
+ *
+ * @version $Id$
+ */
+public class AsciiDocStreamParserBenchmark extends AbstractParserBenchmark
+{
+    /**
+     * The kind of content to parse.
+     */
+    @Param({ "PARAGRAPHS", "LISTS", "LINKS", "SECTIONS" })
+    public CorpusGenerator.Kind kind;
+
+    /**
+     * The number of top-level blocks of the content to parse.
+     */
+    @Param({ "10", "100", "1000" })
+    public int size;
+
+    private StreamParser parser;
+
+    private String content;
+
+    @Override
+    protected void prepare() throws Exception
+    {
+        this.parser = getInstance(StreamParser.class, "asciidoc/1.0");
+        this.content = new CorpusGenerator(SEED).generate(this.kind, this.size);
+    }
+
+    /**
+     * @param blackhole consumes the generated events
+     * @throws ParseException if the parsing fails
+     */
+    @Benchmark
+    public void parse(Blackhole blackhole) throws ParseException
+    {
+        this.parser.parse(new StringReader(this.content), new BlackholeListener(blackhole));
+    }
+}
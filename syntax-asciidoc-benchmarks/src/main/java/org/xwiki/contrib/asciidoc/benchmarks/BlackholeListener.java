@@ -0,0 +1,76 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.benchmarks;
+
+import java.util.Map;
+
+import org.openjdk.jmh.infra.Blackhole;
+import org.xwiki.rendering.listener.Format;
+import org.xwiki.rendering.listener.WrappingListener;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+
+/**
+ * Consumes the main events so that the JIT compiler can't optimize away the code generating them, while adding as
+ * little overhead as possible.
+ *
+ * @version $Id$
+ */
+public class BlackholeListener extends WrappingListener
+{
+    private final Blackhole blackhole;
+
+    /**
+     * @param blackhole the JMH black hole consuming the events
+     */
+    public BlackholeListener(Blackhole blackhole)
+    {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void onWord(String word)
+    {
+        this.blackhole.consume(word);
+    }
+
+    @Override
+    public void onSpecialSymbol(char symbol)
+    {
+        this.blackhole.consume(symbol);
+    }
+
+    @Override
+    public void onSpace()
+    {
+        this.blackhole.consume(' ');
+    }
+
+    @Override
+    public void beginFormat(Format format, Map<String, String> parameters)
+    {
+        this.blackhole.consume(format);
+    }
+
+    @Override
+    public void beginLink(ResourceReference reference, boolean freestanding, Map<String, String> parameters)
+    {
+        this.blackhole.consume(reference);
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Generates synthetic AsciiDoc corpora, so that the benchmarks are reproducible without access to real contents. The
+ * same kind, size and seed always produce the same content.
+ *
+ * @version $Id$
+ */
+public final class CorpusGenerator
+{
+    /**
+     * The kinds of generated AsciiDoc contents.
+     */
+    public enum Kind
+    {
+        /**
+         * Paragraphs of plain text with some bold and italic words.
+         */
+        PARAGRAPHS,
+
+        /**
+         * Nested bulleted and numbered lists.
+         */
+        LISTS,
+
+        /**
+         * Paragraphs with URL, document and mailto links.
+         */
+        LINKS,
+
+        /**
+         * Deep trees of sections, each with a short paragraph.
+         */
+        SECTIONS
+    }
+
+    private static final long DEFAULT_SEED = 42L;
+
+    private static final int MAX_SECTION_LEVEL = 5;
+
+    private static final int SENTENCES_PER_PARAGRAPH = 3;
+
+    private static final int ITEMS_PER_LIST = 5;
+
+    private static final int LINKS_PER_PARAGRAPH = 3;
+
+    private static final int WORDS_PER_SENTENCE = 12;
+
+    private static final int WORDS_PER_TITLE = 4;
+
+    private static final String[] WORDS = { "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing",
+        "elit", "sed", "do", "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua",
+        "enim", "ad", "minim", "veniam", "quis", "nostrud", "exercitation", "ullamco", "laboris", "nisi", "aliquip" };
+
+    private static final String NEW_LINE = "\n";
+
+    private static final String BLANK_LINE = "\n\n";
+
+    private final Random random;
+
+    /**
+     * @param seed the seed of the pseudo-random generator
+     */
+    public CorpusGenerator(long seed)
+    {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Writes a corpus of each kind and of the given sizes in the given directory, to inspect them or to use them with
+     * other tools.
+     *
+     * @param args the target directory, followed by the sizes
+     * @throws IOException if the corpora can't be written
+     */
+    public static void main(String[] args) throws IOException
+    {
+        Path directory = Paths.get(args[0]);
+        Files.createDirectories(directory);
+        for (int i = 1; i < args.length; i++) {
+            int size = Integer.parseInt(args[i]);
+            for (Kind kind : Kind.values()) {
+                String content = new CorpusGenerator(DEFAULT_SEED).generate(kind, size);
+                Files.write(directory.resolve(String.format("%s-%d.adoc", kind.name().toLowerCase(), size)),
+                    content.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * @param kind the kind of content to generate
+     * @param size the number of top-level blocks (paragraphs, lists or sections) to generate
+     * @return the generated AsciiDoc content
+     */
+    public String generate(Kind kind, int size)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            switch (kind) {
+                case LISTS:
+                    appendList(builder);
+                    break;
+                case LINKS:
+                    appendParagraphWithLinks(builder);
+                    break;
+                case SECTIONS:
+                    appendSection(builder, i % MAX_SECTION_LEVEL + 1);
+                    break;
+                case PARAGRAPHS:
+                default:
+                    appendParagraph(builder);
+            }
+            builder.append(BLANK_LINE);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @param size the number of sentences to generate
+     * @return HTML similar to what AsciiDoctor generates for the inline content of paragraphs
+     */
+    public String generateInlineHTML(int size)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(capitalize(word())).append(' ').append("<strong>").append(word()).append("</strong> ");
+            builder.append("<em>").append(word()).append("</em> ");
+            builder.append("<a href=\"https://xwiki.org/").append(word()).append("\">").append(word());
+            builder.append("</a> ").append(sentence(WORDS_PER_SENTENCE / 2));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return a section title, made of a few words
+     */
+    public String generateTitle()
+    {
+        return capitalize(sentence(WORDS_PER_TITLE));
+    }
+
+    private void appendParagraph(StringBuilder builder)
+    {
+        for (int i = 0; i < SENTENCES_PER_PARAGRAPH; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(capitalize(word())).append(" *").append(word()).append("* _").append(word()).append("_ ");
+            builder.append(sentence(WORDS_PER_SENTENCE)).append('.');
+        }
+    }
+
+    private void appendList(StringBuilder builder)
+    {
+        for (int i = 0; i < ITEMS_PER_LIST; i++) {
+            String marker = i % 2 == 0 ? "*" : "**";
+            builder.append(marker).append(' ').append(capitalize(sentence(WORDS_PER_SENTENCE / 2))).append(NEW_LINE);
+        }
+        builder.append(NEW_LINE);
+        for (int i = 0; i < ITEMS_PER_LIST; i++) {
+            builder.append(". ").append(capitalize(sentence(WORDS_PER_SENTENCE / 2))).append(NEW_LINE);
+        }
+    }
+
+    private void appendParagraphWithLinks(StringBuilder builder)
+    {
+        builder.append(capitalize(sentence(WORDS_PER_SENTENCE / 2)));
+        for (int i = 0; i < LINKS_PER_PARAGRAPH; i++) {
+            switch (i) {
+                case 0:
+                    builder.append(" https://xwiki.org/").append(word()).append('[').append(word()).append(']');
+                    break;
+                case 1:
+                    builder.append(" link:").append(capitalize(word())).append('[').append(word()).append(']');
+                    break;
+                default:
+                    builder.append(" mailto:").append(word()).append("@xwiki.org[").append(word()).append(']');
+            }
+            builder.append(' ').append(sentence(WORDS_PER_SENTENCE / 2));
+        }
+        builder.append('.');
+    }
+
+    private void appendSection(StringBuilder builder, int level)
+    {
+        for (int i = 0; i <= level; i++) {
+            builder.append('=');
+        }
+        builder.append(' ').append(generateTitle()).append(BLANK_LINE);
+        builder.append(capitalize(sentence(WORDS_PER_SENTENCE))).append('.');
+    }
+
+    private String sentence(int wordCount)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(word());
+        }
+        return builder.toString();
+    }
+
+    private String word()
+    {
+        return WORDS[this.random.nextInt(WORDS.length)];
+    }
+
+    private static String capitalize(String text)
+    {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
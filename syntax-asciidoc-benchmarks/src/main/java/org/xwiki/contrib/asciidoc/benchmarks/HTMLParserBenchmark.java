@@ -0,0 +1,62 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.parser.Parser;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Benchmarks the parsing of the HTML generated by AsciiDoctor for the inline content of paragraphs and list items,
+ * including the normalization of the links.
+ *
+ * @version $Id$
+ */
+public class HTMLParserBenchmark extends AbstractParserBenchmark
+{
+    /**
+     * The number of sentences of the HTML to parse.
+     */
+    @Param({ "1", "10", "100" })
+    public int size;
+
+    private Parser parser;
+
+    private String html;
+
+    @Override
+    protected void prepare() throws Exception
+    {
+        this.parser = getInstance(Parser.class, "html");
+        this.html = new CorpusGenerator(SEED).generateInlineHTML(this.size);
+    }
+
+    /**
+     * @param blackhole consumes the generated events
+     * @throws ParseException if the parsing fails
+     */
+    @Benchmark
+    public void parse(Blackhole blackhole) throws ParseException
+    {
+        this.parser.parse(this.html, new BlackholeListener(blackhole), false);
+    }
+}
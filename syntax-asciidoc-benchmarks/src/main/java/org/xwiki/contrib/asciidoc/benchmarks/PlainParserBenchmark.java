@@ -0,0 +1,54 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.parser.Parser;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Benchmarks the parsing of section titles.
+ *
+ * @version $Id$
+ */
+public class PlainParserBenchmark extends AbstractParserBenchmark
+{
+    private Parser parser;
+
+    private String title;
+
+    @Override
+    protected void prepare() throws Exception
+    {
+        this.parser = getInstance(Parser.class, "plain");
+        this.title = new CorpusGenerator(SEED).generateTitle();
+    }
+
+    /**
+     * @param blackhole consumes the generated events
+     * @throws ParseException if the parsing fails
+     */
+    @Benchmark
+    public void parse(Blackhole blackhole) throws ParseException
+    {
+        this.parser.parse(this.title, new BlackholeListener(blackhole), true);
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal;
+
+import java.util.List;
+
+import org.xwiki.component.annotation.Role;
+
+/**
+ * Configuration options for the AsciiDoc syntax module.
+ *
+ * @version $Id$
+ */
+@Role
+public interface AsciiDocConfiguration
+{
+    /**
+     * @return true if the inline content of paragraphs and list items should be converted into events directly from
+     *         the AsciiDoc source when possible, instead of asking AsciiDoctorJ to generate HTML and parsing it
+     */
+    boolean isNativeInlineConversionEnabled();
+
+    /**
+     * @return true if the simple HTML generated by AsciiDoctorJ for inline content should be converted into events in
+     *         a single streaming pass when possible, instead of being parsed into an XDOM by the HTML parser
+     */
+    boolean isStreamingHTMLParsingEnabled();
+
+    /**
+     * @return true if the HTML generated by AsciiDoctorJ for the inline content of a document (and that can't be
+     *         streamed) should be parsed at once, instead of parsing the HTML of each paragraph, list item or table
+     *         cell separately
+     */
+    boolean isBatchedHTMLParsingEnabled();
+
+    /**
+     * @return true if the documents that only use the most common AsciiDoc syntax (sections, paragraphs, lists and
+     *         basic formatting) should be converted into events directly from their source, without loading them
+     *         with AsciiDoctorJ
+     */
+    boolean isFastPathParsingEnabled();
+
+    /**
+     * @return the minimum number of AsciiDoctor runtimes to keep in the pool, even when they're idle
+     */
+    int getRuntimePoolMinSize();
+
+    /**
+     * @return the maximum number of AsciiDoctor runtimes in the pool, i.e. the maximum number of AsciiDoc contents
+     *         that can be parsed concurrently
+     */
+    int getRuntimePoolMaxSize();
+
+    /**
+     * @return the time, in milliseconds, after which an idle AsciiDoctor runtime is shut down, if there are more than
+     *         the minimum number of runtimes in the pool
+     */
+    long getRuntimePoolIdleTimeout();
+
+    /**
+     * @return the maximum time, in milliseconds, to wait for an AsciiDoctor runtime to be available before failing
+     *         the parsing
+     */
+    long getRuntimePoolBorrowTimeout();
+
+    /**
+     * @return true if the first AsciiDoctor runtime should be created in the background when the parser is
+     *         initialized, and warmed up by parsing a bundled corpus of samples, instead of being created lazily by the
+     *         first parsing
+     */
+    boolean isRuntimeWarmupEnabled();
+
+    /**
+     * @return the maximum number of times the warm-up corpus is parsed, if the parsing time doesn't stabilize before
+     */
+    int getRuntimeWarmupMaxIterations();
+
+    /**
+     * @return the maximum time, in milliseconds, spent parsing the warm-up corpus
+     */
+    long getRuntimeWarmupMaxDuration();
+
+    /**
+     * @return true if the XDOMs produced by the AsciiDoc parser should be cached, so that parsing the same content
+     *         again returns a copy of the cached XDOM
+     */
+    boolean isXDOMCacheEnabled();
+
+    /**
+     * @return the maximum estimated size, in bytes, of the cached XDOMs
+     */
+    long getXDOMCacheMaxSize();
+
+    /**
+     * @return true if the events generated for the parsed AsciiDoc contents should be stored on disk, so that they
+     *         survive restarts and parsing the same content again replays the stored events (except when the
+     *         chunked parsing is enabled)
+     */
+    boolean isDiskCacheEnabled();
+
+    /**
+     * @return the directory where the events generated for the parsed AsciiDoc contents are stored
+     */
+    String getDiskCacheDirectory();
+
+    /**
+     * @return the maximum size, in bytes, of the events stored on disk
+     */
+    long getDiskCacheMaxSize();
+
+    /**
+     * @return the hint of the {@link org.xwiki.contrib.asciidoc.asciidoc10.internal.include.AsciiDocIncludeResolver}
+     *         component used to resolve the include directives, or null to let AsciiDoctor handle them
+     */
+    String getIncludeResolver();
+
+    /**
+     * @return the maximum estimated size, in bytes, of the cached included contents
+     */
+    long getIncludeCacheMaxSize();
+
+    /**
+     * @return true if the AsciiDoc content should be split at its top-level sections, so that the events generated for
+     *         the sections that didn't change since they were last parsed can be replayed from a cache instead of
+     *         parsing them again
+     */
+    boolean isIncrementalParsingEnabled();
+
+    /**
+     * @return the maximum number of sections for which the generated events are cached, when incremental parsing is
+     *         enabled
+     */
+    int getIncrementalParsingCacheSize();
+
+    /**
+     * @return the number of threads used to parse batches of AsciiDoc contents (by default the maximum number of
+     *         AsciiDoctor runtimes, since the runtimes limit the number of contents parsed concurrently)
+     */
+    int getBatchThreadCount();
+
+    /**
+     * @return true if the time spent in each phase of the parsing should be measured and published, see
+     *         {@link org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics.ParseMetrics}
+     */
+    boolean isMetricsEnabled();
+
+    /**
+     * @return the duration, in milliseconds, above which a parsing is logged as slow, when the metrics are enabled
+     */
+    long getSlowParseThreshold();
+
+    /**
+     * @return true if the AsciiDoc contents larger than {@link #getChunkedParsingThreshold()} should be parsed chunk by
+     *         chunk, cutting them at the top-level block boundaries, so that the memory needed to parse them is
+     *         proportional to the size of the chunks rather than to the size of the whole content
+     */
+    boolean isChunkedParsingEnabled();
+
+    /**
+     * @return the number of characters above which an AsciiDoc content is parsed chunk by chunk, when chunked parsing
+     *         is enabled (smaller contents are kept in memory and parsed at once)
+     */
+    long getChunkedParsingThreshold();
+
+    /**
+     * @return the number of characters after which a chunk is cut at the next top-level block boundary
+     */
+    int getChunkedParsingChunkSize();
+
+    /**
+     * @return the maximum number of characters of plain text extracted from a single AsciiDoc content (zero or negative
+     *         for no limit), see {@link org.xwiki.contrib.asciidoc.asciidoc10.internal.text.AsciiDocTextExtractor}
+     */
+    long getTextExtractionMaxSize();
+
+    /**
+     * @return the maximum number of characters of an AsciiDoc content, above which the parsing fails before the
+     *         content is fully read (zero or negative for no limit)
+     */
+    long getMaxInputSize();
+
+    /**
+     * @return the maximum duration, in milliseconds, of the parsing of an AsciiDoc content (zero or negative for no
+     *         limit); the deadline is checked between blocks, so it can't interrupt AsciiDoctor while it's loading a
+     *         content
+     */
+    long getParseTimeout();
+
+    /**
+     * @return the maximum number of blocks (including list items and table cells) of an AsciiDoc content (zero or
+     *         negative for no limit)
+     */
+    long getMaxBlockCount();
+
+    /**
+     * @return the maximum nesting level of the blocks of an AsciiDoc content, e.g. nested lists (zero or negative for
+     *         no limit)
+     */
+    int getMaxNestingLevel();
+
+    /**
+     * @return the JRuby compile mode ({@code JIT}, {@code FORCE} or {@code OFF}), or null to use the JRuby default;
+     *         like the other JRuby options, it's only taken into account if it's set before the first AsciiDoctor
+     *         runtime is created and if the corresponding {@code jruby.*} system property is not already set
+     */
+    String getJRubyCompileMode();
+
+    /**
+     * @return whether JRuby should use invokedynamic, or null to use the JRuby default
+     */
+    Boolean getJRubyInvokeDynamic();
+
+    /**
+     * @return the number of calls after which JRuby compiles a method, or null to use the JRuby default
+     */
+    Integer getJRubyJITThreshold();
+
+    /**
+     * @return the directories added to the Ruby load path of the AsciiDoctor runtimes, e.g. to load extensions
+     */
+    List<String> getRuntimeLoadPath();
+
+    /**
+     * @return the path where the AsciiDoctor runtimes look for gems, or null to use the gems bundled with AsciiDoctorJ;
+     *         ignored if a load path is configured
+     */
+    String getRuntimeGemPath();
+
+    /**
+     * @return the Ruby libraries (e.g. gems) loaded in each AsciiDoctor runtime when it's created
+     */
+    List<String> getRuntimeRequiredLibraries();
+
+    /**
+     * @return the number of threads used to parse AsciiDoc contents asynchronously (by default the maximum number of
+     *         AsciiDoctor runtimes), i.e. the maximum number of asynchronous parsings running concurrently
+     */
+    int getAsyncThreadCount();
+
+    /**
+     * @return the maximum number of AsciiDoc contents waiting to be parsed asynchronously, above which new contents
+     *         are rejected
+     */
+    int getAsyncQueueSize();
+}
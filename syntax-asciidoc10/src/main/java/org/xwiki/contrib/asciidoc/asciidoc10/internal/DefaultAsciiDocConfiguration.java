@@ -0,0 +1,409 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.configuration.ConfigurationSource;
+
+/**
+ * Reads the AsciiDoc configuration from the {@code xwiki.properties} file, when it's available (i.e. when running
+ * inside XWiki), and falls back to default values otherwise (e.g. when the rendering engine is used standalone).
+ *
+ * @version $Id$
+ */
+@Component
+@Singleton
+public class DefaultAsciiDocConfiguration implements AsciiDocConfiguration
+{
+    private static final String PREFIX = "asciidoc.";
+
+    private static final String XWIKI_PROPERTIES_HINT = "xwikiproperties";
+
+    private static final String RUNTIME_POOL_PREFIX = "runtimePool.";
+
+    private static final int DEFAULT_RUNTIME_POOL_MAX_SIZE = 4;
+
+    private static final long DEFAULT_RUNTIME_POOL_IDLE_TIMEOUT = 600000L;
+
+    private static final long DEFAULT_RUNTIME_POOL_BORROW_TIMEOUT = 60000L;
+
+    private static final String RUNTIME_WARMUP_PREFIX = "runtimeWarmup.";
+
+    private static final int DEFAULT_RUNTIME_WARMUP_MAX_ITERATIONS = 200;
+
+    private static final long DEFAULT_RUNTIME_WARMUP_MAX_DURATION = 60000L;
+
+    private static final String XDOM_CACHE_PREFIX = "xdomCache.";
+
+    private static final long DEFAULT_XDOM_CACHE_MAX_SIZE = 32L * 1024 * 1024;
+
+    private static final String DISK_CACHE_PREFIX = "diskCache.";
+
+    private static final long DEFAULT_DISK_CACHE_MAX_SIZE = 256L * 1024 * 1024;
+
+    private static final String INCLUDE_PREFIX = "include.";
+
+    private static final long DEFAULT_INCLUDE_CACHE_MAX_SIZE = 16L * 1024 * 1024;
+
+    private static final String INCREMENTAL_PARSING_PREFIX = "incrementalParsing.";
+
+    private static final int DEFAULT_INCREMENTAL_PARSING_CACHE_SIZE = 1000;
+
+    private static final String METRICS_PREFIX = "metrics.";
+
+    private static final long DEFAULT_SLOW_PARSE_THRESHOLD = 1000L;
+
+    private static final String CHUNKED_PARSING_PREFIX = "chunkedParsing.";
+
+    private static final long DEFAULT_CHUNKED_PARSING_THRESHOLD = 1024L * 1024;
+
+    private static final int DEFAULT_CHUNKED_PARSING_CHUNK_SIZE = 64 * 1024;
+
+    private static final long DEFAULT_TEXT_EXTRACTION_MAX_SIZE = 1024L * 1024;
+
+    private static final String LIMITS_PREFIX = "limits.";
+
+    private static final String JRUBY_PREFIX = "jruby.";
+
+    private static final String RUNTIME_PREFIX = "runtime.";
+
+    private static final String ASYNC_PREFIX = "async.";
+
+    private static final int DEFAULT_ASYNC_QUEUE_SIZE = 100;
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * The source of the configuration, looked up once since the configuration is read while parsing (e.g. for each
+     * paragraph), or null if it's not available.
+     */
+    private volatile ConfigurationSource configurationSource;
+
+    private volatile boolean configurationSourceResolved;
+
+    @Override
+    public boolean isNativeInlineConversionEnabled()
+    {
+        return getProperty("nativeInlineConversion", false);
+    }
+
+    @Override
+    public boolean isStreamingHTMLParsingEnabled()
+    {
+        return getProperty("streamingHTMLParsing", false);
+    }
+
+    @Override
+    public boolean isBatchedHTMLParsingEnabled()
+    {
+        return getProperty("batchedHTMLParsing", false);
+    }
+
+    @Override
+    public boolean isFastPathParsingEnabled()
+    {
+        return getProperty("fastPathParsing", false);
+    }
+
+    @Override
+    public int getRuntimePoolMinSize()
+    {
+        return getProperty(RUNTIME_POOL_PREFIX + "minSize", 1);
+    }
+
+    @Override
+    public int getRuntimePoolMaxSize()
+    {
+        // Each runtime is a full JRuby runtime so don't create too many of them by default.
+        return getProperty(RUNTIME_POOL_PREFIX + "maxSize",
+            Math.min(DEFAULT_RUNTIME_POOL_MAX_SIZE, Runtime.getRuntime().availableProcessors()));
+    }
+
+    @Override
+    public long getRuntimePoolIdleTimeout()
+    {
+        return getProperty(RUNTIME_POOL_PREFIX + "idleTimeout", DEFAULT_RUNTIME_POOL_IDLE_TIMEOUT);
+    }
+
+    @Override
+    public long getRuntimePoolBorrowTimeout()
+    {
+        return getProperty(RUNTIME_POOL_PREFIX + "borrowTimeout", DEFAULT_RUNTIME_POOL_BORROW_TIMEOUT);
+    }
+
+    @Override
+    public boolean isRuntimeWarmupEnabled()
+    {
+        return getProperty(RUNTIME_WARMUP_PREFIX + "enabled", false);
+    }
+
+    @Override
+    public int getRuntimeWarmupMaxIterations()
+    {
+        return getProperty(RUNTIME_WARMUP_PREFIX + "maxIterations", DEFAULT_RUNTIME_WARMUP_MAX_ITERATIONS);
+    }
+
+    @Override
+    public long getRuntimeWarmupMaxDuration()
+    {
+        return getProperty(RUNTIME_WARMUP_PREFIX + "maxDuration", DEFAULT_RUNTIME_WARMUP_MAX_DURATION);
+    }
+
+    @Override
+    public boolean isXDOMCacheEnabled()
+    {
+        return getProperty(XDOM_CACHE_PREFIX + "enabled", false);
+    }
+
+    @Override
+    public long getXDOMCacheMaxSize()
+    {
+        return getProperty(XDOM_CACHE_PREFIX + "maxSize", DEFAULT_XDOM_CACHE_MAX_SIZE);
+    }
+
+    @Override
+    public boolean isDiskCacheEnabled()
+    {
+        return getProperty(DISK_CACHE_PREFIX + "enabled", false);
+    }
+
+    @Override
+    public String getDiskCacheDirectory()
+    {
+        String directory = getOptionalProperty(DISK_CACHE_PREFIX + "directory", String.class);
+        if (directory == null) {
+            directory = Paths.get(System.getProperty("java.io.tmpdir"), "asciidoc-events").toString();
+        }
+        return directory;
+    }
+
+    @Override
+    public long getDiskCacheMaxSize()
+    {
+        return getProperty(DISK_CACHE_PREFIX + "maxSize", DEFAULT_DISK_CACHE_MAX_SIZE);
+    }
+
+    @Override
+    public String getIncludeResolver()
+    {
+        return getOptionalProperty(INCLUDE_PREFIX + "resolver", String.class);
+    }
+
+    @Override
+    public long getIncludeCacheMaxSize()
+    {
+        return getProperty(INCLUDE_PREFIX + "cacheMaxSize", DEFAULT_INCLUDE_CACHE_MAX_SIZE);
+    }
+
+    @Override
+    public boolean isIncrementalParsingEnabled()
+    {
+        return getProperty(INCREMENTAL_PARSING_PREFIX + "enabled", false);
+    }
+
+    @Override
+    public int getIncrementalParsingCacheSize()
+    {
+        return getProperty(INCREMENTAL_PARSING_PREFIX + "cacheSize", DEFAULT_INCREMENTAL_PARSING_CACHE_SIZE);
+    }
+
+    @Override
+    public int getBatchThreadCount()
+    {
+        return getProperty("batch.threadCount", getRuntimePoolMaxSize());
+    }
+
+    @Override
+    public boolean isMetricsEnabled()
+    {
+        return getProperty(METRICS_PREFIX + "enabled", false);
+    }
+
+    @Override
+    public long getSlowParseThreshold()
+    {
+        return getProperty(METRICS_PREFIX + "slowParseThreshold", DEFAULT_SLOW_PARSE_THRESHOLD);
+    }
+
+    @Override
+    public boolean isChunkedParsingEnabled()
+    {
+        return getProperty(CHUNKED_PARSING_PREFIX + "enabled", false);
+    }
+
+    @Override
+    public long getChunkedParsingThreshold()
+    {
+        return getProperty(CHUNKED_PARSING_PREFIX + "threshold", DEFAULT_CHUNKED_PARSING_THRESHOLD);
+    }
+
+    @Override
+    public int getChunkedParsingChunkSize()
+    {
+        return getProperty(CHUNKED_PARSING_PREFIX + "chunkSize", DEFAULT_CHUNKED_PARSING_CHUNK_SIZE);
+    }
+
+    @Override
+    public long getTextExtractionMaxSize()
+    {
+        return getProperty("textExtraction.maxSize", DEFAULT_TEXT_EXTRACTION_MAX_SIZE);
+    }
+
+    @Override
+    public long getMaxInputSize()
+    {
+        return getProperty(LIMITS_PREFIX + "maxInputSize", 0L);
+    }
+
+    @Override
+    public long getParseTimeout()
+    {
+        return getProperty(LIMITS_PREFIX + "timeout", 0L);
+    }
+
+    @Override
+    public long getMaxBlockCount()
+    {
+        return getProperty(LIMITS_PREFIX + "maxBlockCount", 0L);
+    }
+
+    @Override
+    public int getMaxNestingLevel()
+    {
+        return getProperty(LIMITS_PREFIX + "maxNestingLevel", 0);
+    }
+
+    @Override
+    public String getJRubyCompileMode()
+    {
+        return getOptionalProperty(JRUBY_PREFIX + "compileMode", String.class);
+    }
+
+    @Override
+    public Boolean getJRubyInvokeDynamic()
+    {
+        return getOptionalProperty(JRUBY_PREFIX + "invokeDynamic", Boolean.class);
+    }
+
+    @Override
+    public Integer getJRubyJITThreshold()
+    {
+        return getOptionalProperty(JRUBY_PREFIX + "jitThreshold", Integer.class);
+    }
+
+    @Override
+    public List<String> getRuntimeLoadPath()
+    {
+        return getProperty(RUNTIME_PREFIX + "loadPath", new ArrayList<String>());
+    }
+
+    @Override
+    public String getRuntimeGemPath()
+    {
+        return getOptionalProperty(RUNTIME_PREFIX + "gemPath", String.class);
+    }
+
+    @Override
+    public List<String> getRuntimeRequiredLibraries()
+    {
+        return getProperty(RUNTIME_PREFIX + "requires", new ArrayList<String>());
+    }
+
+    @Override
+    public int getAsyncThreadCount()
+    {
+        return getProperty(ASYNC_PREFIX + "threadCount", getRuntimePoolMaxSize());
+    }
+
+    @Override
+    public int getAsyncQueueSize()
+    {
+        return getProperty(ASYNC_PREFIX + "queueSize", DEFAULT_ASYNC_QUEUE_SIZE);
+    }
+
+    private <T> T getProperty(String key, T defaultValue)
+    {
+        T result = defaultValue;
+        ConfigurationSource source = getConfigurationSource();
+        if (source != null) {
+            result = source.getProperty(PREFIX + key, defaultValue);
+        }
+        return result;
+    }
+
+    /**
+     * @return the value of the given property, or null if it's not set
+     */
+    private <T> T getOptionalProperty(String key, Class<T> valueClass)
+    {
+        T result = null;
+        ConfigurationSource source = getConfigurationSource();
+        if (source != null) {
+            result = source.getProperty(PREFIX + key, valueClass);
+        }
+        return result;
+    }
+
+    private ConfigurationSource getConfigurationSource()
+    {
+        if (!this.configurationSourceResolved) {
+            synchronized (this) {
+                if (!this.configurationSourceResolved) {
+                    this.configurationSource = lookupConfigurationSource();
+                    this.configurationSourceResolved = true;
+                }
+            }
+        }
+        return this.configurationSource;
+    }
+
+    private ConfigurationSource lookupConfigurationSource()
+    {
+        ConfigurationSource result = null;
+        ComponentManager componentManager = this.componentManagerProvider.get();
+        if (componentManager.hasComponent(ConfigurationSource.class, XWIKI_PROPERTIES_HINT)) {
+            try {
+                result = componentManager.getInstance(ConfigurationSource.class, XWIKI_PROPERTIES_HINT);
+            } catch (ComponentLookupException e) {
+                this.logger.warn("Failed to read the AsciiDoc configuration, using the default values instead. "
+                    + "Root cause: [{}]", ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+        return result;
+    }
+}
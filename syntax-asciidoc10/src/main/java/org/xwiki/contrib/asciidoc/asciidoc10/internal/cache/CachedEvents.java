@@ -0,0 +1,93 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.QueueListener;
+import org.xwiki.rendering.listener.QueueListener.Event;
+import org.xwiki.rendering.listener.chaining.EventType;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+
+/**
+ * Events recorded while parsing some content, that can be replayed any number of times. Each replay sends copies of
+ * the mutable event parameters so that listeners modifying them can't alter the recorded events.
+ *
+ * @version $Id$
+ */
+public final class CachedEvents
+{
+    private final List<Event> events;
+
+    private final List<String> headerIds = new ArrayList<>();
+
+    /**
+     * @param queue the recorded events
+     */
+    public CachedEvents(QueueListener queue)
+    {
+        this.events = new ArrayList<>(queue);
+        for (Event event : this.events) {
+            if (event.eventType == EventType.BEGIN_HEADER) {
+                this.headerIds.add((String) event.eventParameters[1]);
+            }
+        }
+    }
+
+    /**
+     * @return the identifiers of the recorded headers
+     */
+    public List<String> getHeaderIds()
+    {
+        return Collections.unmodifiableList(this.headerIds);
+    }
+
+    /**
+     * @param listener the listener to send the recorded events to
+     */
+    public void replay(Listener listener)
+    {
+        for (Event event : this.events) {
+            event.eventType.fireEvent(listener, copyParameters(event.eventParameters));
+        }
+    }
+
+    private static Object[] copyParameters(Object[] parameters)
+    {
+        Object[] result = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Object parameter = parameters[i];
+            if (parameter instanceof ResourceReference) {
+                result[i] = ((ResourceReference) parameter).clone();
+            } else if (parameter instanceof Map && !((Map<?, ?>) parameter).isEmpty()) {
+                result[i] = new LinkedHashMap<>((Map<?, ?>) parameter);
+            } else {
+                // Immutable parameters (strings, enums, empty maps, etc).
+                result[i] = parameter;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.asciidoctor.Asciidoctor;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.QueueListener;
+
+/**
+ * LRU cache bounded by the size of the stored event logs. The event logs are stored in a sub-directory of the
+ * configured directory named after a fingerprint of the parser version, and the sub-directories of the other versions
+ * are deleted when the cache is initialized. The access order is kept across restarts through the last modification
+ * time of the event logs. The cache is disabled, with a warning, if its directory can't be used.
+ *
+ * @version $Id$
+ */
+@Component
+@Singleton
+public class DefaultDiskEventCache implements DiskEventCache, Initializable
+{
+    private static final String FILE_EXTENSION = ".events";
+
+    private static final String TEMPORARY_FILE_EXTENSION = ".tmp";
+
+    private static final Pattern VERSION_DIRECTORY = Pattern.compile("[0-9a-f]{16}");
+
+    private static final int VERSION_LENGTH = 8;
+
+    private static final char VERSION_SEPARATOR = ';';
+
+    /**
+     * The classes whose code affects the stored events: the parser itself, AsciiDoctorJ and the rendering API (the
+     * event logs use the ordinals of its event types).
+     */
+    private static final List<Class<?>> VERSIONED_CLASSES =
+        Arrays.asList(DefaultDiskEventCache.class, Asciidoctor.class, Listener.class);
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    @Inject
+    private AsciiDocConfiguration configuration;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * The size of the stored event logs, by file name, in access order, guarded by itself.
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+    /**
+     * The directory of the event logs, or null if the cache is disabled.
+     */
+    private Path directory;
+
+    private long maxSize;
+
+    private long size;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    @Override
+    public void initialize()
+    {
+        if (this.configuration.isDiskCacheEnabled()) {
+            this.maxSize = this.configuration.getDiskCacheMaxSize();
+            Path root = Paths.get(this.configuration.getDiskCacheDirectory());
+            String version = getVersion();
+            try {
+                Path versionDirectory = root.resolve(version);
+                Files.createDirectories(versionDirectory);
+                deleteOtherVersions(root, version);
+                loadEntries(versionDirectory);
+                this.directory = versionDirectory;
+            } catch (IOException e) {
+                this.logger.warn("Failed to initialize the AsciiDoc disk cache in [{}], it's disabled."
+                    + " Root cause: [{}]", root, ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
+    private void deleteOtherVersions(Path root, String version) throws IOException
+    {
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(root)) {
+            for (Path child : children) {
+                String name = child.getFileName().toString();
+                // Only delete the directories that look like versions, in case the directory is shared.
+                if (!name.equals(version) && VERSION_DIRECTORY.matcher(name).matches() && Files.isDirectory(child)) {
+                    FileUtils.deleteQuietly(child.toFile());
+                }
+            }
+        }
+    }
+
+    private void loadEntries(Path versionDirectory) throws IOException
+    {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(versionDirectory)) {
+            for (Path child : children) {
+                String name = child.getFileName().toString();
+                if (name.endsWith(FILE_EXTENSION)) {
+                    files.add(child);
+                } else if (name.endsWith(TEMPORARY_FILE_EXTENSION)) {
+                    // Left over by a write that didn't complete.
+                    Files.deleteIfExists(child);
+                }
+            }
+        }
+        files.sort(Comparator.comparingLong(file -> file.toFile().lastModified()));
+        synchronized (this.entries) {
+            this.entries.clear();
+            this.size = 0;
+            for (Path file : files) {
+                long fileSize = Files.size(file);
+                this.entries.put(file.getFileName().toString(), fileSize);
+                this.size += fileSize;
+            }
+            evict(versionDirectory);
+        }
+    }
+
+    @Override
+    public boolean replay(String key, Listener listener)
+    {
+        boolean result = false;
+        if (this.directory != null) {
+            String fileName = getFileName(key);
+            boolean stored;
+            synchronized (this.entries) {
+                stored = this.entries.get(fileName) != null;
+            }
+            // Only send the events once the whole log has been decoded, so that the caller can parse the content again
+            // when the log is invalid without receiving any event twice.
+            QueueListener events = stored ? read(fileName) : null;
+            result = events != null;
+            if (result) {
+                events.consumeEvents(listener);
+            }
+            synchronized (this.entries) {
+                if (result) {
+                    this.hitCount++;
+                } else {
+                    this.missCount++;
+                }
+            }
+        }
+        return result;
+    }
+
+    private QueueListener read(String fileName)
+    {
+        QueueListener result = null;
+        Path file = this.directory.resolve(fileName);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            result = EventLog.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            // Evicted meanwhile.
+            remove(fileName);
+        } catch (IOException e) {
+            if (result == null) {
+                this.logger.warn("Failed to replay the AsciiDoc events stored in [{}]. Root cause: [{}]", file,
+                    ExceptionUtils.getRootCauseMessage(e));
+                remove(fileName);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void put(String key, QueueListener events)
+    {
+        if (this.directory != null) {
+            Path temporaryFile = null;
+            try {
+                temporaryFile = Files.createTempFile(this.directory, "events", TEMPORARY_FILE_EXTENSION);
+                try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temporaryFile))) {
+                    EventLog.write(events, output);
+                }
+                long entrySize = Files.size(temporaryFile);
+                // Don't flush the whole cache for events that wouldn't fit anyway.
+                if (entrySize <= this.maxSize) {
+                    String fileName = getFileName(key);
+                    // Readers either see the previous file or the new one, never a partially written one.
+                    Files.move(temporaryFile, this.directory.resolve(fileName), StandardCopyOption.ATOMIC_MOVE);
+                    synchronized (this.entries) {
+                        Long previousSize = this.entries.put(fileName, entrySize);
+                        if (previousSize != null) {
+                            this.size -= previousSize;
+                        }
+                        this.size += entrySize;
+                        evict(this.directory);
+                    }
+                }
+            } catch (IOException e) {
+                this.logger.warn("Failed to store the AsciiDoc events in [{}]. Root cause: [{}]", this.directory,
+                    ExceptionUtils.getRootCauseMessage(e));
+            } finally {
+                if (temporaryFile != null) {
+                    FileUtils.deleteQuietly(temporaryFile.toFile());
+                }
+            }
+        }
+    }
+
+    private void remove(String fileName)
+    {
+        synchronized (this.entries) {
+            Long entrySize = this.entries.remove(fileName);
+            if (entrySize != null) {
+                this.size -= entrySize;
+            }
+        }
+        FileUtils.deleteQuietly(this.directory.resolve(fileName).toFile());
+    }
+
+    /**
+     * Must be called while holding the lock on {@link #entries}.
+     */
+    private void evict(Path versionDirectory)
+    {
+        Iterator<Map.Entry<String, Long>> iterator = this.entries.entrySet().iterator();
+        while (this.size > this.maxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            FileUtils.deleteQuietly(versionDirectory.resolve(entry.getKey()).toFile());
+            this.size -= entry.getValue();
+            iterator.remove();
+            this.evictionCount++;
+        }
+    }
+
+    private String getFileName(String key)
+    {
+        // The keys are Base64 encoded, make them safe to use as file names.
+        return StringUtils.remove(key.replace('/', '_').replace('+', '-'), '=') + FILE_EXTENSION;
+    }
+
+    /**
+     * @return a fingerprint of the code that produces the stored events
+     */
+    private String getVersion()
+    {
+        StringBuilder versions = new StringBuilder().append(EventLog.FORMAT_VERSION);
+        for (Class<?> versionedClass : VERSIONED_CLASSES) {
+            versions.append(VERSION_SEPARATOR).append(getVersion(versionedClass));
+        }
+        byte[] digest = Base64.getDecoder().decode(CacheKey.of(versions.toString(), "version"));
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < VERSION_LENGTH; i++) {
+            result.append(String.format("%02x", digest[i]));
+        }
+        return result.toString();
+    }
+
+    private String getVersion(Class<?> versionedClass)
+    {
+        StringBuilder result = new StringBuilder();
+        if (versionedClass.getPackage() != null) {
+            result.append(versionedClass.getPackage().getImplementationVersion());
+        }
+        // The version doesn't change between snapshot builds, so take the JAR itself into account.
+        CodeSource codeSource = versionedClass.getProtectionDomain().getCodeSource();
+        if (codeSource != null && codeSource.getLocation() != null) {
+            try {
+                Path path = Paths.get(codeSource.getLocation().toURI());
+                result.append(VERSION_SEPARATOR).append(path).append(VERSION_SEPARATOR).append(Files.size(path))
+                    .append(VERSION_SEPARATOR).append(Files.getLastModifiedTime(path).toMillis());
+            } catch (Exception e) {
+                // The code doesn't come from a local file, the version has to be enough.
+                this.logger.debug("Failed to get the location of [{}]: [{}]", versionedClass.getName(),
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+        return result.toString();
+    }
+
+    @Override
+    public int getEntryCount()
+    {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    @Override
+    public long getSize()
+    {
+        synchronized (this.entries) {
+            return this.size;
+        }
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        synchronized (this.entries) {
+            return this.hitCount;
+        }
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        synchronized (this.entries) {
+            return this.missCount;
+        }
+    }
+
+    @Override
+    public long getEvictionCount()
+    {
+        synchronized (this.entries) {
+            return this.evictionCount;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+
+/**
+ * LRU cache bounded by the number of cached sections.
+ *
+ * @version $Id$
+ */
+@Component
+@Singleton
+public class DefaultSectionEventCache implements SectionEventCache, Initializable
+{
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    @Inject
+    private AsciiDocConfiguration configuration;
+
+    /**
+     * The cached events, in access order, guarded by itself.
+     */
+    private Map<String, CachedEvents> entries;
+
+    private long hitCount;
+
+    private long missCount;
+
+    @Override
+    public void initialize()
+    {
+        int maxSize = this.configuration.getIncrementalParsingCacheSize();
+        this.entries = new LinkedHashMap<String, CachedEvents>(INITIAL_CAPACITY, LOAD_FACTOR, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedEvents> eldest)
+            {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public CachedEvents get(String key)
+    {
+        synchronized (this.entries) {
+            CachedEvents events = this.entries.get(key);
+            if (events == null) {
+                this.missCount++;
+            } else {
+                this.hitCount++;
+            }
+            return events;
+        }
+    }
+
+    @Override
+    public void put(String key, CachedEvents events)
+    {
+        synchronized (this.entries) {
+            this.entries.put(key, events);
+        }
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        synchronized (this.entries) {
+            return this.hitCount;
+        }
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        synchronized (this.entries) {
+            return this.missCount;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.RawBlock;
+import org.xwiki.rendering.block.VerbatimBlock;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.block.match.ClassBlockMatcher;
+
+/**
+ * LRU cache bounded by the estimated size of the cached XDOMs.
+ *
+ * @version $Id$
+ */
+@Component
+@Singleton
+public class DefaultXDOMCache implements XDOMCache, Initializable
+{
+    /**
+     * Rough estimate of the memory used by a block, its parameters and its position in the tree.
+     */
+    private static final int BLOCK_SIZE = 96;
+
+    /**
+     * Rough estimate of the memory used by a cache entry, including its key.
+     */
+    private static final int ENTRY_SIZE = 160;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    @Inject
+    private AsciiDocConfiguration configuration;
+
+    /**
+     * The cached entries, in access order, guarded by itself.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+    private long maxSize;
+
+    private long size;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    private static final class Entry
+    {
+        private final XDOM xdom;
+
+        private final long size;
+
+        Entry(XDOM xdom, long size)
+        {
+            this.xdom = xdom;
+            this.size = size;
+        }
+    }
+
+    @Override
+    public void initialize()
+    {
+        this.maxSize = this.configuration.getXDOMCacheMaxSize();
+    }
+
+    @Override
+    public XDOM get(String key)
+    {
+        Entry entry;
+        synchronized (this.entries) {
+            entry = this.entries.get(key);
+            if (entry == null) {
+                this.missCount++;
+            } else {
+                this.hitCount++;
+            }
+        }
+        // Cloning is done outside of the lock since the cached XDOM is never modified.
+        return entry != null ? entry.xdom.clone() : null;
+    }
+
+    @Override
+    public void put(String key, XDOM xdom)
+    {
+        XDOM copy = xdom.clone();
+        long entrySize = estimateSize(copy);
+        // Don't flush the whole cache for an XDOM that wouldn't fit anyway.
+        if (entrySize <= this.maxSize) {
+            synchronized (this.entries) {
+                Entry previous = this.entries.put(key, new Entry(copy, entrySize));
+                if (previous != null) {
+                    this.size -= previous.size;
+                }
+                this.size += entrySize;
+                evict();
+            }
+        }
+    }
+
+    /**
+     * Must be called while holding the lock on {@link #entries}.
+     */
+    private void evict()
+    {
+        Iterator<Entry> iterator = this.entries.values().iterator();
+        while (this.size > this.maxSize && iterator.hasNext()) {
+            this.size -= iterator.next().size;
+            iterator.remove();
+            this.evictionCount++;
+        }
+    }
+
+    /**
+     * @param xdom the XDOM to measure
+     * @return an estimate of the memory used by the given XDOM, based on the number of blocks and the size of their
+     *         text content
+     */
+    static long estimateSize(XDOM xdom)
+    {
+        List<Block> blocks = xdom.getBlocks(new ClassBlockMatcher(Block.class), Block.Axes.DESCENDANT);
+        long result = ENTRY_SIZE + BLOCK_SIZE * (blocks.size() + 1L);
+        for (Block block : blocks) {
+            result += 2L * getTextLength(block);
+        }
+        return result;
+    }
+
+    private static int getTextLength(Block block)
+    {
+        int result = 0;
+        if (block instanceof WordBlock) {
+            result = ((WordBlock) block).getWord().length();
+        } else if (block instanceof VerbatimBlock) {
+            result = ((VerbatimBlock) block).getProtectedString().length();
+        } else if (block instanceof RawBlock) {
+            result = ((RawBlock) block).getRawContent().length();
+        }
+        return result;
+    }
+
+    @Override
+    public int getEntryCount()
+    {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    @Override
+    public long getSize()
+    {
+        synchronized (this.entries) {
+            return this.size;
+        }
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        synchronized (this.entries) {
+            return this.hitCount;
+        }
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        synchronized (this.entries) {
+            return this.missCount;
+        }
+    }
+
+    @Override
+    public long getEvictionCount()
+    {
+        synchronized (this.entries) {
+            return this.evictionCount;
+        }
+    }
+}
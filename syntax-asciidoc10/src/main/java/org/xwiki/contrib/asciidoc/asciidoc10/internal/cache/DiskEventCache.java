@@ -0,0 +1,75 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.cache;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.QueueListener;
+
+/**
+ * Cache of the events generated for whole AsciiDoc contents, stored on disk as {@link EventLog event logs} so that
+ * they survive restarts. The stored events are invalidated automatically when the parser or its dependencies change.
+ *
+ * @version $Id$
+ */
+@Role
+public interface DiskEventCache
+{
+    /**
+     * @param key the cache key, see {@link CacheKey}
+     * @param listener the listener to send the stored events to
+     * @return true if events were stored for the given key and have been sent to the listener, false otherwise, in
+     *         which case no event has been sent
+     */
+    boolean replay(String key, Listener listener);
+
+    /**
+     * Store the given events, evicting the least recently used ones if the cache exceeds its maximum size.
+     *
+     * @param key the cache key, see {@link CacheKey}
+     * @param events the events to store
+     */
+    void put(String key, QueueListener events);
+
+    /**
+     * @return the number of stored entries
+     */
+    int getEntryCount();
+
+    /**
+     * @return the size, in bytes, of the stored entries
+     */
+    long getSize();
+
+    /**
+     * @return the number of times stored events were replayed
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of times no stored events were found
+     */
+    long getMissCount();
+
+    /**
+     * @return the number of entries deleted to stay below the maximum size
+     */
+    long getEvictionCount();
+}
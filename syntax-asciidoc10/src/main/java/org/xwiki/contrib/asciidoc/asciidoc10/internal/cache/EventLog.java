@@ -0,0 +1,404 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.xwiki.rendering.listener.MetaData;
+import org.xwiki.rendering.listener.QueueListener;
+import org.xwiki.rendering.listener.chaining.EventType;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.syntax.Syntax;
+
+/**
+ * Compact binary representation of recorded events. An event log starts with a header made of a magic number, the
+ * version of the format, the size of the encoded events and their CRC32 checksum, so that a truncated or corrupted log
+ * is detected before decoding any event. The payload starts with the names of the enumeration types used by the event
+ * parameters, so that the enumeration values are encoded as the index of their type and their ordinal. The events
+ * are then encoded as the ordinal of their {@link EventType} followed by their parameters, each parameter being
+ * prefixed by a tag identifying its type. The ordinals are stable since the disk cache is invalidated when the
+ * rendering API changes.
+ *
+ * @version $Id$
+ */
+public final class EventLog
+{
+    /**
+     * The version of the format, to increment when it changes.
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    private static final int MAGIC = 0x4144454C;
+
+    private static final int HEADER_SIZE = 16;
+
+    private static final int UNSIGNED_BYTE_MASK = 0xFF;
+
+    private static final int UNSIGNED_SHORT_MASK = 0xFFFF;
+
+    private static final byte NULL_TAG = 0;
+
+    private static final byte STRING_TAG = 1;
+
+    private static final byte BOOLEAN_TAG = 2;
+
+    private static final byte INTEGER_TAG = 3;
+
+    private static final byte CHARACTER_TAG = 4;
+
+    private static final byte ENUM_TAG = 5;
+
+    private static final byte MAP_TAG = 6;
+
+    private static final byte RESOURCE_REFERENCE_TAG = 7;
+
+    private static final byte META_DATA_TAG = 8;
+
+    private static final byte SYNTAX_TAG = 9;
+
+    private static final EventType[] EVENT_TYPES = EventType.values();
+
+    /**
+     * The constants of the enumeration types found in the decoded logs, indexed by the name of their type, so that
+     * the types are only resolved once.
+     */
+    private static final Map<String, Object[]> ENUM_CONSTANTS = new ConcurrentHashMap<>();
+
+    private EventLog()
+    {
+        // Utility class.
+    }
+
+    /**
+     * @param events the events to encode
+     * @param output where to write the encoded events
+     * @throws IOException if the events fail to be written or if some event parameter can't be encoded
+     */
+    public static void write(QueueListener events, OutputStream output) throws IOException
+    {
+        ByteArrayOutputStream encodedEvents = new ByteArrayOutputStream();
+        DataOutputStream eventOutput = new DataOutputStream(encodedEvents);
+        Map<Class<?>, Integer> enumTypes = new LinkedHashMap<>();
+        eventOutput.writeInt(events.size());
+        for (QueueListener.Event event : events) {
+            eventOutput.writeShort(event.eventType.ordinal());
+            eventOutput.writeByte(event.eventParameters.length);
+            for (Object parameter : event.eventParameters) {
+                writeValue(parameter, eventOutput, enumTypes);
+            }
+        }
+        eventOutput.flush();
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream payloadOutput = new DataOutputStream(payload);
+        payloadOutput.writeShort(enumTypes.size());
+        for (Class<?> enumType : enumTypes.keySet()) {
+            writeString(enumType.getName(), payloadOutput);
+        }
+        encodedEvents.writeTo(payloadOutput);
+        payloadOutput.flush();
+
+        byte[] bytes = payload.toByteArray();
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes);
+        DataOutputStream headerOutput = new DataOutputStream(output);
+        headerOutput.writeInt(MAGIC);
+        headerOutput.writeInt(FORMAT_VERSION);
+        headerOutput.writeInt(bytes.length);
+        headerOutput.writeInt((int) checksum.getValue());
+        headerOutput.write(bytes);
+        headerOutput.flush();
+    }
+
+    /**
+     * Decode all the events before returning them, so that an invalid event log is detected before any of its events
+     * is sent to a listener.
+     *
+     * @param buffer the encoded events, from its position to its limit
+     * @return the decoded events
+     * @throws IOException if the event log is invalid
+     */
+    public static QueueListener read(ByteBuffer buffer) throws IOException
+    {
+        ByteBuffer payload = verify(buffer);
+        QueueListener result = new QueueListener();
+        try {
+            Object[][] enumConstants = readEnumTypes(payload);
+            int count = payload.getInt();
+            for (int i = 0; i < count; i++) {
+                EventType eventType = EVENT_TYPES[payload.getShort() & UNSIGNED_SHORT_MASK];
+                Object[] parameters = new Object[payload.get() & UNSIGNED_BYTE_MASK];
+                for (int j = 0; j < parameters.length; j++) {
+                    parameters[j] = readValue(payload, enumConstants);
+                }
+                eventType.fireEvent(result, parameters);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Invalid event log", e);
+        }
+        return result;
+    }
+
+    private static ByteBuffer verify(ByteBuffer buffer) throws IOException
+    {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported event log");
+        }
+        int length = buffer.getInt();
+        int expectedChecksum = buffer.getInt();
+        if (length < 0 || length != buffer.remaining()) {
+            throw new IOException("Truncated event log");
+        }
+        ByteBuffer payload = buffer.slice();
+        CRC32 checksum = new CRC32();
+        checksum.update(payload.duplicate());
+        if ((int) checksum.getValue() != expectedChecksum) {
+            throw new IOException("Corrupted event log");
+        }
+        return payload;
+    }
+
+    private static void writeValue(Object value, DataOutputStream output, Map<Class<?>, Integer> enumTypes)
+        throws IOException
+    {
+        if (value == null) {
+            output.writeByte(NULL_TAG);
+        } else if (value instanceof String) {
+            output.writeByte(STRING_TAG);
+            writeString((String) value, output);
+        } else if (value instanceof Enum) {
+            output.writeByte(ENUM_TAG);
+            Class<?> enumType = ((Enum<?>) value).getDeclaringClass();
+            Integer enumTypeIndex = enumTypes.get(enumType);
+            if (enumTypeIndex == null) {
+                enumTypeIndex = enumTypes.size();
+                enumTypes.put(enumType, enumTypeIndex);
+            }
+            output.writeShort(enumTypeIndex);
+            output.writeShort(((Enum<?>) value).ordinal());
+        } else if (value instanceof Map) {
+            output.writeByte(MAP_TAG);
+            writeMap((Map<?, ?>) value, output, enumTypes);
+        } else if (value.getClass() == ResourceReference.class) {
+            // Subclasses aren't supported since their specific type would be lost.
+            output.writeByte(RESOURCE_REFERENCE_TAG);
+            writeResourceReference((ResourceReference) value, output, enumTypes);
+        } else if (value.getClass() == MetaData.class) {
+            output.writeByte(META_DATA_TAG);
+            writeMap(((MetaData) value).getMetaData(), output, enumTypes);
+        } else if (value instanceof Syntax) {
+            output.writeByte(SYNTAX_TAG);
+            writeString(((Syntax) value).toIdString(), output);
+        } else {
+            writeBoxedValue(value, output);
+        }
+    }
+
+    private static void writeBoxedValue(Object value, DataOutputStream output) throws IOException
+    {
+        if (value instanceof Boolean) {
+            output.writeByte(BOOLEAN_TAG);
+            output.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            output.writeByte(INTEGER_TAG);
+            output.writeInt((Integer) value);
+        } else if (value instanceof Character) {
+            output.writeByte(CHARACTER_TAG);
+            output.writeChar((Character) value);
+        } else {
+            throw new IOException(String.format("Unsupported event parameter type [%s]", value.getClass().getName()));
+        }
+    }
+
+    private static void writeMap(Map<?, ?> map, DataOutputStream output, Map<Class<?>, Integer> enumTypes)
+        throws IOException
+    {
+        output.writeInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!(entry.getKey() instanceof String)) {
+                throw new IOException("Unsupported event parameter map key");
+            }
+            writeString((String) entry.getKey(), output);
+            writeValue(entry.getValue(), output, enumTypes);
+        }
+    }
+
+    private static void writeResourceReference(ResourceReference reference, DataOutputStream output,
+        Map<Class<?>, Integer> enumTypes) throws IOException
+    {
+        writeString(reference.getType().getScheme(), output);
+        writeString(reference.getReference(), output);
+        output.writeBoolean(reference.isTyped());
+        output.writeInt(reference.getBaseReferences().size());
+        for (String baseReference : reference.getBaseReferences()) {
+            writeString(baseReference, output);
+        }
+        writeMap(reference.getParameters(), output, enumTypes);
+    }
+
+    private static void writeString(String value, DataOutputStream output) throws IOException
+    {
+        // DataOutput#writeUTF is limited to 64KB, which isn't enough for large verbatim blocks.
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static Object readValue(ByteBuffer buffer, Object[][] enumConstants) throws IOException
+    {
+        Object result;
+        byte tag = buffer.get();
+        switch (tag) {
+            case NULL_TAG:
+                result = null;
+                break;
+            case STRING_TAG:
+                result = readString(buffer);
+                break;
+            case ENUM_TAG:
+                result = enumConstants[buffer.getShort() & UNSIGNED_SHORT_MASK][buffer.getShort()
+                    & UNSIGNED_SHORT_MASK];
+                break;
+            case MAP_TAG:
+                result = readMap(buffer, enumConstants);
+                break;
+            case RESOURCE_REFERENCE_TAG:
+                result = readResourceReference(buffer, enumConstants);
+                break;
+            case META_DATA_TAG:
+                result = new MetaData(readMap(buffer, enumConstants));
+                break;
+            case SYNTAX_TAG:
+                result = readSyntax(buffer);
+                break;
+            default:
+                result = readBoxedValue(tag, buffer);
+        }
+        return result;
+    }
+
+    private static Object readBoxedValue(byte tag, ByteBuffer buffer) throws IOException
+    {
+        Object result;
+        switch (tag) {
+            case BOOLEAN_TAG:
+                result = buffer.get() != 0;
+                break;
+            case INTEGER_TAG:
+                result = buffer.getInt();
+                break;
+            case CHARACTER_TAG:
+                result = buffer.getChar();
+                break;
+            default:
+                throw new IOException(String.format("Unknown event parameter tag [%d]", tag));
+        }
+        return result;
+    }
+
+    private static Map<String, Object> readMap(ByteBuffer buffer, Object[][] enumConstants) throws IOException
+    {
+        int size = buffer.getInt();
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            String key = readString(buffer);
+            result.put(key, readValue(buffer, enumConstants));
+        }
+        return result;
+    }
+
+    private static ResourceReference readResourceReference(ByteBuffer buffer, Object[][] enumConstants)
+        throws IOException
+    {
+        ResourceType type = new ResourceType(readString(buffer));
+        ResourceReference result = new ResourceReference(readString(buffer), type);
+        result.setTyped(buffer.get() != 0);
+        int baseReferenceCount = buffer.getInt();
+        List<String> baseReferences = new ArrayList<>(baseReferenceCount);
+        for (int i = 0; i < baseReferenceCount; i++) {
+            baseReferences.add(readString(buffer));
+        }
+        result.addBaseReferences(baseReferences);
+        for (Map.Entry<String, Object> parameter : readMap(buffer, enumConstants).entrySet()) {
+            result.setParameter(parameter.getKey(), (String) parameter.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * @return the constants of the enumeration types used by the events, in the order of the types in the log
+     */
+    private static Object[][] readEnumTypes(ByteBuffer buffer) throws IOException
+    {
+        Object[][] result = new Object[buffer.getShort() & UNSIGNED_SHORT_MASK][];
+        for (int i = 0; i < result.length; i++) {
+            String className = readString(buffer);
+            Object[] constants = ENUM_CONSTANTS.get(className);
+            if (constants == null) {
+                try {
+                    constants = Class.forName(className, false, EventLog.class.getClassLoader()).getEnumConstants();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(String.format("Unknown enumeration [%s]", className), e);
+                }
+                if (constants == null) {
+                    throw new IOException(String.format("[%s] is not an enumeration", className));
+                }
+                ENUM_CONSTANTS.put(className, constants);
+            }
+            result[i] = constants;
+        }
+        return result;
+    }
+
+    private static Syntax readSyntax(ByteBuffer buffer) throws IOException
+    {
+        String syntaxId = readString(buffer);
+        Syntax result;
+        try {
+            result = Syntax.valueOf(syntaxId);
+        } catch (ParseException e) {
+            throw new IOException(String.format("Invalid syntax [%s]", syntaxId), e);
+        }
+        return result;
+    }
+
+    private static String readString(ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+        ByteBuffer bytes = buffer.slice();
+        bytes.limit(length);
+        buffer.position(buffer.position() + length);
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+}
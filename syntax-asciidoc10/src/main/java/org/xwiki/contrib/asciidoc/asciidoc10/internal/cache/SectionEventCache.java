@@ -0,0 +1,55 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.cache;
+
+import org.xwiki.component.annotation.Role;
+
+/**
+ * Cache of the events generated for the top-level sections of AsciiDoc contents, used by the incremental parsing.
+ *
+ * @version $Id$
+ */
+@Role
+public interface SectionEventCache
+{
+    /**
+     * @param key the cache key, see {@link CacheKey}
+     * @return the cached events, or null if there are no events cached for the given key
+     */
+    CachedEvents get(String key);
+
+    /**
+     * Cache the given events, evicting the least recently used ones if the cache is full.
+     *
+     * @param key the cache key, see {@link CacheKey}
+     * @param events the events to cache
+     */
+    void put(String key, CachedEvents events);
+
+    /**
+     * @return the number of times cached events were found
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of times no cached events were found
+     */
+    long getMissCount();
+}
@@ -0,0 +1,73 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.cache;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.block.XDOM;
+
+/**
+ * Cache of the XDOMs produced by the AsciiDoc parser, keyed by a hash of the parsed content and of the context that
+ * affects the parsing. The cache keeps its own copies of the XDOMs so that callers are free to modify the XDOMs they
+ * put in or get from the cache.
+ *
+ * @version $Id$
+ */
+@Role
+public interface XDOMCache
+{
+    /**
+     * @param key the cache key, see {@link CacheKey}
+     * @return a copy of the cached XDOM, or null if there's no XDOM cached for the given key
+     */
+    XDOM get(String key);
+
+    /**
+     * Cache a copy of the given XDOM, evicting the least recently used XDOMs if the cache exceeds its maximum size.
+     *
+     * @param key the cache key, see {@link CacheKey}
+     * @param xdom the XDOM to cache
+     */
+    void put(String key, XDOM xdom);
+
+    /**
+     * @return the number of cached XDOMs
+     */
+    int getEntryCount();
+
+    /**
+     * @return the estimated size, in bytes, of the cached XDOMs
+     */
+    long getSize();
+
+    /**
+     * @return the number of times a cached XDOM was found
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of times no cached XDOM was found
+     */
+    long getMissCount();
+
+    /**
+     * @return the number of XDOMs evicted from the cache to stay below its maximum size
+     */
+    long getEvictionCount();
+}
@@ -0,0 +1,53 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.include;
+
+import org.xwiki.component.annotation.Role;
+
+/**
+ * Resolves the targets of the AsciiDoc include directives (e.g. to wiki pages or attachments) when the hint of the
+ * implementation is configured, see
+ * {@link org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration#getIncludeResolver()}. The resolved
+ * contents are cached by {@link IncludeCache}, so implementations should call {@link IncludeCache#invalidate(String)}
+ * when a resolved content is modified or deleted. Like for files, the preprocessor directives (e.g. the nested include
+ * directives) of an included content are processed only if its reference ends with an AsciiDoc file extension (e.g.
+ * {@code .adoc}), since AsciiDoctor uses the reference as the file name of the included content.
+ *
+ * @version $Id$
+ */
+@Role
+public interface AsciiDocIncludeResolver
+{
+    /**
+     * @param target the target of the include directive, with the attribute references substituted
+     * @param parentReference the reference of the included content holding the include directive, or null if the
+     *            directive is in the parsed content
+     * @return the reference identifying the included content, used as cache key, or null if the target can't be
+     *         resolved
+     */
+    String getReference(String target, String parentReference);
+
+    /**
+     * @param reference the reference of the included content, as returned by {@link #getReference(String, String)}
+     * @return the included content, or null if it doesn't exist
+     * @throws IncludeException if the content fails to be read
+     */
+    String getContent(String reference) throws IncludeException;
+}
@@ -0,0 +1,303 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.include;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+
+/**
+ * LRU cache bounded by the estimated size of the cached contents. The contents being read are tracked so that the
+ * threads asking for a content that is being read wait for it instead of reading it again, and so that the contents
+ * invalidated while being read are not cached.
+ *
+ * @version $Id$
+ */
+@Component
+@Singleton
+public class DefaultIncludeCache implements IncludeCache, Initializable
+{
+    /**
+     * Rough estimate of the memory used by a line, besides its characters.
+     */
+    private static final int LINE_SIZE = 56;
+
+    /**
+     * Rough estimate of the memory used by a cache entry, including its key.
+     */
+    private static final int ENTRY_SIZE = 160;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private static final Pattern LINE_TERMINATOR = Pattern.compile("\\r?\\n");
+
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    @Inject
+    private AsciiDocConfiguration configuration;
+
+    /**
+     * The cached entries, in access order, guarded by itself.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+    /**
+     * The contents being read, guarded by {@link #entries}.
+     */
+    private final Map<String, FutureTask<List<String>>> loading = new HashMap<>();
+
+    private long maxSize;
+
+    private long size;
+
+    private long generation;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    private static final class Entry
+    {
+        private final List<String> lines;
+
+        private final long size;
+
+        Entry(List<String> lines, long size)
+        {
+            this.lines = lines;
+            this.size = size;
+        }
+    }
+
+    @Override
+    public void initialize()
+    {
+        this.maxSize = this.configuration.getIncludeCacheMaxSize();
+    }
+
+    @Override
+    public List<String> get(String reference, AsciiDocIncludeResolver resolver) throws IncludeException
+    {
+        List<String> result = null;
+        FutureTask<List<String>> task = null;
+        boolean owner = false;
+        long loadGeneration;
+        synchronized (this.entries) {
+            loadGeneration = this.generation;
+            Entry entry = this.entries.get(reference);
+            if (entry != null) {
+                this.hitCount++;
+                result = entry.lines;
+            } else {
+                this.missCount++;
+                task = this.loading.get(reference);
+                if (task == null) {
+                    task = new FutureTask<>(() -> load(reference, resolver));
+                    this.loading.put(reference, task);
+                    owner = true;
+                }
+            }
+        }
+        if (task != null) {
+            result = owner ? loadAndStore(reference, task, loadGeneration) : await(task);
+        }
+        return result;
+    }
+
+    private List<String> loadAndStore(String reference, FutureTask<List<String>> task, long loadGeneration)
+        throws IncludeException
+    {
+        List<String> result = null;
+        try {
+            task.run();
+            result = await(task);
+        } finally {
+            synchronized (this.entries) {
+                this.loading.remove(reference, task);
+                // Don't cache a content that has been invalidated while being read, it may be outdated.
+                if (result != null && loadGeneration == this.generation) {
+                    store(reference, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<String> await(FutureTask<List<String>> task) throws IncludeException
+    {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IncludeException) {
+                throw (IncludeException) e.getCause();
+            }
+            throw new IncludeException("Failed to read the included content", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IncludeException("Interrupted while waiting for the included content to be read", e);
+        }
+    }
+
+    private static List<String> load(String reference, AsciiDocIncludeResolver resolver) throws IncludeException
+    {
+        List<String> result = null;
+        String content = resolver.getContent(reference);
+        if (content != null) {
+            String[] lines = LINE_TERMINATOR.split(StringUtils.removeStart(content, BYTE_ORDER_MARK));
+            result = Collections.unmodifiableList(Arrays.asList(lines));
+        }
+        return result;
+    }
+
+    /**
+     * Must be called while holding the lock on {@link #entries}.
+     */
+    private void store(String reference, List<String> lines)
+    {
+        long entrySize = estimateSize(lines);
+        // Don't flush the whole cache for a content that wouldn't fit anyway.
+        if (entrySize <= this.maxSize) {
+            Entry previous = this.entries.put(reference, new Entry(lines, entrySize));
+            if (previous != null) {
+                this.size -= previous.size;
+            }
+            this.size += entrySize;
+            evict();
+        }
+    }
+
+    /**
+     * Must be called while holding the lock on {@link #entries}.
+     */
+    private void evict()
+    {
+        Iterator<Entry> iterator = this.entries.values().iterator();
+        while (this.size > this.maxSize && iterator.hasNext()) {
+            this.size -= iterator.next().size;
+            iterator.remove();
+            this.evictionCount++;
+        }
+    }
+
+    /**
+     * @param lines the lines of an included content
+     * @return an estimate of the memory used by the given lines
+     */
+    static long estimateSize(List<String> lines)
+    {
+        long result = ENTRY_SIZE;
+        for (String line : lines) {
+            result += LINE_SIZE + 2L * line.length();
+        }
+        return result;
+    }
+
+    @Override
+    public void invalidate(String reference)
+    {
+        synchronized (this.entries) {
+            Entry entry = this.entries.remove(reference);
+            if (entry != null) {
+                this.size -= entry.size;
+            }
+            // The threads already waiting for the content being read still get it, but it won't be cached.
+            this.loading.remove(reference);
+            this.generation++;
+        }
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        synchronized (this.entries) {
+            this.entries.clear();
+            this.loading.clear();
+            this.size = 0;
+            this.generation++;
+        }
+    }
+
+    @Override
+    public long getGeneration()
+    {
+        synchronized (this.entries) {
+            return this.generation;
+        }
+    }
+
+    @Override
+    public int getEntryCount()
+    {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    @Override
+    public long getSize()
+    {
+        synchronized (this.entries) {
+            return this.size;
+        }
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        synchronized (this.entries) {
+            return this.hitCount;
+        }
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        synchronized (this.entries) {
+            return this.missCount;
+        }
+    }
+
+    @Override
+    public long getEvictionCount()
+    {
+        synchronized (this.entries) {
+            return this.evictionCount;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.include;
+
+import java.util.List;
+
+import org.xwiki.component.annotation.Role;
+
+/**
+ * Cache of the contents included by the AsciiDoc include directives, already split into lines, so that a content
+ * included by many documents is read once by the {@link AsciiDocIncludeResolver} instead of once per parsing.
+ *
+ * @version $Id$
+ */
+@Role
+public interface IncludeCache
+{
+    /**
+     * Get the lines of the included content, reading the content through the given resolver if it's not cached. A
+     * content requested by several threads at the same time is read once.
+     *
+     * @param reference the reference of the included content, see
+     *            {@link AsciiDocIncludeResolver#getReference(String, String)}
+     * @param resolver the resolver used to read the content if it's not cached
+     * @return the lines of the included content, or null if it doesn't exist
+     * @throws IncludeException if the content fails to be read
+     */
+    List<String> get(String reference, AsciiDocIncludeResolver resolver) throws IncludeException;
+
+    /**
+     * Remove the given content from the cache, e.g. because it has been modified.
+     *
+     * @param reference the reference of the included content
+     */
+    void invalidate(String reference);
+
+    /**
+     * Remove all the contents from the cache.
+     */
+    void invalidateAll();
+
+    /**
+     * @return a number incremented each time cached contents are invalidated, so that the caches of the parsing
+     *         results of the documents holding include directives can take it into account
+     */
+    long getGeneration();
+
+    /**
+     * @return the number of cached contents
+     */
+    int getEntryCount();
+
+    /**
+     * @return the estimated size, in bytes, of the cached contents
+     */
+    long getSize();
+
+    /**
+     * @return the number of times a cached content was found
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of times no cached content was found
+     */
+    long getMissCount();
+
+    /**
+     * @return the number of contents evicted from the cache to stay below its maximum size
+     */
+    long getEvictionCount();
+}
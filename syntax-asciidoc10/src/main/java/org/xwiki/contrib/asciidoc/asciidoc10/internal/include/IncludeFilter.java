@@ -0,0 +1,181 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.include;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Selects the lines of an included content according to the {@code lines} or {@code tag(s)} attributes of the include
+ * directive, following the rules of AsciiDoctor, since AsciiDoctor leaves it to the include processors.
+ *
+ * @version $Id$
+ */
+public final class IncludeFilter
+{
+    private static final String LINES = "lines";
+
+    private static final String TAG = "tag";
+
+    private static final String TAGS = "tags";
+
+    private static final String SEPARATORS = ";,";
+
+    private static final String RANGE = "..";
+
+    private static final String NEGATION = "!";
+
+    private static final String WILDCARD = "*";
+
+    private static final String DOUBLE_WILDCARD = "**";
+
+    private static final Pattern TAG_DIRECTIVE = Pattern.compile("\\b(?:tag|(e)nd)::(\\S+?)\\[\\](?=$|[ \\r])");
+
+    private IncludeFilter()
+    {
+        // Utility class.
+    }
+
+    /**
+     * @param lines the lines of the included content
+     * @param attributes the attributes of the include directive
+     * @return the selected lines, joined with new lines
+     */
+    public static String filter(List<String> lines, Map<String, Object> attributes)
+    {
+        List<String> selectedLines;
+        if (attributes.get(LINES) != null) {
+            selectedLines = selectLines(lines, String.valueOf(attributes.get(LINES)));
+        } else if (attributes.get(TAGS) != null) {
+            selectedLines = selectTags(lines, String.valueOf(attributes.get(TAGS)));
+        } else if (attributes.get(TAG) != null) {
+            selectedLines = selectTags(lines, String.valueOf(attributes.get(TAG)));
+        } else {
+            selectedLines = lines;
+        }
+        return StringUtils.join(selectedLines, '\n');
+    }
+
+    /**
+     * @param ranges the line numbers or ranges (e.g. {@code 1..5;8;10..-1}), starting at 1
+     */
+    private static List<String> selectLines(List<String> lines, String ranges)
+    {
+        boolean[] selected = new boolean[lines.size()];
+        for (String range : StringUtils.split(ranges, SEPARATORS)) {
+            String[] bounds = StringUtils.splitByWholeSeparatorPreserveAllTokens(range.trim(), RANGE);
+            int start = parseLineNumber(bounds[0], 1);
+            int end = bounds.length > 1 ? parseLineNumber(bounds[1], -1) : start;
+            if (end < 0) {
+                end = lines.size();
+            }
+            for (int i = Math.max(start, 1); i <= Math.min(end, lines.size()); i++) {
+                selected[i - 1] = true;
+            }
+        }
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < selected.length; i++) {
+            if (selected[i]) {
+                result.add(lines.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static int parseLineNumber(String lineNumber, int defaultValue)
+    {
+        int result = defaultValue;
+        if (StringUtils.isNotBlank(lineNumber)) {
+            try {
+                result = Integer.parseInt(lineNumber.trim());
+            } catch (NumberFormatException e) {
+                // Invalid line numbers select no line.
+                result = 0;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param tagList the names of the tags to include, or to exclude when prefixed with {@code !}, separated by
+     *            {@code ;} or {@code ,}, where {@code *} stands for all the tags and {@code **} for all the lines
+     */
+    private static List<String> selectTags(List<String> lines, String tagList)
+    {
+        Map<String, Boolean> tags = new HashMap<>();
+        for (String tag : StringUtils.split(tagList, SEPARATORS)) {
+            String name = tag.trim();
+            boolean negated = name.startsWith(NEGATION);
+            tags.put(negated ? name.substring(1) : name, !negated);
+        }
+        Boolean all = tags.remove(DOUBLE_WILDCARD);
+        Boolean wildcard = tags.remove(WILDCARD);
+        boolean select;
+        if (all != null) {
+            select = all;
+        } else if (wildcard != null) {
+            select = !wildcard;
+        } else {
+            select = !tags.containsValue(Boolean.TRUE);
+        }
+
+        List<String> result = new ArrayList<>();
+        // The selection of the lines before each opened tag.
+        Deque<Boolean> selections = new ArrayDeque<>();
+        Deque<String> openedTags = new ArrayDeque<>();
+        for (String line : lines) {
+            Matcher matcher = TAG_DIRECTIVE.matcher(line);
+            if (!matcher.find()) {
+                if (select) {
+                    result.add(line);
+                }
+            } else if (matcher.group(1) == null) {
+                openedTags.push(matcher.group(2));
+                selections.push(select);
+                select = getTagSelection(tags, matcher.group(2), wildcard, select);
+            } else if (matcher.group(2).equals(openedTags.peek())) {
+                openedTags.pop();
+                select = selections.pop();
+            }
+        }
+        return result;
+    }
+
+    private static boolean getTagSelection(Map<String, Boolean> tags, String tag, Boolean wildcard, boolean select)
+    {
+        boolean result;
+        if (tags.containsKey(tag)) {
+            result = tags.get(tag);
+        } else if (wildcard != null) {
+            result = wildcard;
+        } else {
+            result = select;
+        }
+        return result;
+    }
+}
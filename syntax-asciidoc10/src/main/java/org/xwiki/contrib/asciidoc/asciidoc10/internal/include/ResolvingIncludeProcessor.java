@@ -0,0 +1,90 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.include;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.asciidoctor.ast.Document;
+import org.asciidoctor.extension.IncludeProcessor;
+import org.asciidoctor.extension.PreprocessorReader;
+import org.slf4j.Logger;
+
+/**
+ * Resolves all the include directives through an {@link AsciiDocIncludeResolver}, reading the included contents from
+ * the {@link IncludeCache}. An instance is registered on each AsciiDoctor runtime, so it's only used by one thread at
+ * a time. The include directives that can't be resolved are replaced by the same message as AsciiDoctor's.
+ *
+ * @version $Id$
+ */
+public class ResolvingIncludeProcessor extends IncludeProcessor
+{
+    /**
+     * The prefix of the include directives.
+     */
+    public static final String INCLUDE_DIRECTIVE = "include::";
+
+    private final AsciiDocIncludeResolver resolver;
+
+    private final IncludeCache cache;
+
+    private final Logger logger;
+
+    /**
+     * @param resolver the resolver of the include directive targets
+     * @param cache the cache of the included contents
+     * @param logger the logger used to report the contents that fail to be read
+     */
+    public ResolvingIncludeProcessor(AsciiDocIncludeResolver resolver, IncludeCache cache, Logger logger)
+    {
+        this.resolver = resolver;
+        this.cache = cache;
+        this.logger = logger;
+    }
+
+    @Override
+    public boolean handles(String target)
+    {
+        return true;
+    }
+
+    @Override
+    public void process(Document document, PreprocessorReader reader, String target, Map<String, Object> attributes)
+    {
+        // The file of the reader is the reference of the included content being read, if any.
+        String reference = this.resolver.getReference(target, reader.getFile());
+        List<String> lines = null;
+        if (reference != null) {
+            try {
+                lines = this.cache.get(reference, this.resolver);
+            } catch (IncludeException e) {
+                this.logger.warn("Failed to read the content [{}] included by [{}]. Root cause: [{}]", reference,
+                    target, ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+        if (lines != null) {
+            reader.pushInclude(IncludeFilter.filter(lines, attributes), reference, target, 1, attributes);
+        } else {
+            reader.restoreLine(String.format("Unresolved directive in %s - %s%s[]",
+                reader.getFile() != null ? reader.getFile() : "<stdin>", INCLUDE_DIRECTIVE, target));
+        }
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+
+/**
+ * Aggregates the metrics of all the parsings, publishes them as the {@value #OBJECT_NAME} MBean, sends the metrics of
+ * each parsing to the {@link ParseMetricsSink} components and logs the parsings that are slower than the configured
+ * threshold, along with the phase in which most of the time was spent.
+ *
+ * @version $Id$
+ */
+@Component
+@Singleton
+public class DefaultParseMetrics implements ParseMetrics, ParseMetricsMBean, Initializable, Disposable
+{
+    /**
+     * The name under which the metrics are published through JMX.
+     */
+    public static final String OBJECT_NAME = "org.xwiki.contrib.asciidoc:type=ParseMetrics";
+
+    private static final int PHASE_COUNT = ParsePhase.values().length;
+
+    private static final int COUNTER_COUNT = ParseCounter.values().length;
+
+    @Inject
+    private AsciiDocConfiguration configuration;
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    private Logger logger;
+
+    private final LongAdder parseCount = new LongAdder();
+
+    private final LongAdder slowParseCount = new LongAdder();
+
+    private final LongAdder totalTime = new LongAdder();
+
+    private final LongAdder[] phaseTimes = createAdders(PHASE_COUNT);
+
+    private final LongAdder[] counters = createAdders(COUNTER_COUNT);
+
+    private final ThreadLocal<ParseRecord> currentParse = new ThreadLocal<>();
+
+    private boolean enabled;
+
+    private long slowParseThreshold;
+
+    private ObjectName objectName;
+
+    /**
+     * The metrics of the parsing in progress in a thread.
+     */
+    private static final class ParseRecord
+    {
+        private final long start = System.nanoTime();
+
+        private final long[] phaseTimes = new long[PHASE_COUNT];
+
+        private final long[] counters = new long[COUNTER_COUNT];
+
+        private int depth;
+    }
+
+    @Override
+    public void initialize()
+    {
+        this.enabled = this.configuration.isMetricsEnabled();
+        this.slowParseThreshold = TimeUnit.MILLISECONDS.toNanos(this.configuration.getSlowParseThreshold());
+        if (this.enabled) {
+            registerMBean();
+        }
+    }
+
+    private void registerMBean()
+    {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            server.registerMBean(new StandardMBean(this, ParseMetricsMBean.class), name);
+            this.objectName = name;
+        } catch (JMException e) {
+            this.logger.warn("Failed to register the AsciiDoc parsing metrics MBean. Root cause: [{}]",
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        if (this.objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.objectName);
+            } catch (JMException e) {
+                this.logger.warn("Failed to unregister the AsciiDoc parsing metrics MBean. Root cause: [{}]",
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
+    @Override
+    public void beginParse()
+    {
+        if (this.enabled) {
+            ParseRecord record = this.currentParse.get();
+            if (record == null) {
+                record = new ParseRecord();
+                this.currentParse.set(record);
+            }
+            record.depth++;
+        }
+    }
+
+    @Override
+    public void endParse()
+    {
+        if (this.enabled) {
+            ParseRecord record = this.currentParse.get();
+            if (record != null && --record.depth == 0) {
+                this.currentParse.remove();
+                endParse(record);
+            }
+        }
+    }
+
+    private void endParse(ParseRecord record)
+    {
+        long duration = System.nanoTime() - record.start;
+        this.parseCount.increment();
+        this.totalTime.add(duration);
+
+        ParseStatistics statistics = new ParseStatistics(duration, record.phaseTimes, record.counters);
+        if (duration >= this.slowParseThreshold) {
+            this.slowParseCount.increment();
+            ParsePhase dominantPhase = statistics.getDominantPhase();
+            this.logger.warn("Slow AsciiDoc parsing: [{}] ms, mostly spent in the [{}] phase ([{}] ms)",
+                statistics.getDuration(), dominantPhase, statistics.getPhaseTime(dominantPhase));
+            this.logger.debug("Slow AsciiDoc parsing statistics: {}", statistics);
+        }
+
+        for (ParseMetricsSink sink : getSinks()) {
+            sink.onParse(statistics);
+        }
+    }
+
+    private List<ParseMetricsSink> getSinks()
+    {
+        List<ParseMetricsSink> sinks;
+        try {
+            sinks = this.componentManagerProvider.get().getInstanceList(ParseMetricsSink.class);
+        } catch (ComponentLookupException e) {
+            this.logger.warn("Failed to look up the AsciiDoc parsing metrics sinks. Root cause: [{}]",
+                ExceptionUtils.getRootCauseMessage(e));
+            sinks = Collections.emptyList();
+        }
+        return sinks;
+    }
+
+    @Override
+    public long startTimer()
+    {
+        return this.enabled ? System.nanoTime() : 0L;
+    }
+
+    @Override
+    public void stopTimer(ParsePhase phase, long start)
+    {
+        if (this.enabled) {
+            long duration = System.nanoTime() - start;
+            this.phaseTimes[phase.ordinal()].add(duration);
+            ParseRecord record = this.currentParse.get();
+            if (record != null) {
+                record.phaseTimes[phase.ordinal()] += duration;
+            }
+        }
+    }
+
+    @Override
+    public void increment(ParseCounter counter, long value)
+    {
+        if (this.enabled) {
+            this.counters[counter.ordinal()].add(value);
+            ParseRecord record = this.currentParse.get();
+            if (record != null) {
+                record.counters[counter.ordinal()] += value;
+            }
+        }
+    }
+
+    @Override
+    public long getParseCount()
+    {
+        return this.parseCount.sum();
+    }
+
+    @Override
+    public long getSlowParseCount()
+    {
+        return this.slowParseCount.sum();
+    }
+
+    @Override
+    public long getTotalTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.totalTime.sum());
+    }
+
+    @Override
+    public long getFastPathParsingTime()
+    {
+        return getPhaseTime(ParsePhase.FAST_PATH_PARSING);
+    }
+
+    @Override
+    public long getLoadTime()
+    {
+        return getPhaseTime(ParsePhase.LOAD);
+    }
+
+    @Override
+    public long getHTMLGenerationTime()
+    {
+        return getPhaseTime(ParsePhase.HTML_GENERATION);
+    }
+
+    @Override
+    public long getInlineSourceConversionTime()
+    {
+        return getPhaseTime(ParsePhase.INLINE_SOURCE_CONVERSION);
+    }
+
+    @Override
+    public long getHTMLParsingTime()
+    {
+        return getPhaseTime(ParsePhase.HTML_PARSING);
+    }
+
+    @Override
+    public long getPlainTextParsingTime()
+    {
+        return getPhaseTime(ParsePhase.PLAIN_TEXT_PARSING);
+    }
+
+    @Override
+    public long getEventGenerationTime()
+    {
+        return getPhaseTime(ParsePhase.EVENT_GENERATION);
+    }
+
+    @Override
+    public long getParsedCharacterCount()
+    {
+        return this.counters[ParseCounter.CHARACTERS.ordinal()].sum();
+    }
+
+    @Override
+    public long getBlockCount()
+    {
+        return this.counters[ParseCounter.BLOCKS.ordinal()].sum();
+    }
+
+    @Override
+    public long getRewrittenLinkCount()
+    {
+        return this.counters[ParseCounter.REWRITTEN_LINKS.ordinal()].sum();
+    }
+
+    @Override
+    public long getFastPathDocumentCount()
+    {
+        return this.counters[ParseCounter.FAST_PATH_DOCUMENTS.ordinal()].sum();
+    }
+
+    @Override
+    public void reset()
+    {
+        this.parseCount.reset();
+        this.slowParseCount.reset();
+        this.totalTime.reset();
+        for (LongAdder adder : this.phaseTimes) {
+            adder.reset();
+        }
+        for (LongAdder adder : this.counters) {
+            adder.reset();
+        }
+    }
+
+    private long getPhaseTime(ParsePhase phase)
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.phaseTimes[phase.ordinal()].sum());
+    }
+
+    private static LongAdder[] createAdders(int count)
+    {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics;
+
+/**
+ * The counters updated while parsing AsciiDoc contents.
+ *
+ * @version $Id$
+ */
+public enum ParseCounter
+{
+    /**
+     * The number of parsed characters.
+     */
+    CHARACTERS,
+
+    /**
+     * The number of visited AsciiDoctor blocks (sections, paragraphs, lists and list items).
+     */
+    BLOCKS,
+
+    /**
+     * The number of links whose reference has been normalized.
+     */
+    REWRITTEN_LINKS,
+
+    /**
+     * The number of documents (or chunks of documents) converted without loading them with AsciiDoctor.
+     */
+    FAST_PATH_DOCUMENTS
+}
@@ -0,0 +1,60 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics;
+
+import org.xwiki.component.annotation.Role;
+
+/**
+ * Collects timers and counters for the phases of the AsciiDoc parsing. All the methods do nothing (and the timers
+ * don't even read the clock) when the metrics are disabled.
+ *
+ * @version $Id$
+ */
+@Role
+public interface ParseMetrics
+{
+    /**
+     * Marks the start of the parsing of an AsciiDoc content by the current thread. Calls can be nested, only the
+     * outermost parsing is recorded.
+     */
+    void beginParse();
+
+    /**
+     * Marks the end of the parsing started by the last call to {@link #beginParse()} in the current thread.
+     */
+    void endParse();
+
+    /**
+     * @return the start time to pass to {@link #stopTimer(ParsePhase, long)}
+     */
+    long startTimer();
+
+    /**
+     * @param phase the phase that was timed
+     * @param start the value returned by {@link #startTimer()} when the phase started
+     */
+    void stopTimer(ParsePhase phase, long start);
+
+    /**
+     * @param counter the counter to increment
+     * @param value the value to add to the counter
+     */
+    void increment(ParseCounter counter, long value);
+}
@@ -0,0 +1,104 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics;
+
+/**
+ * JMX view of the metrics aggregated over all the AsciiDoc parsings since the metrics were enabled or reset. Times
+ * are in milliseconds.
+ *
+ * @version $Id$
+ */
+public interface ParseMetricsMBean
+{
+    /**
+     * @return the number of parsed contents
+     */
+    long getParseCount();
+
+    /**
+     * @return the number of parsings that took longer than the slow parsing threshold
+     */
+    long getSlowParseCount();
+
+    /**
+     * @return the total time spent parsing
+     */
+    long getTotalTime();
+
+    /**
+     * @return the time spent converting documents directly from their AsciiDoc source, whether it succeeded or not
+     */
+    long getFastPathParsingTime();
+
+    /**
+     * @return the time spent by AsciiDoctor loading contents
+     */
+    long getLoadTime();
+
+    /**
+     * @return the time spent by AsciiDoctor generating the HTML of inline contents
+     */
+    long getHTMLGenerationTime();
+
+    /**
+     * @return the time spent converting inline contents directly from their AsciiDoc source
+     */
+    long getInlineSourceConversionTime();
+
+    /**
+     * @return the time spent parsing the HTML generated by AsciiDoctor
+     */
+    long getHTMLParsingTime();
+
+    /**
+     * @return the time spent parsing section titles
+     */
+    long getPlainTextParsingTime();
+
+    /**
+     * @return the time spent sending the events of the parsed HTML to the listeners
+     */
+    long getEventGenerationTime();
+
+    /**
+     * @return the number of parsed characters
+     */
+    long getParsedCharacterCount();
+
+    /**
+     * @return the number of visited AsciiDoctor blocks
+     */
+    long getBlockCount();
+
+    /**
+     * @return the number of links whose type has been fixed
+     */
+    long getRewrittenLinkCount();
+
+    /**
+     * @return the number of documents converted directly from their AsciiDoc source, without AsciiDoctor
+     */
+    long getFastPathDocumentCount();
+
+    /**
+     * Reset all the metrics.
+     */
+    void reset();
+}
@@ -0,0 +1,37 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics;
+
+import org.xwiki.component.annotation.Role;
+
+/**
+ * Receives the statistics of each AsciiDoc parsing when the metrics are enabled, e.g. to publish them to a monitoring
+ * system. Implementations are called from the parsing threads so they must be fast and thread safe.
+ *
+ * @version $Id$
+ */
+@Role
+public interface ParseMetricsSink
+{
+    /**
+     * @param statistics the statistics of the parsing that just ended
+     */
+    void onParse(ParseStatistics statistics);
+}
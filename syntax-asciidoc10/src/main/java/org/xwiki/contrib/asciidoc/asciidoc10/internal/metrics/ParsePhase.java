@@ -0,0 +1,66 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics;
+
+/**
+ * The phases of the parsing of an AsciiDoc content that are timed.
+ *
+ * @version $Id$
+ */
+public enum ParsePhase
+{
+    /**
+     * Converting whole documents directly into events, see
+     * {@link org.xwiki.contrib.asciidoc.asciidoc10.internal.parser.FastPathParser}, including the documents that end up
+     * being loaded by AsciiDoctor because they use some unsupported syntax.
+     */
+    FAST_PATH_PARSING,
+
+    /**
+     * AsciiDoctor loading the content into an AST.
+     */
+    LOAD,
+
+    /**
+     * AsciiDoctor generating the HTML of the inline content of the blocks.
+     */
+    HTML_GENERATION,
+
+    /**
+     * Converting the AsciiDoc source of the inline content into events, see
+     * {@link org.xwiki.contrib.asciidoc.asciidoc10.internal.parser.InlineSourceParser}.
+     */
+    INLINE_SOURCE_CONVERSION,
+
+    /**
+     * Parsing the HTML generated by AsciiDoctor.
+     */
+    HTML_PARSING,
+
+    /**
+     * Parsing the section titles, including sending their events to the listener.
+     */
+    PLAIN_TEXT_PARSING,
+
+    /**
+     * Traversing the XDOMs produced by the HTML parser to send their events to the listener.
+     */
+    EVENT_GENERATION
+}
@@ -0,0 +1,102 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time spent in each phase and the counters of a single parsing.
+ *
+ * @version $Id$
+ */
+public final class ParseStatistics
+{
+    private final long duration;
+
+    private final long[] phaseTimes;
+
+    private final long[] counters;
+
+    /**
+     * @param duration the total duration of the parsing, in nanoseconds
+     * @param phaseTimes the time spent in each phase, in nanoseconds, indexed by {@link ParsePhase#ordinal()}
+     * @param counters the counters, indexed by {@link ParseCounter#ordinal()}
+     */
+    public ParseStatistics(long duration, long[] phaseTimes, long[] counters)
+    {
+        this.duration = duration;
+        this.phaseTimes = phaseTimes.clone();
+        this.counters = counters.clone();
+    }
+
+    /**
+     * @return the total duration of the parsing, in milliseconds
+     */
+    public long getDuration()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.duration);
+    }
+
+    /**
+     * @param phase a parsing phase
+     * @return the time spent in the given phase, in milliseconds
+     */
+    public long getPhaseTime(ParsePhase phase)
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.phaseTimes[phase.ordinal()]);
+    }
+
+    /**
+     * @param counter a counter
+     * @return the value of the given counter
+     */
+    public long getCounter(ParseCounter counter)
+    {
+        return this.counters[counter.ordinal()];
+    }
+
+    /**
+     * @return the phase in which most of the time was spent
+     */
+    public ParsePhase getDominantPhase()
+    {
+        ParsePhase result = ParsePhase.LOAD;
+        for (ParsePhase phase : ParsePhase.values()) {
+            if (this.phaseTimes[phase.ordinal()] > this.phaseTimes[result.ordinal()]) {
+                result = phase;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append("duration = [").append(getDuration()).append(" ms]");
+        for (ParsePhase phase : ParsePhase.values()) {
+            builder.append(", ").append(phase).append(" = [").append(getPhaseTime(phase)).append(" ms]");
+        }
+        for (ParseCounter counter : ParseCounter.values()) {
+            builder.append(", ").append(counter).append(" = [").append(getCounter(counter)).append(']');
+        }
+        return builder.toString();
+    }
+}
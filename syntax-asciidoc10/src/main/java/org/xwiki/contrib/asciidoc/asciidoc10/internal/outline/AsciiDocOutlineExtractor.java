@@ -0,0 +1,55 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.outline;
+
+import java.io.Reader;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Extracts the metadata of AsciiDoc contents (title, attributes and section outline) without generating the events
+ * of their blocks, e.g. for search indexing. Only the document header and the section titles are converted, the
+ * content of the other blocks is never converted to HTML.
+ *
+ * @version $Id$
+ */
+@Role
+public interface AsciiDocOutlineExtractor
+{
+    /**
+     * Extract the title, the attributes and the section tree of the given content.
+     *
+     * @param source the content to read
+     * @return the outline of the content
+     * @throws ParseException if the content can't be read or loaded
+     */
+    DocumentOutline getOutline(Reader source) throws ParseException;
+
+    /**
+     * Extract only the title and the attributes defined in the header of the given content, which is cheaper than
+     * {@link #getOutline(Reader)} since the body of the content is not even parsed.
+     *
+     * @param source the content to read
+     * @return the outline of the content, without sections
+     * @throws ParseException if the content can't be read or loaded
+     */
+    DocumentOutline getHeader(Reader source) throws ParseException;
+}
@@ -0,0 +1,168 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.outline;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.io.IOUtils;
+import org.asciidoctor.Asciidoctor;
+import org.asciidoctor.Options;
+import org.asciidoctor.ast.Document;
+import org.asciidoctor.ast.Section;
+import org.asciidoctor.ast.StructuralNode;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.parser.HTMLText;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.parser.LimitedReader;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.parser.ParseGuard;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.runtime.AsciidoctorPool;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Loads the AsciiDoc contents with a runtime borrowed from the {@link AsciidoctorPool} and only walks the document
+ * header and the sections of the resulting AST. Since AsciiDoctor converts the inline content lazily, the paragraphs
+ * and the other blocks are parsed but never converted. The same limits as for the parsing (input size, deadline,
+ * number of blocks and nesting level) are enforced, the blocks being counted as the sections are walked.
+ *
+ * @version $Id$
+ */
+@Component
+@Singleton
+public class DefaultAsciiDocOutlineExtractor implements AsciiDocOutlineExtractor
+{
+    /**
+     * Stop parsing the content after its header.
+     */
+    private static final String PARSE_HEADER_ONLY_OPTION = "parse_header_only";
+
+    @Inject
+    private AsciidoctorPool asciidoctorPool;
+
+    @Inject
+    private AsciiDocConfiguration configuration;
+
+    /**
+     * The options are only read when loading a content, so they can be shared by all the extractions.
+     */
+    private final Options outlineOptions = Options.builder().build();
+
+    private final Options headerOptions = Options.builder().option(PARSE_HEADER_ONLY_OPTION, true).build();
+
+    /**
+     * The attributes that AsciiDoctor sets for every document, computed from an empty document the first time they're
+     * needed.
+     */
+    private volatile Set<String> intrinsicAttributes;
+
+    @Override
+    public DocumentOutline getOutline(Reader source) throws ParseException
+    {
+        return extract(source, false);
+    }
+
+    @Override
+    public DocumentOutline getHeader(Reader source) throws ParseException
+    {
+        return extract(source, true);
+    }
+
+    private DocumentOutline extract(Reader source, boolean headerOnly) throws ParseException
+    {
+        String content;
+        try {
+            content = IOUtils.toString(LimitedReader.limit(source, this.configuration.getMaxInputSize()));
+        } catch (LimitedReader.LimitExceededException e) {
+            throw new ParseException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new ParseException("Failed to read AsciiDoc content", e);
+        }
+
+        DocumentOutline result;
+        ParseGuard guard = new ParseGuard(this.configuration.getParseTimeout(), this.configuration.getMaxBlockCount(),
+            this.configuration.getMaxNestingLevel());
+        // The runtime is kept until the AST has been walked since the AST nodes are bound to it.
+        Asciidoctor asciidoctor = this.asciidoctorPool.borrow();
+        try {
+            Document document = asciidoctor.load(content, headerOnly ? this.headerOptions : this.outlineOptions);
+            // Loading can't be interrupted, so check right away whether the deadline passed meanwhile.
+            guard.check();
+            List<SectionOutline> sections =
+                headerOnly ? Collections.emptyList() : getSections(document.getBlocks(), guard);
+            String title = document.getDoctitle();
+            result = new DocumentOutline(title != null ? HTMLText.toPlainText(title) : null,
+                getAttributes(document, asciidoctor), sections);
+        } finally {
+            this.asciidoctorPool.release(asciidoctor);
+        }
+        return result;
+    }
+
+    private List<SectionOutline> getSections(List<StructuralNode> blocks, ParseGuard guard) throws ParseException
+    {
+        guard.enterNesting();
+        // Only the blocks of the sections are counted, since the other blocks are not walked.
+        guard.enterBlocks(blocks.size());
+        List<SectionOutline> sections = new ArrayList<>();
+        for (StructuralNode block : blocks) {
+            // Sections can only be nested in the document and in other sections.
+            if (block instanceof Section) {
+                Section section = (Section) block;
+                sections.add(new SectionOutline(section.getId(), section.getLevel(),
+                    HTMLText.toPlainText(section.getTitle()), getSections(section.getBlocks(), guard)));
+            }
+        }
+        guard.exitNesting();
+        return sections;
+    }
+
+    private Map<String, String> getAttributes(Document document, Asciidoctor asciidoctor)
+    {
+        Set<String> ignoredAttributes = getIntrinsicAttributes(asciidoctor);
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> attribute : document.getAttributes().entrySet()) {
+            if (attribute.getValue() != null && !ignoredAttributes.contains(attribute.getKey())) {
+                attributes.put(attribute.getKey(), String.valueOf(attribute.getValue()));
+            }
+        }
+        return attributes;
+    }
+
+    private Set<String> getIntrinsicAttributes(Asciidoctor asciidoctor)
+    {
+        Set<String> result = this.intrinsicAttributes;
+        if (result == null) {
+            // All the runtimes set the same attributes so it doesn't matter if several threads compute them.
+            result = new HashSet<>(asciidoctor.load("", this.headerOptions).getAttributes().keySet());
+            this.intrinsicAttributes = result;
+        }
+        return result;
+    }
+}
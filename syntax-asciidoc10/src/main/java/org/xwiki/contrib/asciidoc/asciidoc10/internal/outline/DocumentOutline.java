@@ -0,0 +1,77 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.outline;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The metadata of an AsciiDoc content: its title, the attributes it defines and its section tree.
+ *
+ * @version $Id$
+ */
+public final class DocumentOutline
+{
+    private final String title;
+
+    private final Map<String, String> attributes;
+
+    private final List<SectionOutline> sections;
+
+    /**
+     * @param title the plain text title of the document, or null if it has none
+     * @param attributes the attributes defined in the header of the document
+     * @param sections the top-level sections of the document
+     */
+    public DocumentOutline(String title, Map<String, String> attributes, List<SectionOutline> sections)
+    {
+        this.title = title;
+        this.attributes = Collections.unmodifiableMap(new LinkedHashMap<>(attributes));
+        this.sections = Collections.unmodifiableList(sections);
+    }
+
+    /**
+     * @return the plain text title of the document, or null if it has none
+     */
+    public String getTitle()
+    {
+        return this.title;
+    }
+
+    /**
+     * @return the attributes defined in the header of the document, including the attributes derived from the
+     *         header (e.g. {@code doctitle}, {@code author} or {@code revnumber}), but not the intrinsic attributes set
+     *         by AsciiDoctor for every document
+     */
+    public Map<String, String> getAttributes()
+    {
+        return this.attributes;
+    }
+
+    /**
+     * @return the top-level sections of the document
+     */
+    public List<SectionOutline> getSections()
+    {
+        return this.sections;
+    }
+}
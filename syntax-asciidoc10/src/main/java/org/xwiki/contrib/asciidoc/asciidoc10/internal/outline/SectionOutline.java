@@ -0,0 +1,85 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.outline;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A section of an AsciiDoc content, as found in its outline.
+ *
+ * @version $Id$
+ */
+public final class SectionOutline
+{
+    private final String id;
+
+    private final int level;
+
+    private final String title;
+
+    private final List<SectionOutline> children;
+
+    /**
+     * @param id the id of the section, which is also the id of the header generated by the parser
+     * @param level the level of the section
+     * @param title the plain text title of the section
+     * @param children the sub-sections of the section
+     */
+    public SectionOutline(String id, int level, String title, List<SectionOutline> children)
+    {
+        this.id = id;
+        this.level = level;
+        this.title = title;
+        this.children = Collections.unmodifiableList(children);
+    }
+
+    /**
+     * @return the id of the section, which is also the id of the header generated by the parser
+     */
+    public String getId()
+    {
+        return this.id;
+    }
+
+    /**
+     * @return the level of the section (1 for the top-level sections, unless the document uses level 0 sections)
+     */
+    public int getLevel()
+    {
+        return this.level;
+    }
+
+    /**
+     * @return the plain text title of the section
+     */
+    public String getTitle()
+    {
+        return this.title;
+    }
+
+    /**
+     * @return the sub-sections of the section
+     */
+    public List<SectionOutline> getChildren()
+    {
+        return this.children;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.io.Reader;
+import java.util.concurrent.CompletableFuture;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.Listener;
+
+/**
+ * Parses AsciiDoc contents asynchronously on a dedicated, bounded, pool of threads, so that the callers (e.g. virtual
+ * threads or asynchronous request pipelines) are never blocked by AsciiDoctor. When too many contents are waiting to
+ * be parsed, new contents are rejected right away instead of being queued.
+ *
+ * @version $Id$
+ */
+@Role
+public interface AsciiDocAsyncParser
+{
+    /**
+     * Parse the given content into an XDOM.
+     *
+     * @param source the content to parse, read from the parsing thread
+     * @return the future XDOM, completed exceptionally with a {@link org.xwiki.rendering.parser.ParseException} if the
+     *         parsing fails or if the content is rejected
+     */
+    CompletableFuture<XDOM> parse(Reader source);
+
+    /**
+     * Parse the given content, sending its events to the given listener from the parsing thread.
+     *
+     * @param source the content to parse, read from the parsing thread
+     * @param listener the listener to which to send the events
+     * @return the future completed when the parsing is done, completed exceptionally with a
+     *         {@link org.xwiki.rendering.parser.ParseException} if the parsing fails or if the content is rejected
+     */
+    CompletableFuture<Void> parse(Reader source, Listener listener);
+
+    /**
+     * @return the number of contents currently being parsed
+     */
+    int getActiveCount();
+
+    /**
+     * @return the number of contents waiting to be parsed
+     */
+    int getQueuedCount();
+
+    /**
+     * @return the total number of contents rejected because too many contents were waiting to be parsed
+     */
+    long getRejectedCount();
+}
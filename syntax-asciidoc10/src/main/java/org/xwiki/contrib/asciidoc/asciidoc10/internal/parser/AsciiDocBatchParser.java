@@ -0,0 +1,73 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Parses batches of AsciiDoc contents concurrently, e.g. for imports or reindexing. The failure to parse a content
+ * doesn't prevent the other contents of the batch from being parsed.
+ *
+ * @version $Id$
+ */
+@Role
+public interface AsciiDocBatchParser
+{
+    /**
+     * Parse the given contents into XDOMs. All the XDOMs are kept until the whole batch is parsed, so large batches
+     * should rather be parsed with {@link #parse(List, Consumer)}.
+     *
+     * @param sources the contents to parse
+     * @return the results, in the same order as the sources
+     * @throws ParseException if the thread was interrupted while waiting for the batch to be parsed
+     */
+    List<BatchParseResult> parse(List<? extends Reader> sources) throws ParseException;
+
+    /**
+     * Parse the given contents into XDOMs, handing over each result as soon as it's available in the order of the
+     * sources. Only a few contents are parsed ahead of the consumer, so the memory used doesn't depend on the size of
+     * the batch as long as the consumer doesn't keep the XDOMs.
+     *
+     * @param sources the contents to parse
+     * @param resultConsumer called from the calling thread with the result of each content, in the same order as the
+     *            sources
+     * @throws ParseException if the thread was interrupted while waiting for the batch to be parsed
+     */
+    void parse(List<? extends Reader> sources, Consumer<BatchParseResult> resultConsumer) throws ParseException;
+
+    /**
+     * Parse the given contents, sending the events of each content to its own listener. The listeners are called
+     * from the threads parsing the contents.
+     *
+     * @param sources the contents to parse
+     * @param listenerProvider provides the listener to use for the source at the given index
+     * @return the results, in the same order as the sources (without XDOMs)
+     * @throws ParseException if the thread was interrupted while waiting for the batch to be parsed
+     */
+    List<BatchParseResult> parse(List<? extends Reader> sources, IntFunction<Listener> listenerProvider)
+        throws ParseException;
+}
@@ -19,22 +19,34 @@
  */
 package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
 
+import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.apache.commons.io.IOUtils;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.cache.CacheKey;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.cache.XDOMCache;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.include.IncludeCache;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.include.ResolvingIncludeProcessor;
 import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.internal.parser.XDOMGeneratorListener;
 import org.xwiki.rendering.parser.ParseException;
 import org.xwiki.rendering.parser.Parser;
 import org.xwiki.rendering.parser.StreamParser;
 import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.wiki.WikiModel;
 
 /**
- * XDOM parser for AsciiDoc, delegating the work to the stream parser implementation.
+ * XDOM parser for AsciiDoc, delegating the work to the stream parser implementation. When enabled, the produced XDOMs
+ * are cached so that unchanged contents are not parsed again.
  *
  * @version $Id$
  */
@@ -47,6 +59,19 @@ public class AsciiDocParser implements Parser
     @Named("asciidoc/1.0")
     private StreamParser asciidocStreamParser;
 
+    @Inject
+    private AsciiDocConfiguration configuration;
+
+    @Inject
+    private XDOMCache xdomCache;
+
+    @Inject
+    private IncludeCache includeCache;
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
     @Override
     public Syntax getSyntax()
     {
@@ -55,6 +80,45 @@ public class AsciiDocParser implements Parser
 
     @Override
     public XDOM parse(Reader source) throws ParseException
+    {
+        XDOM result;
+        if (this.configuration.isXDOMCacheEnabled()) {
+            String content;
+            try {
+                content = IOUtils.toString(LimitedReader.limit(source, this.configuration.getMaxInputSize()));
+            } catch (LimitedReader.LimitExceededException e) {
+                throw new ParseException(e.getMessage(), e);
+            } catch (IOException e) {
+                throw new ParseException("Failed to parse AsciiDoc content", e);
+            }
+            String key = CacheKey.of(content, getCacheContext(content));
+            result = this.xdomCache.get(key);
+            if (result == null) {
+                result = parseXDOM(new StringReader(content));
+                this.xdomCache.put(key, result);
+            }
+        } else {
+            result = parseXDOM(source);
+        }
+        return result;
+    }
+
+    /**
+     * @return the context that affects the produced XDOM, i.e. whether untyped links target wiki documents or URLs
+     *         (see {@link HTMLParser}) and, when the content has include directives, whether the included contents
+     *         changed since the XDOM was cached
+     */
+    private String getCacheContext(String content)
+    {
+        String result = "wikiMode=" + this.componentManagerProvider.get().hasComponent(WikiModel.class);
+        if (this.configuration.getIncludeResolver() != null
+            && content.contains(ResolvingIncludeProcessor.INCLUDE_DIRECTIVE)) {
+            result += ";includes=" + this.includeCache.getGeneration();
+        }
+        return result;
+    }
+
+    private XDOM parseXDOM(Reader source) throws ParseException
     {
         XDOMGeneratorListener xdomGeneratorListener = new XDOMGeneratorListener();
         this.asciidocStreamParser.parse(source, xdomGeneratorListener);
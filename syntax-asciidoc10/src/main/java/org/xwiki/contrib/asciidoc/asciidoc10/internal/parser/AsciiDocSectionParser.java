@@ -0,0 +1,61 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Parses a single section of an AsciiDoc content, e.g. to display a large document one section at a time. The whole
+ * content is still loaded by AsciiDoctor, since the section identifiers and the document attributes depend on it, but
+ * the inline content of the other sections isn't converted.
+ *
+ * @version $Id$
+ */
+@Role
+public interface AsciiDocSectionParser
+{
+    /**
+     * @param source the AsciiDoc content
+     * @param sectionId the identifier of the section to parse, as passed to {@link Listener#beginHeader} when parsing
+     *            the whole content, or as found in the outline of the content (see
+     *            {@link org.xwiki.contrib.asciidoc.asciidoc10.internal.outline.AsciiDocOutlineExtractor})
+     * @param listener the listener to which to send the events of a document containing only the section and its
+     *            sub-sections
+     * @return true if the section has been found, false otherwise, in which case no event has been sent
+     * @throws ParseException in case of parsing error
+     */
+    boolean parseSection(Reader source, String sectionId, Listener listener) throws ParseException;
+
+    /**
+     * @param source the AsciiDoc content
+     * @param path the position of the section to parse in the outline of the content: the index of its top level
+     *            section, followed by the index of the sub-section in that section, and so on
+     * @param listener the listener to which to send the events of a document containing only the section and its
+     *            sub-sections
+     * @return true if the section has been found, false otherwise, in which case no event has been sent
+     * @throws ParseException in case of parsing error
+     */
+    boolean parseSection(Reader source, List<Integer> path, Listener listener) throws ParseException;
+}
@@ -19,55 +19,148 @@
  */
 package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.asciidoctor.Asciidoctor;
 import org.asciidoctor.Options;
 import org.asciidoctor.ast.Block;
+import org.asciidoctor.ast.Cell;
+import org.asciidoctor.ast.ContentNode;
 import org.asciidoctor.ast.Document;
 import org.asciidoctor.ast.ListItem;
+import org.asciidoctor.ast.Row;
 import org.asciidoctor.ast.Section;
 import org.asciidoctor.ast.StructuralNode;
-import org.asciidoctor.jruby.internal.JRubyAsciidoctor;
+import org.asciidoctor.ast.Table;
 import org.xwiki.component.annotation.Component;
-import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.cache.CacheKey;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.cache.CachedEvents;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.cache.DiskEventCache;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.cache.SectionEventCache;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.include.ResolvingIncludeProcessor;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics.ParseCounter;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics.ParseMetrics;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics.ParsePhase;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.runtime.AsciidoctorPool;
+import org.xwiki.rendering.listener.CompositeListener;
 import org.xwiki.rendering.listener.HeaderLevel;
 import org.xwiki.rendering.listener.ListType;
 import org.xwiki.rendering.listener.Listener;
 import org.xwiki.rendering.listener.MetaData;
+import org.xwiki.rendering.listener.QueueListener;
 import org.xwiki.rendering.parser.ParseException;
 import org.xwiki.rendering.parser.StreamParser;
 import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.wiki.WikiModel;
 
 import static java.util.Collections.emptyMap;
 
 /**
- * Stream Parser for AsciiDoc syntax.
+ * Stream Parser for AsciiDoc syntax, which can also parse a single section of an AsciiDoc content.
  *
  * @version $Id$
  */
-@Component
+@Component(roles = { StreamParser.class, AsciiDocSectionParser.class })
 @Named("asciidoc/1.0")
 @Singleton
-public class AsciiDocStreamParser implements StreamParser, Initializable
+public class AsciiDocStreamParser implements StreamParser, AsciiDocSectionParser
 {
+    /**
+     * Visits the AST of a loaded document.
+     */
+    @FunctionalInterface
+    private interface DocumentVisitor
+    {
+        /**
+         * @param document the loaded document
+         * @param listener the listener to send the events to
+         * @return whether the document had the expected content
+         * @throws ParseException in case of parsing error
+         */
+        boolean visit(Document document, Listener listener) throws ParseException;
+    }
+
+    private static final String PARSE_ERROR_MESSAGE = "Failed to parse AsciiDoc content";
+
+    private static final String SUBS_ATTRIBUTE = "subs";
+
+    private static final String HARDBREAKS_OPTION = "hardbreaks";
+
+    private static final String HARDBREAKS_OPTION_ATTRIBUTE = "hardbreaks-option";
+
+    private static final String CLASS_PARAMETER = "class";
+
+    private static final String DEFAULT_CELL_STYLE = "default";
+
+    private static final HeaderLevel[] HEADER_LEVELS = HeaderLevel.values();
+
     @Inject
-    @Named("html")
+    @Named(HTMLFragmentParser.HINT)
     private Parser htmlParser;
 
     @Inject
     @Named("plain")
     private Parser plainParser;
 
-    private Asciidoctor asciidoctor;
+    @Inject
+    @Named("html/4.01")
+    private org.xwiki.rendering.parser.Parser htmlDocumentParser;
+
+    @Inject
+    private InlineSourceParser inlineSourceParser;
+
+    @Inject
+    private FastPathParser fastPathParser;
+
+    @Inject
+    private AsciiDocConfiguration configuration;
+
+    @Inject
+    private AsciidoctorPool asciidoctorPool;
+
+    @Inject
+    private SectionEventCache sectionEventCache;
+
+    @Inject
+    private DiskEventCache diskEventCache;
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    private ParseMetrics parseMetrics;
+
+    /**
+     * The options are only read when loading a content, so they can be shared by all the parsings.
+     */
+    private final Options options = Options.builder().build();
+
+    /**
+     * The limits of the parsing done by the current thread.
+     */
+    private final ThreadLocal<ParseGuard> currentGuard = new ThreadLocal<>();
 
     @Override
     public Syntax getSyntax()
@@ -76,22 +169,347 @@ public class AsciiDocStreamParser implements StreamParser, Initializable
     }
 
     @Override
-    public void initialize()
+    public void parse(Reader source, Listener listener) throws ParseException
     {
-        this.asciidoctor = JRubyAsciidoctor.create();
+        ParseGuard previousGuard = beginParse();
+        try {
+            Reader limitedSource = LimitedReader.limit(source, this.configuration.getMaxInputSize());
+            if (this.configuration.isChunkedParsingEnabled()) {
+                try (SpooledSource spooledSource =
+                    SpooledSource.spool(limitedSource, this.configuration.getChunkedParsingThreshold())) {
+                    this.parseMetrics.increment(ParseCounter.CHARACTERS, spooledSource.getLength());
+                    MetaData metadata = createMetaData();
+                    Listener normalizingListener = createNormalizingListener(listener);
+                    normalizingListener.beginDocument(metadata);
+                    parseSpooledSource(spooledSource, normalizingListener);
+                    normalizingListener.endDocument(metadata);
+                }
+            } else {
+                String content = IOUtils.toString(limitedSource);
+                this.parseMetrics.increment(ParseCounter.CHARACTERS, content.length());
+                if (this.configuration.isDiskCacheEnabled() && !hasResolvedIncludes(content)) {
+                    parseWithDiskCache(content, listener);
+                } else {
+                    parseDocumentContent(content, listener);
+                }
+            }
+        } catch (LimitedReader.LimitExceededException e) {
+            throw new ParseException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new ParseException(PARSE_ERROR_MESSAGE, e);
+        } finally {
+            endParse(previousGuard);
+        }
     }
 
     @Override
-    public void parse(Reader source, Listener listener) throws ParseException
+    public boolean parseSection(Reader source, String sectionId, Listener listener) throws ParseException
     {
-        MetaData metadata = new MetaData(Collections.singletonMap(MetaData.SYNTAX, getSyntax()));
-        listener.beginDocument(metadata);
+        return parseSection(source, listener, document -> findSection(document.getBlocks(), sectionId));
+    }
+
+    @Override
+    public boolean parseSection(Reader source, List<Integer> path, Listener listener) throws ParseException
+    {
+        return parseSection(source, listener, document -> findSection(document, path));
+    }
+
+    private boolean parseSection(Reader source, Listener listener, Function<Document, Section> sectionFinder)
+        throws ParseException
+    {
+        boolean result;
+        ParseGuard previousGuard = beginParse();
         try {
-            visitDocument(this.asciidoctor.load(IOUtils.toString(source), Options.builder().build()), listener);
+            String content = IOUtils.toString(LimitedReader.limit(source, this.configuration.getMaxInputSize()));
+            this.parseMetrics.increment(ParseCounter.CHARACTERS, content.length());
+            // Only the blocks of the section are visited, so the inline content of the other blocks is neither
+            // converted to HTML nor parsed.
+            result = loadDocument(content, createNormalizingListener(listener), (document, target) -> {
+                Section section = sectionFinder.apply(document);
+                if (section != null) {
+                    MetaData metadata = createMetaData();
+                    target.beginDocument(metadata);
+                    countBlock();
+                    visitSection(section, target);
+                    target.endDocument(metadata);
+                }
+                return section != null;
+            });
+        } catch (LimitedReader.LimitExceededException e) {
+            throw new ParseException(e.getMessage(), e);
         } catch (IOException e) {
-            throw new ParseException("Failed to parse AsciiDoc content", e);
+            throw new ParseException(PARSE_ERROR_MESSAGE, e);
+        } finally {
+            endParse(previousGuard);
+        }
+        return result;
+    }
+
+    private Section findSection(List<StructuralNode> nodes, String sectionId)
+    {
+        Section result = null;
+        Iterator<StructuralNode> iterator = nodes.iterator();
+        while (result == null && iterator.hasNext()) {
+            StructuralNode node = iterator.next();
+            if (node instanceof Section) {
+                Section section = (Section) node;
+                result = sectionId.equals(section.getId()) ? section : findSection(section.getBlocks(), sectionId);
+            }
+        }
+        return result;
+    }
+
+    private Section findSection(Document document, List<Integer> path)
+    {
+        Section section = null;
+        List<StructuralNode> nodes = document.getBlocks();
+        boolean found = !path.isEmpty();
+        Iterator<Integer> indexes = path.iterator();
+        while (found && indexes.hasNext()) {
+            List<Section> sections = new ArrayList<>();
+            for (StructuralNode node : nodes) {
+                if (node instanceof Section) {
+                    sections.add((Section) node);
+                }
+            }
+            int index = indexes.next();
+            found = index >= 0 && index < sections.size();
+            if (found) {
+                section = sections.get(index);
+                nodes = section.getBlocks();
+            }
+        }
+        return found ? section : null;
+    }
+
+    private ParseGuard beginParse()
+    {
+        this.parseMetrics.beginParse();
+        ParseGuard previousGuard = this.currentGuard.get();
+        this.currentGuard.set(new ParseGuard(this.configuration.getParseTimeout(),
+            this.configuration.getMaxBlockCount(), this.configuration.getMaxNestingLevel()));
+        return previousGuard;
+    }
+
+    private void endParse(ParseGuard previousGuard)
+    {
+        if (previousGuard != null) {
+            this.currentGuard.set(previousGuard);
+        } else {
+            this.currentGuard.remove();
+        }
+        this.parseMetrics.endParse();
+    }
+
+    private MetaData createMetaData()
+    {
+        return new MetaData(Collections.singletonMap(MetaData.SYNTAX, getSyntax()));
+    }
+
+    private Listener createNormalizingListener(Listener listener)
+    {
+        // The links are normalized on the fly, whatever the way their events are generated.
+        return new LinkNormalizingListener(listener, isInWikiMode(), this.parseMetrics);
+    }
+
+    private void parseDocumentContent(String content, Listener listener) throws ParseException
+    {
+        MetaData metadata = createMetaData();
+        Listener normalizingListener = createNormalizingListener(listener);
+        normalizingListener.beginDocument(metadata);
+        parseContent(content, normalizingListener);
+        normalizingListener.endDocument(metadata);
+    }
+
+    /**
+     * Replay the events stored on disk for the given content, or parse it while recording the events sent to the
+     * listener (i.e. with the links already normalized) in order to store them.
+     */
+    private void parseWithDiskCache(String content, Listener listener) throws ParseException
+    {
+        String key = CacheKey.of(content, getCacheContext() + ";wikiMode=" + isInWikiMode());
+        if (!this.diskEventCache.replay(key, listener)) {
+            QueueListener events = new QueueListener();
+            CompositeListener recordingListener = new CompositeListener();
+            recordingListener.addListener(events);
+            recordingListener.addListener(listener);
+            parseDocumentContent(content, recordingListener);
+            this.diskEventCache.put(key, events);
+        }
+    }
+
+    private void parseContent(String content, Listener listener) throws ParseException
+    {
+        if (!this.configuration.isIncrementalParsingEnabled() || !parseIncrementally(content, listener)) {
+            parseDocument(content, listener);
+        }
+    }
+
+    /**
+     * Parse large contents chunk by chunk, sending the events of each chunk before reading the next one from the
+     * temporary file, so that the memory used doesn't depend on the size of the content.
+     */
+    private void parseSpooledSource(SpooledSource spooledSource, Listener listener) throws IOException, ParseException
+    {
+        if (spooledSource.isChunkable()) {
+            ContentChunker chunker = new ContentChunker(spooledSource.hasSections(),
+                this.configuration.getChunkedParsingChunkSize(), chunk -> parseDocument(chunk, listener));
+            try (BufferedReader reader = spooledSource.openReader()) {
+                String line = reader.readLine();
+                while (line != null) {
+                    chunker.accept(line);
+                    line = reader.readLine();
+                }
+            }
+            chunker.finish();
+        } else {
+            parseContent(spooledSource.getContent(), listener);
+        }
+    }
+
+    private void parseDocument(String content, Listener listener) throws ParseException
+    {
+        if (!this.configuration.isFastPathParsingEnabled() || !parseFastPath(content, listener)) {
+            loadDocument(content, listener, (document, target) -> {
+                visitDocument(document, target);
+                return true;
+            });
+        }
+    }
+
+    private boolean parseFastPath(String content, Listener listener) throws ParseException
+    {
+        long start = this.parseMetrics.startTimer();
+        boolean result = this.fastPathParser.parse(content, listener, this.currentGuard.get());
+        this.parseMetrics.stopTimer(ParsePhase.FAST_PATH_PARSING, start);
+        if (result) {
+            this.parseMetrics.increment(ParseCounter.FAST_PATH_DOCUMENTS, 1);
+        }
+        return result;
+    }
+
+    /**
+     * @return the value returned by the visitor
+     */
+    private boolean loadDocument(String content, Listener listener, DocumentVisitor visitor) throws ParseException
+    {
+        boolean result;
+        HTMLFragmentBatch batch = this.configuration.isBatchedHTMLParsingEnabled() ? new HTMLFragmentBatch() : null;
+        // The runtime is kept until the whole AST has been visited since the AST nodes are bound to it.
+        Asciidoctor asciidoctor = this.asciidoctorPool.borrow();
+        try {
+            long start = this.parseMetrics.startTimer();
+            Document document = asciidoctor.load(content, this.options);
+            this.parseMetrics.stopTimer(ParsePhase.LOAD, start);
+            // Loading can't be interrupted, so check right away whether the deadline passed meanwhile.
+            this.currentGuard.get().check();
+            result = visitor.visit(document, batch != null ? batch : listener);
+        } finally {
+            this.asciidoctorPool.release(asciidoctor);
+        }
+        if (batch != null) {
+            flushBatch(batch, listener);
+        }
+        return result;
+    }
+
+    /**
+     * Parse all the HTML fragments of a document at once and send their events, along with the other events of the
+     * document, to the listener.
+     */
+    private void flushBatch(HTMLFragmentBatch batch, Listener listener) throws ParseException
+    {
+        List<org.xwiki.rendering.block.Block> paragraphs = Collections.emptyList();
+        if (batch.hasFragments()) {
+            long start = this.parseMetrics.startTimer();
+            paragraphs = batch.split(this.htmlDocumentParser.parse(new StringReader(batch.getHTML())));
+            this.parseMetrics.stopTimer(ParsePhase.HTML_PARSING, start);
+        }
+        if (paragraphs != null) {
+            long start = this.parseMetrics.startTimer();
+            batch.replay(listener, paragraphs);
+            this.parseMetrics.stopTimer(ParsePhase.EVENT_GENERATION, start);
+        } else {
+            // The parsed HTML couldn't be split back into the fragments, so parse them one by one.
+            batch.replay(listener, this.htmlParser);
         }
-        listener.endDocument(metadata);
+    }
+
+    /**
+     * Parse the top-level sections separately, replaying the cached events of the sections that were already parsed.
+     *
+     * @return false if the content can't be parsed incrementally, in which case no event has been sent
+     */
+    private boolean parseIncrementally(String content, Listener listener) throws ParseException
+    {
+        boolean result = false;
+        List<String> sections = SectionSplitter.split(content);
+        if (!sections.isEmpty()) {
+            String context = getCacheContext();
+            List<CachedEvents> sectionEvents = new ArrayList<>(sections.size());
+            for (String section : sections) {
+                sectionEvents.add(getSectionEvents(section, context));
+            }
+            // AsciiDoctor makes the generated section identifiers unique across the whole document, so sections can
+            // only be parsed separately if they don't generate the same identifiers.
+            if (hasUniqueHeaderIds(sectionEvents)) {
+                for (CachedEvents events : sectionEvents) {
+                    events.replay(listener);
+                }
+                result = true;
+            }
+        }
+        return result;
+    }
+
+    private CachedEvents getSectionEvents(String section, String context) throws ParseException
+    {
+        String key = CacheKey.of(section, context);
+        CachedEvents result = this.sectionEventCache.get(key);
+        if (result == null) {
+            QueueListener queue = new QueueListener();
+            parseDocument(section, queue);
+            result = new CachedEvents(queue);
+            this.sectionEventCache.put(key, result);
+        }
+        return result;
+    }
+
+    private boolean hasUniqueHeaderIds(List<CachedEvents> sectionEvents)
+    {
+        Set<String> ids = new HashSet<>();
+        boolean result = true;
+        for (CachedEvents events : sectionEvents) {
+            for (String id : events.getHeaderIds()) {
+                result &= ids.add(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the context that affects the events generated for a given content (the cached events don't depend on the
+     *         wiki mode since the links are normalized when the events are replayed)
+     */
+    private String getCacheContext()
+    {
+        return String.format("nativeInlineConversion=%s;streamingHTMLParsing=%s",
+            this.configuration.isNativeInlineConversionEnabled(), this.configuration.isStreamingHTMLParsingEnabled());
+    }
+
+    /**
+     * @return true if the given content has include directives resolved by the configured include resolver, in which
+     *         case the generated events depend on the included contents, that the disk cache can't keep track of
+     */
+    private boolean hasResolvedIncludes(String content)
+    {
+        return this.configuration.getIncludeResolver() != null
+            && content.contains(ResolvingIncludeProcessor.INCLUDE_DIRECTIVE);
+    }
+
+    private boolean isInWikiMode()
+    {
+        return this.componentManagerProvider.get().hasComponent(WikiModel.class);
     }
 
     private void visitDocument(Document doc, Listener listener) throws ParseException
@@ -102,22 +520,179 @@ public class AsciiDocStreamParser implements StreamParser, Initializable
 
     private void visitBlockList(List<StructuralNode> nodes, Listener listener) throws ParseException
     {
+        ParseGuard guard = this.currentGuard.get();
+        guard.enterNesting();
         for (StructuralNode node : nodes) {
+            countBlock();
             if (node instanceof Section) {
                 visitSection((Section) node, listener);
             } else if (node instanceof org.asciidoctor.ast.List) {
                 visitList((org.asciidoctor.ast.List) node, listener);
-            } else if (node instanceof Block && node.getContext().equals("paragraph")) {
-                visitParagraph(node, listener);
+            } else if (node instanceof Table) {
+                visitTable((Table) node, listener);
+            } else if (node instanceof Block) {
+                visitBlock((Block) node, listener);
+            }
+        }
+        guard.exitNesting();
+    }
+
+    private void countBlock() throws ParseException
+    {
+        this.parseMetrics.increment(ParseCounter.BLOCKS, 1);
+        this.currentGuard.get().enterBlock();
+    }
+
+    private void visitBlock(Block block, Listener listener) throws ParseException
+    {
+        switch (block.getContext()) {
+            case "paragraph":
+                visitParagraph(block, listener);
+                break;
+            case "listing":
+            case "literal":
+                // Listing (including source) and literal blocks are sent verbatim, straight from their source, so
+                // that large code listings don't go through the HTML conversion.
+                listener.onVerbatim(block.getSource(), false, emptyMap());
+                break;
+            case "admonition":
+                visitAdmonition(block, listener);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void visitAdmonition(Block block, Listener listener) throws ParseException
+    {
+        Map<String, String> parameters = Collections.singletonMap(CLASS_PARAMETER, getAdmonitionClass(block));
+        listener.beginGroup(parameters);
+        if (block.getBlocks().isEmpty()) {
+            // Admonition paragraph.
+            visitParagraph(block, listener);
+        } else {
+            visitBlockList(block.getBlocks(), listener);
+        }
+        listener.endGroup(parameters);
+    }
+
+    private String getAdmonitionClass(Block block)
+    {
+        String result;
+        switch (StringUtils.defaultString(block.getStyle())) {
+            case "IMPORTANT":
+            case "WARNING":
+                result = "box warningmessage";
+                break;
+            case "CAUTION":
+                result = "box errormessage";
+                break;
+            default:
+                // NOTE and TIP.
+                result = "box infomessage";
+        }
+        return result;
+    }
+
+    private void visitTable(Table table, Listener listener) throws ParseException
+    {
+        listener.beginTable(emptyMap());
+        visitTableRows(table.getHeader(), true, listener);
+        visitTableRows(table.getBody(), false, listener);
+        visitTableRows(table.getFooter(), false, listener);
+        listener.endTable(emptyMap());
+    }
+
+    private void visitTableRows(List<Row> rows, boolean header, Listener listener) throws ParseException
+    {
+        for (Row row : rows) {
+            listener.beginTableRow(emptyMap());
+            for (Cell cell : row.getCells()) {
+                countBlock();
+                Map<String, String> parameters = getCellParameters(cell);
+                if (header) {
+                    listener.beginTableHeadCell(parameters);
+                } else {
+                    listener.beginTableCell(parameters);
+                }
+                visitTableCell(cell, listener);
+                if (header) {
+                    listener.endTableHeadCell(parameters);
+                } else {
+                    listener.endTableCell(parameters);
+                }
             }
+            listener.endTableRow(emptyMap());
+        }
+    }
+
+    private Map<String, String> getCellParameters(Cell cell)
+    {
+        Map<String, String> result = emptyMap();
+        if (cell.getColspan() > 1 || cell.getRowspan() > 1) {
+            result = new LinkedHashMap<>();
+            if (cell.getColspan() > 1) {
+                result.put("colspan", String.valueOf(cell.getColspan()));
+            }
+            if (cell.getRowspan() > 1) {
+                result.put("rowspan", String.valueOf(cell.getRowspan()));
+            }
+        }
+        return result;
+    }
+
+    private void visitTableCell(Cell cell, Listener listener) throws ParseException
+    {
+        if ("asciidoc".equals(cell.getStyle())) {
+            // The content of AsciiDoc cells is a nested document.
+            visitBlockList(cell.getInnerDocument().getBlocks(), listener);
+        } else if (!isDefaultStyle(cell) || !parseInlineSource(cell, cell.getSource(), listener, true)) {
+            long start = this.parseMetrics.startTimer();
+            String html = cell.getText();
+            this.parseMetrics.stopTimer(ParsePhase.HTML_GENERATION, start);
+            this.htmlParser.parse(html, listener, true);
         }
     }
 
     private void visitParagraph(StructuralNode node, Listener listener) throws ParseException
     {
-        // Since AsciiDoc doesn't currently have an inline parser, we ask it to generate HTML and
-        // parse it ourselves, see https://github.com/asciidoctor/asciidoctor/issues/61
-        this.htmlParser.parse((String) node.getContent(), listener, false);
+        if (!parseInlineSource(node, ((Block) node).getSource(), listener, false)) {
+            // Since AsciiDoc doesn't currently have an inline parser, we ask it to generate HTML and
+            // parse it ourselves, see https://github.com/asciidoctor/asciidoctor/issues/61
+            long start = this.parseMetrics.startTimer();
+            String html = (String) node.getContent();
+            this.parseMetrics.stopTimer(ParsePhase.HTML_GENERATION, start);
+            this.htmlParser.parse(html, listener, false);
+        }
+    }
+
+    private boolean parseInlineSource(ContentNode node, String source, Listener listener,
+        boolean removeTopLevelBlock)
+    {
+        boolean result = false;
+        if (this.configuration.isNativeInlineConversionEnabled() && hasDefaultSubstitutions(node)) {
+            long start = this.parseMetrics.startTimer();
+            result = this.inlineSourceParser.parse(source, listener, removeTopLevelBlock);
+            this.parseMetrics.stopTimer(ParsePhase.INLINE_SOURCE_CONVERSION, start);
+        }
+        return result;
+    }
+
+    private boolean isDefaultStyle(Cell cell)
+    {
+        // The other cell styles (literal, monospace, etc) change the generated HTML in ways that the inline source
+        // parser doesn't reproduce.
+        String style = cell.getStyle();
+        return style == null || DEFAULT_CELL_STYLE.equals(style);
+    }
+
+    private boolean hasDefaultSubstitutions(ContentNode node)
+    {
+        // Custom substitutions and hard line breaks change the generated HTML in ways that the inline source parser
+        // doesn't reproduce.
+        Document document = node.getDocument();
+        return !node.hasAttribute(SUBS_ATTRIBUTE) && !node.isOption(HARDBREAKS_OPTION)
+            && !document.hasAttribute(HARDBREAKS_OPTION) && !document.hasAttribute(HARDBREAKS_OPTION_ATTRIBUTE);
     }
 
     private void visitSection(Section section, Listener listener) throws ParseException
@@ -142,7 +717,13 @@ public class AsciiDocStreamParser implements StreamParser, Initializable
             if (nodeItem instanceof ListItem) {
                 ListItem listItem = (ListItem) nodeItem;
                 listener.beginListItem();
-                this.htmlParser.parse(listItem.getText(), listener, true);
+                countBlock();
+                if (!parseInlineSource(listItem, listItem.getSource(), listener, true)) {
+                    long start = this.parseMetrics.startTimer();
+                    String html = listItem.getText();
+                    this.parseMetrics.stopTimer(ParsePhase.HTML_GENERATION, start);
+                    this.htmlParser.parse(html, listener, true);
+                }
                 visitBlockList(nodeItem.getBlocks(), listener);
                 listener.endListItem();
             }
@@ -166,6 +747,7 @@ public class AsciiDocStreamParser implements StreamParser, Initializable
 
     private HeaderLevel convertHeadingLevel(int level)
     {
-        return HeaderLevel.valueOf("LEVEL" + level);
+        // Level 0 sections (book parts) are mapped to the first level, like the level 1 sections.
+        return HEADER_LEVELS[Math.min(Math.max(level, 1), HEADER_LEVELS.length) - 1];
     }
 }
@@ -0,0 +1,81 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * The result of parsing one of the contents of a batch, see {@link AsciiDocBatchParser}.
+ *
+ * @version $Id$
+ */
+public final class BatchParseResult
+{
+    private final int index;
+
+    private final XDOM xdom;
+
+    private final ParseException exception;
+
+    /**
+     * @param index the index of the parsed content in the batch
+     * @param xdom the produced XDOM, if any
+     * @param exception the parsing failure, if any
+     */
+    public BatchParseResult(int index, XDOM xdom, ParseException exception)
+    {
+        this.index = index;
+        this.xdom = xdom;
+        this.exception = exception;
+    }
+
+    /**
+     * @return the index of the parsed content in the batch
+     */
+    public int getIndex()
+    {
+        return this.index;
+    }
+
+    /**
+     * @return the produced XDOM, or null if the parsing failed or if the events were sent to a listener
+     */
+    public XDOM getXDOM()
+    {
+        return this.xdom;
+    }
+
+    /**
+     * @return the parsing failure, or null if the content was parsed successfully
+     */
+    public ParseException getException()
+    {
+        return this.exception;
+    }
+
+    /**
+     * @return true if the content was parsed successfully
+     */
+    public boolean isSuccess()
+    {
+        return this.exception == null;
+    }
+}
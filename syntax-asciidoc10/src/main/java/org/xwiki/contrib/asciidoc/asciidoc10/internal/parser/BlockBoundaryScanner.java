@@ -0,0 +1,237 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Scans AsciiDoc content line by line to find the top-level block boundaries at which the content can be cut, so that
+ * parsing the resulting chunks separately (with the document header prepended) produces the same result as parsing the
+ * whole content. The scanner follows the same rules as {@link SectionSplitter}, except that attribute entries are
+ * allowed between blocks: they are reported so that they can be prepended to the following chunks.
+ *
+ * @version $Id$
+ */
+public class BlockBoundaryScanner
+{
+    /**
+     * The kind of the scanned lines.
+     *
+     * @version $Id$
+     */
+    public enum LineKind
+    {
+        /**
+         * A line of the document header.
+         */
+        HEADER,
+
+        /**
+         * An attribute entry outside of the document header.
+         */
+        ATTRIBUTE_ENTRY,
+
+        /**
+         * A section title.
+         */
+        SECTION_TITLE,
+
+        /**
+         * The first line of a top-level paragraph.
+         */
+        PARAGRAPH_START,
+
+        /**
+         * Any other line.
+         */
+        OTHER
+    }
+
+    private static final Pattern LIST_ITEM =
+        Pattern.compile("^\\s*(?:\\*+|-+|\\.+|\\d+\\.|[a-zA-Z]\\.|[ivxIVX]+\\)|<\\d+>)\\s.*$");
+
+    private static final Pattern DESCRIPTION_LIST_TERM = Pattern.compile("^.*(?::{2,4}|;;)(?:\\s.*)?$");
+
+    private static final String LIST_CONTINUATION = "+";
+
+    private final Set<String> titleKeys = new HashSet<>();
+
+    private int lineCount;
+
+    private boolean inHeader;
+
+    private boolean hasHeader;
+
+    private String delimiter;
+
+    private String previousLine = "";
+
+    private LineKind previousLineKind = LineKind.OTHER;
+
+    private String lastNonBlankLine = "";
+
+    private boolean boundary;
+
+    private boolean safe = true;
+
+    private boolean hasSections;
+
+    /**
+     * @param line the next line of the content, without the line terminator
+     * @return the kind of the given line
+     */
+    public LineKind accept(String line)
+    {
+        String text = StringUtils.stripEnd(line, null);
+        LineKind result = LineKind.OTHER;
+        this.boundary = false;
+        if (StringUtils.indexOfAny(text, SectionSplitter.UNSUPPORTED_SEQUENCES) != -1) {
+            this.safe = false;
+        }
+        if (this.lineCount == 0 && (SectionSplitter.isSectionTitle(text, 0)
+            || SectionSplitter.ATTRIBUTE_ENTRY.matcher(text).matches())) {
+            this.inHeader = true;
+            this.hasHeader = true;
+        }
+        if (this.inHeader) {
+            this.inHeader = !text.isEmpty();
+            result = this.inHeader ? LineKind.HEADER : LineKind.OTHER;
+        } else if (SectionSplitter.ATTRIBUTE_ENTRY.matcher(text).matches()) {
+            result = acceptAttributeEntry(text);
+        } else if (SectionSplitter.isSetextUnderline(text, this.previousLine, this.delimiter)) {
+            // Two-line section titles are too ambiguous to be worth supporting.
+            this.safe = false;
+        } else if (this.delimiter != null) {
+            if (text.equals(this.delimiter)) {
+                this.delimiter = null;
+            }
+        } else if (SectionSplitter.BLOCK_DELIMITER.matcher(text).matches()) {
+            this.delimiter = text;
+        } else if (SectionSplitter.SECTION_TITLE.matcher(text).matches()
+            || SectionSplitter.MARKDOWN_SECTION_TITLE.matcher(text).matches()) {
+            result = acceptSectionTitle(text);
+        } else if (this.previousLine.isEmpty() && isParagraphStart(text) && !isAttached(this.lastNonBlankLine)) {
+            result = LineKind.PARAGRAPH_START;
+            this.boundary = true;
+        }
+
+        this.previousLine = text;
+        this.previousLineKind = result;
+        if (!text.isEmpty()) {
+            this.lastNonBlankLine = text;
+        }
+        this.lineCount++;
+        return result;
+    }
+
+    /**
+     * @return true if a chunk can start with the last scanned line
+     */
+    public boolean isBoundary()
+    {
+        return this.boundary;
+    }
+
+    /**
+     * @return true if the content scanned so far can be cut at the reported boundaries
+     */
+    public boolean isSafe()
+    {
+        return this.safe;
+    }
+
+    /**
+     * @return true if the content scanned so far has section titles (outside of the document header)
+     */
+    public boolean hasSections()
+    {
+        return this.hasSections;
+    }
+
+    private LineKind acceptAttributeEntry(String text)
+    {
+        LineKind result = LineKind.OTHER;
+        // Attribute entries are only kept between top-level blocks, on a single line, and only when the content has a
+        // header, otherwise prepending them to the following chunks would turn them into header attributes.
+        if (this.hasHeader && this.delimiter == null && !text.endsWith("\\")
+            && (this.previousLine.isEmpty() || this.previousLineKind == LineKind.ATTRIBUTE_ENTRY))
+        {
+            result = LineKind.ATTRIBUTE_ENTRY;
+        } else {
+            this.safe = false;
+        }
+        return result;
+    }
+
+    private LineKind acceptSectionTitle(String text)
+    {
+        LineKind result = LineKind.OTHER;
+        boolean afterBlankLine = this.previousLine.isEmpty() && !hasBlockMetadata(this.lastNonBlankLine);
+        if ((afterBlankLine || this.previousLineKind == LineKind.SECTION_TITLE)
+            && SectionSplitter.getLevel(text) > 0 && text.charAt(0) == '=')
+        {
+            result = LineKind.SECTION_TITLE;
+            this.boundary = true;
+            this.hasSections = true;
+            // AsciiDoctor makes the generated section identifiers unique across the whole document, so sections that
+            // could generate the same identifier can't be parsed in different chunks.
+            String key = text.substring(SectionSplitter.getLevel(text) + 1).replaceAll("[^\\p{L}\\p{N}]", "")
+                .toLowerCase(Locale.ROOT);
+            this.safe &= this.titleKeys.add(key);
+        } else {
+            // Either paragraph text, a section title preceded by block attributes or a block title, a level 0 section
+            // (handled as the document title when parsed on its own), a Markdown section title, etc. Better safe than
+            // sorry.
+            this.safe = false;
+        }
+        return result;
+    }
+
+    private boolean isParagraphStart(String text)
+    {
+        return !text.isEmpty() && Character.isLetterOrDigit(text.charAt(0)) && !LIST_ITEM.matcher(text).matches()
+            && !DESCRIPTION_LIST_TERM.matcher(text).matches();
+    }
+
+    /**
+     * @return true if the block following the given line is attached to it, i.e. if the line holds block metadata or a
+     *         list item that the next block could continue
+     */
+    private boolean isAttached(String line)
+    {
+        return hasBlockMetadata(line) || LIST_ITEM.matcher(line).matches()
+            || DESCRIPTION_LIST_TERM.matcher(line).matches();
+    }
+
+    /**
+     * @return true if the given line holds block attributes, a block title or a list continuation, which apply to the
+     *         next block even if there are blank lines in between
+     */
+    private boolean hasBlockMetadata(String line)
+    {
+        return line.startsWith("[") || (line.startsWith(".") && !LIST_ITEM.matcher(line).matches())
+            || line.equals(LIST_CONTINUATION);
+    }
+}
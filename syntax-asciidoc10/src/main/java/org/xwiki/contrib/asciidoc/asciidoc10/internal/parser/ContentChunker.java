@@ -0,0 +1,160 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.parser.BlockBoundaryScanner.LineKind;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Cuts AsciiDoc content, received line by line, into chunks of roughly the configured size, at the top-level block
+ * boundaries found by {@link BlockBoundaryScanner}. Each chunk is passed to the consumer as soon as it's complete, with
+ * the document header and the attribute entries of the previous chunks prepended, so that only one chunk is kept in
+ * memory at a time. The content must have been found safe to cut by a previous scan.
+ *
+ * @version $Id$
+ */
+public class ContentChunker
+{
+    /**
+     * Receives the chunks.
+     *
+     * @version $Id$
+     */
+    @FunctionalInterface
+    public interface ChunkConsumer
+    {
+        /**
+         * @param chunk the AsciiDoc content of the chunk, which can be parsed on its own
+         * @throws ParseException if the chunk fails to be parsed
+         */
+        void accept(String chunk) throws ParseException;
+    }
+
+    private static final char NEW_LINE = '\n';
+
+    private final BlockBoundaryScanner scanner = new BlockBoundaryScanner();
+
+    private final boolean hasSections;
+
+    private final int chunkSize;
+
+    private final ChunkConsumer consumer;
+
+    private final StringBuilder header = new StringBuilder();
+
+    /**
+     * The attribute entries found in the previous chunks.
+     */
+    private final StringBuilder attributes = new StringBuilder();
+
+    private final StringBuilder chunkAttributes = new StringBuilder();
+
+    private final StringBuilder chunk = new StringBuilder();
+
+    private boolean firstChunk = true;
+
+    private boolean chunkHasContent;
+
+    private boolean chunkHasSections;
+
+    private boolean sectionsAllowed = true;
+
+    /**
+     * @param hasSections whether the content has sections, see {@link BlockBoundaryScanner#hasSections()}
+     * @param chunkSize the number of characters after which a chunk is cut at the next block boundary
+     * @param consumer the consumer of the chunks
+     */
+    public ContentChunker(boolean hasSections, int chunkSize, ChunkConsumer consumer)
+    {
+        this.hasSections = hasSections;
+        this.chunkSize = chunkSize;
+        this.consumer = consumer;
+    }
+
+    /**
+     * @param line the next line of the content, without the line terminator
+     * @throws ParseException if the chunk completed by this line fails to be parsed
+     */
+    public void accept(String line) throws ParseException
+    {
+        LineKind kind = this.scanner.accept(line);
+        if (kind == LineKind.HEADER) {
+            this.header.append(line).append(NEW_LINE);
+        } else {
+            if (this.scanner.isBoundary() && this.chunkHasContent && shouldCut(kind)) {
+                flush();
+                this.sectionsAllowed = kind == LineKind.SECTION_TITLE;
+            }
+            if (kind == LineKind.ATTRIBUTE_ENTRY) {
+                this.chunkAttributes.append(line).append(NEW_LINE);
+            }
+            this.chunkHasSections |= kind == LineKind.SECTION_TITLE;
+            this.chunkHasContent |= StringUtils.isNotBlank(line);
+            this.chunk.append(line).append(NEW_LINE);
+        }
+    }
+
+    /**
+     * Passes the last chunk to the consumer.
+     *
+     * @throws ParseException if the last chunk fails to be parsed
+     */
+    public void finish() throws ParseException
+    {
+        if (this.chunkHasContent) {
+            flush();
+        }
+    }
+
+    private boolean shouldCut(LineKind kind)
+    {
+        boolean result;
+        if (this.firstChunk && this.hasSections && !this.chunkHasSections) {
+            // The blocks before the first section form the preamble, which AsciiDoctor handles differently when there
+            // are no sections, so the first chunk has to include the first section.
+            result = false;
+        } else if (kind == LineKind.SECTION_TITLE && !this.sectionsAllowed) {
+            // The first blocks of a chunk that starts in the middle of a section would become a preamble if the chunk
+            // had sections.
+            result = true;
+        } else {
+            result = this.chunk.length() >= this.chunkSize;
+        }
+        return result;
+    }
+
+    private void flush() throws ParseException
+    {
+        String content = this.chunk.toString();
+        this.chunk.setLength(0);
+        if (this.header.length() > 0) {
+            // The attribute entries are added after a blank line so that they remain body attributes.
+            content = this.header.toString() + NEW_LINE + this.attributes + NEW_LINE + content;
+        }
+        this.consumer.accept(content);
+
+        this.attributes.append(this.chunkAttributes);
+        this.chunkAttributes.setLength(0);
+        this.firstChunk = false;
+        this.chunkHasContent = false;
+        this.chunkHasSections = false;
+    }
+}
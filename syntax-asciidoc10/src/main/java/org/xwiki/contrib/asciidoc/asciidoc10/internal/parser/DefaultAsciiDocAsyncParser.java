@@ -0,0 +1,190 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.io.Reader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.parser.StreamParser;
+
+/**
+ * Runs the XDOM and stream parsers on a fixed pool of threads with a bounded queue. The AsciiDoctor runtimes are
+ * shared with the other parsings, through the runtime pool.
+ *
+ * @version $Id$
+ */
+@Component
+@Singleton
+public class DefaultAsciiDocAsyncParser implements AsciiDocAsyncParser, Initializable, Disposable
+{
+    private static final String HINT = "asciidoc/1.0";
+
+    private static final String DISPOSED_MESSAGE = "The AsciiDoc asynchronous parser has been disposed";
+
+    @Inject
+    @Named(HINT)
+    private Parser parser;
+
+    @Inject
+    @Named(HINT)
+    private StreamParser streamParser;
+
+    @Inject
+    private AsciiDocConfiguration configuration;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * A parsing task that can fail with a {@link ParseException}.
+     *
+     * @param <T> the type of result of the parsing
+     */
+    @FunctionalInterface
+    private interface ParseTask<T>
+    {
+        T run() throws ParseException;
+    }
+
+    /**
+     * A parsing task waiting to be run, along with the future completed by it.
+     *
+     * @param <T> the type of result of the parsing
+     */
+    private static final class PendingParse<T> implements Runnable
+    {
+        private final ParseTask<T> task;
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        PendingParse(ParseTask<T> task)
+        {
+            this.task = task;
+        }
+
+        @Override
+        public void run()
+        {
+            // Don't parse the contents whose parsing was cancelled while they were waiting.
+            if (!this.future.isDone()) {
+                try {
+                    this.future.complete(this.task.run());
+                } catch (ParseException e) {
+                    this.future.completeExceptionally(e);
+                } catch (Exception e) {
+                    this.future.completeExceptionally(new ParseException("Failed to parse AsciiDoc content", e));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void initialize()
+    {
+        int threadCount = Math.max(1, this.configuration.getAsyncThreadCount());
+        AtomicInteger threadIndex = new AtomicInteger();
+        // The queue is bounded and the default policy rejects the tasks that don't fit in it.
+        this.executor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, this.configuration.getAsyncQueueSize())), runnable -> {
+                Thread thread = new Thread(runnable, "AsciiDoc async parser " + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @Override
+    public CompletableFuture<XDOM> parse(Reader source)
+    {
+        return submit(() -> this.parser.parse(source));
+    }
+
+    @Override
+    public CompletableFuture<Void> parse(Reader source, Listener listener)
+    {
+        return submit(() -> {
+            this.streamParser.parse(source, listener);
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(ParseTask<T> task)
+    {
+        PendingParse<T> pendingParse = new PendingParse<>(task);
+        try {
+            this.executor.execute(pendingParse);
+        } catch (RejectedExecutionException e) {
+            if (this.executor.isShutdown()) {
+                pendingParse.future.completeExceptionally(new ParseException(DISPOSED_MESSAGE, e));
+            } else {
+                this.rejectedCount.increment();
+                pendingParse.future.completeExceptionally(new ParseException(
+                    "Too many AsciiDoc contents are waiting to be parsed, try again later", e));
+            }
+        }
+        return pendingParse.future;
+    }
+
+    @Override
+    public int getActiveCount()
+    {
+        return this.executor.getActiveCount();
+    }
+
+    @Override
+    public int getQueuedCount()
+    {
+        return this.executor.getQueue().size();
+    }
+
+    @Override
+    public long getRejectedCount()
+    {
+        return this.rejectedCount.sum();
+    }
+
+    @Override
+    public void dispose()
+    {
+        // The contents that are still waiting would never be parsed, so their callers must not wait for them. The
+        // running parsings are interrupted and complete their future themselves.
+        for (Runnable runnable : this.executor.shutdownNow()) {
+            ((PendingParse<?>) runnable).future.completeExceptionally(new ParseException(DISPOSED_MESSAGE));
+        }
+    }
+}
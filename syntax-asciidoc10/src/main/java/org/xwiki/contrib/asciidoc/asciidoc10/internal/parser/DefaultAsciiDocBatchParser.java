@@ -0,0 +1,180 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.parser.StreamParser;
+
+/**
+ * Spreads the contents of a batch over a fixed pool of threads. The AsciiDoctor runtimes and the parsing options are
+ * shared by all the contents, through the XDOM and stream parsers. The contents are submitted to the threads in a
+ * sliding window, so that the number of pending tasks and results doesn't depend on the size of the batch.
+ *
+ * @version $Id$
+ */
+@Component
+@Singleton
+public class DefaultAsciiDocBatchParser implements AsciiDocBatchParser, Initializable, Disposable
+{
+    private static final String HINT = "asciidoc/1.0";
+
+    /**
+     * The number of contents that can be parsed ahead of the consumer of the results, per thread, so that the threads
+     * don't wait for the consumer.
+     */
+    private static final int WINDOW_SIZE_PER_THREAD = 2;
+
+    @Inject
+    @Named(HINT)
+    private Parser parser;
+
+    @Inject
+    @Named(HINT)
+    private StreamParser streamParser;
+
+    @Inject
+    private AsciiDocConfiguration configuration;
+
+    private ExecutorService executor;
+
+    private int windowSize;
+
+    @Override
+    public void initialize()
+    {
+        AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.max(1, this.configuration.getBatchThreadCount());
+        this.windowSize = poolSize * WINDOW_SIZE_PER_THREAD;
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "AsciiDoc batch parser " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public List<BatchParseResult> parse(List<? extends Reader> sources) throws ParseException
+    {
+        List<BatchParseResult> results = new ArrayList<>(sources.size());
+        parse(sources, results::add);
+        return results;
+    }
+
+    @Override
+    public void parse(List<? extends Reader> sources, Consumer<BatchParseResult> resultConsumer) throws ParseException
+    {
+        execute(sources.size(), index -> {
+            Reader source = sources.get(index);
+            return () -> this.parser.parse(source);
+        }, resultConsumer);
+    }
+
+    @Override
+    public List<BatchParseResult> parse(List<? extends Reader> sources, IntFunction<Listener> listenerProvider)
+        throws ParseException
+    {
+        List<BatchParseResult> results = new ArrayList<>(sources.size());
+        execute(sources.size(), index -> {
+            Reader source = sources.get(index);
+            Listener listener = listenerProvider.apply(index);
+            return () -> {
+                this.streamParser.parse(source, listener);
+                return null;
+            };
+        }, results::add);
+        return results;
+    }
+
+    /**
+     * Run the tasks, submitting the next ones as the results of the previous ones are consumed.
+     *
+     * @param taskCount the number of tasks to run
+     * @param taskProvider creates the task at the given index, only when it's about to be submitted
+     * @param resultConsumer called with the result of each task, in the order of the tasks
+     */
+    private void execute(int taskCount, IntFunction<Callable<XDOM>> taskProvider,
+        Consumer<BatchParseResult> resultConsumer) throws ParseException
+    {
+        Deque<Future<XDOM>> pending = new ArrayDeque<>(this.windowSize);
+        int submitted = 0;
+        try {
+            for (int consumed = 0; consumed < taskCount; consumed++) {
+                while (submitted < taskCount && pending.size() < this.windowSize) {
+                    pending.add(this.executor.submit(taskProvider.apply(submitted)));
+                    submitted++;
+                }
+                resultConsumer.accept(getResult(consumed, pending.poll()));
+            }
+        } finally {
+            // Don't leave tasks running when interrupted or when the consumer fails.
+            for (Future<XDOM> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private BatchParseResult getResult(int index, Future<XDOM> future) throws ParseException
+    {
+        BatchParseResult result;
+        try {
+            result = new BatchParseResult(index, future.get(), null);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            ParseException exception = cause instanceof ParseException ? (ParseException) cause
+                : new ParseException("Failed to parse AsciiDoc content", cause);
+            result = new BatchParseResult(index, null, exception);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParseException("Interrupted while parsing a batch of AsciiDoc contents", e);
+        }
+        return result;
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.executor.shutdownNow();
+    }
+}
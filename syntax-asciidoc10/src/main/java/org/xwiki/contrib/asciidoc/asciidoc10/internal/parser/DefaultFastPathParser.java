@@ -0,0 +1,355 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.rendering.listener.HeaderLevel;
+import org.xwiki.rendering.listener.ListType;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.QueueListener;
+import org.xwiki.rendering.parser.ParseException;
+
+import static java.util.Collections.emptyMap;
+
+/**
+ * Supports documents made of sections, paragraphs and bulleted or numbered lists (using the {@code *} and {@code .}
+ * markers), without document header, whose inline content is supported by the {@link InlineSourceParser}. The events
+ * are the same as the ones generated when visiting the AST produced by AsciiDoctor, including the generated section
+ * ids. Anything else, including lines that AsciiDoctor could take for the start of another kind of block, is reported
+ * as unsupported.
+ *
+ * @version $Id$
+ */
+@Component
+@Singleton
+public class DefaultFastPathParser implements FastPathParser
+{
+    private static final Pattern SECTION_TITLE = Pattern.compile("(={2,6})[ \\t]+(\\S.*)");
+
+    private static final Pattern LIST_ITEM = Pattern.compile("(\\*{1,5}|\\.{1,5})[ \\t]+(\\S.*)");
+
+    /**
+     * Lines that AsciiDoctor takes for the start of ordered list items with an explicit numbering or for admonition
+     * paragraphs.
+     */
+    private static final Pattern OTHER_BLOCK_START =
+        Pattern.compile("(\\d+\\.|[a-zA-Z]\\.|[IVXivx]+\\)|(NOTE|TIP|IMPORTANT|WARNING|CAUTION):)[ \\t].*");
+
+    /**
+     * Sequences used by description list items and block macros (e.g. {@code include::}).
+     */
+    private static final String[] OTHER_BLOCK_SEQUENCES = { "::", ";;" };
+
+    private static final String HARD_LINE_BREAK = " +";
+
+    private static final String FORMAT_MARKERS = "*_";
+
+    private static final char ID_SEPARATOR = '_';
+
+    /**
+     * The characters that AsciiDoctor replaces with the id separator when generating the section ids.
+     */
+    private static final String ID_SEPARATED_CHARACTERS = " _.-";
+
+    private static final char NEW_LINE = '\n';
+
+    private static final char BULLETED_LIST_MARKER = '*';
+
+    private static final HeaderLevel[] HEADER_LEVELS = HeaderLevel.values();
+
+    @Inject
+    private InlineSourceParser inlineSourceParser;
+
+    @Inject
+    @Named("plain")
+    private Parser plainParser;
+
+    @Override
+    public boolean parse(String content, Listener listener, ParseGuard guard) throws ParseException
+    {
+        // The events are only sent once the whole content is known to be supported, and the blocks are only counted
+        // then, so that they aren't counted twice when the content ends up being parsed by AsciiDoctor.
+        QueueListener queue = new QueueListener();
+        Conversion conversion = new Conversion(queue);
+        boolean result = conversion.convert(content);
+        if (result) {
+            guard.enterBlocks(conversion.blockCount);
+            guard.checkNesting(conversion.maxNestingLevel);
+            queue.consumeEvents(listener);
+        }
+        return result;
+    }
+
+    /**
+     * The state of the conversion of a document.
+     */
+    private final class Conversion
+    {
+        private final Listener listener;
+
+        /**
+         * The markers of the lists that are currently open, from the outermost to the innermost.
+         */
+        private final List<String> listMarkers = new ArrayList<>();
+
+        /**
+         * The lines of the current paragraph or list item.
+         */
+        private final StringBuilder text = new StringBuilder();
+
+        private final Set<String> ids = new HashSet<>();
+
+        private int sectionLevel;
+
+        private long blockCount;
+
+        /**
+         * The maximum nesting level of the blocks, computed like when visiting the AST produced by AsciiDoctor, where
+         * the top level blocks are at the first level and where the blocks of a section, or of a list item, are one
+         * level below it.
+         */
+        private int maxNestingLevel = 1;
+
+        Conversion(Listener listener)
+        {
+            this.listener = listener;
+        }
+
+        boolean convert(String content) throws ParseException
+        {
+            boolean supported = true;
+            int start = 0;
+            while (supported && start < content.length()) {
+                int end = content.indexOf(NEW_LINE, start);
+                if (end == -1) {
+                    end = content.length();
+                }
+                // Like AsciiDoctor, ignore the trailing white spaces (including the carriage returns).
+                supported = convertLine(StringUtils.stripEnd(content.substring(start, end), null));
+                start = end + 1;
+            }
+            if (supported) {
+                supported = flushText();
+                closeLists();
+            }
+            return supported;
+        }
+
+        private boolean convertLine(String line) throws ParseException
+        {
+            boolean result;
+            if (line.isEmpty()) {
+                // Blank lines end the paragraphs but not the lists, whose items can be separated by blank lines.
+                result = flushText();
+            } else if (this.text.length() > 0) {
+                result = continueText(line);
+            } else {
+                result = startBlock(line);
+            }
+            return result;
+        }
+
+        /**
+         * Handle a line that directly follows the line of a paragraph or a list item.
+         */
+        private boolean continueText(String line) throws ParseException
+        {
+            boolean result;
+            Matcher matcher = LIST_ITEM.matcher(line);
+            if (!this.listMarkers.isEmpty() && matcher.matches()) {
+                result = flushText() && startListItem(matcher.group(1), matcher.group(2));
+            } else {
+                result = isParagraphLine(line);
+                if (result) {
+                    this.text.append(NEW_LINE).append(line);
+                }
+            }
+            return result;
+        }
+
+        private boolean startBlock(String line) throws ParseException
+        {
+            boolean result;
+            Matcher listItemMatcher = LIST_ITEM.matcher(line);
+            if (listItemMatcher.matches()) {
+                result = startListItem(listItemMatcher.group(1), listItemMatcher.group(2));
+            } else {
+                closeLists();
+                Matcher sectionTitleMatcher = SECTION_TITLE.matcher(line);
+                if (sectionTitleMatcher.matches()) {
+                    result = convertSectionTitle(sectionTitleMatcher.group(1).length() - 1,
+                        sectionTitleMatcher.group(2));
+                } else {
+                    result = isParagraphLine(line);
+                    if (result) {
+                        this.blockCount++;
+                        this.text.append(line);
+                    }
+                }
+            }
+            return result;
+        }
+
+        private boolean startListItem(String marker, String itemText)
+        {
+            boolean result = isPlainText(itemText);
+            if (result) {
+                // Like AsciiDoctor, a marker used by one of the parent lists adds an item to that list while any other
+                // marker starts a nested list.
+                int level = this.listMarkers.indexOf(marker);
+                if (level == -1) {
+                    this.blockCount++;
+                    this.listener.beginList(getListType(marker), emptyMap());
+                    this.listMarkers.add(marker);
+                    this.maxNestingLevel =
+                        Math.max(this.maxNestingLevel, this.sectionLevel + 1 + this.listMarkers.size());
+                } else {
+                    while (this.listMarkers.size() > level + 1) {
+                        closeList();
+                    }
+                    this.listener.endListItem();
+                }
+                this.blockCount++;
+                this.listener.beginListItem();
+                this.text.append(itemText);
+            }
+            return result;
+        }
+
+        private void closeLists()
+        {
+            while (!this.listMarkers.isEmpty()) {
+                closeList();
+            }
+        }
+
+        private void closeList()
+        {
+            String marker = this.listMarkers.remove(this.listMarkers.size() - 1);
+            this.listener.endListItem();
+            this.listener.endList(getListType(marker), emptyMap());
+        }
+
+        private ListType getListType(String marker)
+        {
+            return marker.charAt(0) == BULLETED_LIST_MARKER ? ListType.BULLETED : ListType.NUMBERED;
+        }
+
+        /**
+         * Send the events of the current paragraph or list item text, if any.
+         */
+        private boolean flushText()
+        {
+            boolean result = true;
+            if (this.text.length() > 0) {
+                result = DefaultFastPathParser.this.inlineSourceParser.parse(this.text.toString(), this.listener,
+                    !this.listMarkers.isEmpty());
+                this.text.setLength(0);
+            }
+            return result;
+        }
+
+        private boolean convertSectionTitle(int level, String title) throws ParseException
+        {
+            // AsciiDoctor substitutions are applied to the section titles, so only accept titles left untouched by
+            // them, made of ASCII characters since the generated ids depend on the Ruby notion of word characters.
+            String id = null;
+            if (level <= this.sectionLevel + 1 && StringUtils.isAsciiPrintable(title)
+                && StringUtils.containsNone(title, FORMAT_MARKERS)
+                && DefaultFastPathParser.this.inlineSourceParser.parse(title, new QueueListener(), true))
+            {
+                id = generateId(title);
+            }
+            if (id != null) {
+                this.blockCount++;
+                this.sectionLevel = level;
+                this.maxNestingLevel = Math.max(this.maxNestingLevel, level + 1);
+                HeaderLevel headerLevel = HEADER_LEVELS[level - 1];
+                for (int i = 0; i < level; i++) {
+                    this.listener.beginSection(emptyMap());
+                }
+                this.listener.beginHeader(headerLevel, id, emptyMap());
+                DefaultFastPathParser.this.plainParser.parse(title, this.listener, true);
+                this.listener.endHeader(headerLevel, id, emptyMap());
+                for (int i = 0; i < level; i++) {
+                    this.listener.endSection(emptyMap());
+                }
+            }
+            return id != null;
+        }
+
+        /**
+         * Generate the section id the way AsciiDoctor does it with the default {@code idprefix} and
+         * {@code idseparator} attributes.
+         *
+         * @return the generated id, or null if it would be empty
+         */
+        private String generateId(String title)
+        {
+            StringBuilder id = new StringBuilder().append(ID_SEPARATOR);
+            for (char c : title.toLowerCase(Locale.ROOT).toCharArray()) {
+                if (ID_SEPARATED_CHARACTERS.indexOf(c) != -1) {
+                    if (id.charAt(id.length() - 1) != ID_SEPARATOR) {
+                        id.append(ID_SEPARATOR);
+                    }
+                } else if (Character.isLetterOrDigit(c)) {
+                    id.append(c);
+                }
+            }
+            if (id.charAt(id.length() - 1) == ID_SEPARATOR) {
+                id.setLength(id.length() - 1);
+            }
+            String result = null;
+            if (id.length() > 0) {
+                result = id.toString();
+                // AsciiDoctor numbers the duplicate ids starting from 2.
+                int count = 2;
+                while (!this.ids.add(result)) {
+                    result = id.toString() + ID_SEPARATOR + count++;
+                }
+            }
+            return result;
+        }
+
+        private boolean isParagraphLine(String line)
+        {
+            return Character.isLetterOrDigit(line.charAt(0)) && !OTHER_BLOCK_START.matcher(line).matches()
+                && isPlainText(line);
+        }
+
+        private boolean isPlainText(String line)
+        {
+            return StringUtils.indexOfAny(line, OTHER_BLOCK_SEQUENCES) == -1 && !line.endsWith(HARD_LINE_BREAK);
+        }
+    }
+}
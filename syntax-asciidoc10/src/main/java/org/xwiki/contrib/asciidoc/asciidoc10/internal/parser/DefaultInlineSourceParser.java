@@ -0,0 +1,182 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.rendering.listener.Format;
+import org.xwiki.rendering.listener.Listener;
+
+import static java.util.Collections.emptyMap;
+
+/**
+ * Supports plain text with constrained strong ({@code *bold*}) and emphasis ({@code _italic_}) formatting, which is
+ * what most paragraphs and list items contain. Anything that AsciiDoctor would transform (replacements, macros,
+ * attribute references, passthroughs, nested or unconstrained formatting, etc) is reported as unsupported.
+ *
+ * @version $Id$
+ */
+@Component
+@Singleton
+public class DefaultInlineSourceParser implements InlineSourceParser
+{
+    /**
+     * Symbols that AsciiDoctor leaves untouched, as long as they're not part of one of the
+     * {@link #UNSUPPORTED_SEQUENCES}.
+     */
+    private static final String PLAIN_SYMBOLS = ".,;:!?\"()/%-";
+
+    /**
+     * Sequences that AsciiDoctor replaces with typographic symbols, uses for index terms or turns into links.
+     */
+    private static final String[] UNSUPPORTED_SEQUENCES = { "...", "--", "(C)", "(R)", "(TM)", "((", "))", "://" };
+
+    /**
+     * Characters that prevent a formatting marker from being recognized when they appear just before it.
+     */
+    private static final String CONSTRAINED_PREFIX_BLOCKERS = ";:}";
+
+    private static final char STRONG_MARKER = '*';
+
+    private static final char EMPHASIS_MARKER = '_';
+
+    @Override
+    public boolean parse(String source, Listener listener, boolean removeTopLevelBock)
+    {
+        String text = StringUtils.strip(source);
+        int[] markers = findFormatMarkers(text);
+        boolean supported = markers != null;
+        if (supported && !text.isEmpty()) {
+            generateEvents(text, markers, listener, removeTopLevelBock);
+        }
+        return supported;
+    }
+
+    private void generateEvents(String text, int[] markers, Listener listener, boolean removeTopLevelBock)
+    {
+        if (!removeTopLevelBock) {
+            listener.beginParagraph(emptyMap());
+        }
+        int position = 0;
+        for (int i = 0; i < markers.length; i += 2) {
+            int opening = markers[i];
+            int closing = markers[i + 1];
+            TextTokenizer.tokenize(text, position, opening, listener);
+            Format format = text.charAt(opening) == STRONG_MARKER ? Format.BOLD : Format.ITALIC;
+            listener.beginFormat(format, emptyMap());
+            TextTokenizer.tokenize(text, opening + 1, closing, listener);
+            listener.endFormat(format, emptyMap());
+            position = closing + 1;
+        }
+        TextTokenizer.tokenize(text, position, text.length(), listener);
+        if (!removeTopLevelBock) {
+            listener.endParagraph(emptyMap());
+        }
+    }
+
+    /**
+     * @return the positions of the opening and closing formatting markers, in pairs, or null if the text uses some
+     *         unsupported syntax
+     */
+    private int[] findFormatMarkers(String text)
+    {
+        int[] markers = null;
+        if (StringUtils.indexOfAny(text, UNSUPPORTED_SEQUENCES) == -1) {
+            markers = new int[StringUtils.countMatches(text, STRONG_MARKER)
+                + StringUtils.countMatches(text, EMPHASIS_MARKER)];
+            int count = 0;
+            int i = 0;
+            while (markers != null && i < text.length()) {
+                char c = text.charAt(i);
+                if (isMarker(c)) {
+                    int closing = findClosingMarker(text, i);
+                    if (closing == -1) {
+                        markers = null;
+                    } else {
+                        markers[count++] = i;
+                        markers[count++] = closing;
+                        i = closing;
+                    }
+                } else if (!isPlainCharacter(c)) {
+                    markers = null;
+                }
+                i++;
+            }
+        }
+        return markers;
+    }
+
+    private int findClosingMarker(String text, int opening)
+    {
+        int result = -1;
+        if (isOpeningMarker(text, opening)) {
+            int i = opening + 1;
+            while (i < text.length() && !isMarker(text.charAt(i)) && isPlainCharacter(text.charAt(i))
+                && text.charAt(i) != '\n')
+            {
+                i++;
+            }
+            // Empty formatting (e.g. "**") is unconstrained formatting, which isn't supported.
+            if (i > opening + 1 && i < text.length() && text.charAt(i) == text.charAt(opening)
+                && isClosingMarker(text, i))
+            {
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    private boolean isOpeningMarker(String text, int position)
+    {
+        boolean validPrefix = position == 0 || !isConstrainedPrefixBlocker(text.charAt(position - 1));
+        return validPrefix && position + 1 < text.length() && !Character.isWhitespace(text.charAt(position + 1));
+    }
+
+    private boolean isClosingMarker(String text, int position)
+    {
+        // The character following the closing marker can't be a word character and it can't be another marker since
+        // AsciiDoctor wouldn't recognize it as the opening of a new formatting.
+        boolean validSuffix = position + 1 == text.length()
+            || (!isWordCharacter(text.charAt(position + 1)) && !isMarker(text.charAt(position + 1)));
+        return validSuffix && !Character.isWhitespace(text.charAt(position - 1));
+    }
+
+    private boolean isConstrainedPrefixBlocker(char c)
+    {
+        return isWordCharacter(c) || isMarker(c) || CONSTRAINED_PREFIX_BLOCKERS.indexOf(c) != -1;
+    }
+
+    private boolean isMarker(char c)
+    {
+        return c == STRONG_MARKER || c == EMPHASIS_MARKER;
+    }
+
+    private boolean isWordCharacter(char c)
+    {
+        return Character.isLetterOrDigit(c) || c == EMPHASIS_MARKER;
+    }
+
+    private boolean isPlainCharacter(char c)
+    {
+        return Character.isLetterOrDigit(c) || c == ' ' || c == '\t' || c == '\n' || PLAIN_SYMBOLS.indexOf(c) != -1;
+    }
+}
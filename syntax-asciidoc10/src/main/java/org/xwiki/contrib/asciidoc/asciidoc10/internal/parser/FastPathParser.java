@@ -0,0 +1,45 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Converts a whole AsciiDoc document directly into events, without loading it with AsciiDoctorJ. Only the most common
+ * subset of the AsciiDoc syntax is supported and callers are expected to parse the document with AsciiDoctorJ when
+ * it uses anything else.
+ *
+ * @version $Id$
+ */
+@Role
+public interface FastPathParser
+{
+    /**
+     * @param content the AsciiDoc content to parse
+     * @param listener the listener to which to send the events for the blocks of the document
+     * @param guard the limits of the parsing, which are checked once the content is known to be supported
+     * @return true if the content has been parsed, false if it uses some syntax not supported by this parser, in
+     *         which case no event has been sent to the listener
+     * @throws ParseException in case of parsing error
+     */
+    boolean parse(String content, Listener listener, ParseGuard guard) throws ParseException;
+}
@@ -0,0 +1,213 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.ParagraphBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.QueueListener;
+import org.xwiki.rendering.listener.QueueListener.Event;
+import org.xwiki.rendering.listener.WrappingListener;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Records the events of a document while deferring the parsing of its HTML fragments, so that all the fragments can
+ * be parsed at once. Each fragment is wrapped in a paragraph with a unique identifier, so that the parsed paragraphs
+ * can be matched back with the fragments and their events inserted where the fragments were found.
+ *
+ * @version $Id$
+ */
+public class HTMLFragmentBatch extends WrappingListener
+{
+    private static final String ID_PARAMETER = "id";
+
+    private static final String ID_PREFIX = "asciidoc-fragment-";
+
+    private final QueueListener queue = new QueueListener();
+
+    private final List<Fragment> fragments = new ArrayList<>();
+
+    /**
+     * An HTML fragment whose parsing has been deferred.
+     */
+    private static final class Fragment
+    {
+        private final String html;
+
+        private final boolean removeTopLevelBlock;
+
+        /**
+         * The number of events recorded before the fragment.
+         */
+        private final int position;
+
+        Fragment(String html, boolean removeTopLevelBlock, int position)
+        {
+            this.html = html;
+            this.removeTopLevelBlock = removeTopLevelBlock;
+            this.position = position;
+        }
+    }
+
+    /**
+     * Sends the events of the fragment at the given index.
+     */
+    @FunctionalInterface
+    private interface FragmentHandler
+    {
+        void handle(int index) throws ParseException;
+    }
+
+    /**
+     * Default constructor.
+     */
+    public HTMLFragmentBatch()
+    {
+        setWrappedListener(this.queue);
+    }
+
+    /**
+     * Defer the parsing of an HTML fragment, whose events will be inserted after the events recorded so far.
+     *
+     * @param html the HTML fragment generated by AsciiDoctorJ
+     * @param removeTopLevelBlock whether to remove the paragraph wrapping the content of the fragment
+     */
+    public void defer(String html, boolean removeTopLevelBlock)
+    {
+        this.fragments.add(new Fragment(html, removeTopLevelBlock, this.queue.size()));
+    }
+
+    /**
+     * @return true if some HTML fragments are waiting to be parsed
+     */
+    public boolean hasFragments()
+    {
+        return !this.fragments.isEmpty();
+    }
+
+    /**
+     * @return the HTML of all the deferred fragments, each one in its own identified paragraph
+     */
+    public String getHTML()
+    {
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < this.fragments.size(); i++) {
+            html.append("<p id=\"").append(ID_PREFIX).append(i).append("\">");
+            html.append(this.fragments.get(i).html).append("</p>");
+        }
+        return html.toString();
+    }
+
+    /**
+     * @param xdom the result of the parsing of {@link #getHTML()}
+     * @return the paragraphs of the fragments, in order, or null if the parsed HTML can't be split back into the
+     *         fragments (e.g. if a fragment contained HTML that the HTML parser moved outside of its paragraph)
+     */
+    public List<Block> split(XDOM xdom)
+    {
+        List<Block> result = xdom.getChildren();
+        if (result.size() == this.fragments.size()) {
+            for (int i = 0; i < result.size(); i++) {
+                Block block = result.get(i);
+                if (!(block instanceof ParagraphBlock)
+                    || !(ID_PREFIX + i).equals(block.getParameter(ID_PARAMETER))) {
+                    result = null;
+                    break;
+                }
+            }
+        } else {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Send the recorded events, and the events of the parsed fragments at their place, to the given listener.
+     *
+     * @param listener the listener to send the events to
+     * @param paragraphs the paragraphs of the fragments, as returned by {@link #split(XDOM)}
+     */
+    public void replay(Listener listener, List<Block> paragraphs)
+    {
+        try {
+            replay(listener, index -> replayFragment(this.fragments.get(index), paragraphs.get(index), listener));
+        } catch (ParseException e) {
+            // Can't happen since the paragraphs are already parsed.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Send the recorded events to the given listener, parsing the fragments one by one at their place.
+     *
+     * @param listener the listener to send the events to
+     * @param fragmentParser the parser to use for each fragment
+     * @throws ParseException if a fragment fails to be parsed
+     */
+    public void replay(Listener listener, Parser fragmentParser) throws ParseException
+    {
+        replay(listener, index -> {
+            Fragment fragment = this.fragments.get(index);
+            fragmentParser.parse(fragment.html, listener, fragment.removeTopLevelBlock);
+        });
+    }
+
+    private void replay(Listener listener, FragmentHandler fragmentHandler) throws ParseException
+    {
+        int fragmentIndex = 0;
+        int position = 0;
+        for (Event event : this.queue) {
+            while (fragmentIndex < this.fragments.size() && this.fragments.get(fragmentIndex).position == position) {
+                fragmentHandler.handle(fragmentIndex++);
+            }
+            event.eventType.fireEvent(listener, event.eventParameters);
+            position++;
+        }
+        while (fragmentIndex < this.fragments.size()) {
+            fragmentHandler.handle(fragmentIndex++);
+        }
+    }
+
+    private void replayFragment(Fragment fragment, Block paragraph, Listener listener)
+    {
+        if (fragment.removeTopLevelBlock) {
+            traverse(paragraph.getChildren(), listener);
+        } else {
+            Map<String, String> parameters = new LinkedHashMap<>(paragraph.getParameters());
+            parameters.remove(ID_PARAMETER);
+            listener.beginParagraph(parameters);
+            traverse(paragraph.getChildren(), listener);
+            listener.endParagraph(parameters);
+        }
+    }
+
+    private void traverse(List<Block> blocks, Listener listener)
+    {
+        for (Block block : blocks) {
+            block.traverse(listener);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.io.StringReader;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics.ParseMetrics;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics.ParsePhase;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.Parser;
+
+/**
+ * Parse HTML content produced by AsciiDoctorJ for its inline block content (since AsciiDoctorJ currently
+ * <a href="https://github.com/asciidoctor/asciidoctor/issues/61">doesn't implement any inline parser</a>. When the
+ * listener is an {@link HTMLFragmentBatch}, the HTML that can't be streamed is deferred so that it's parsed with the
+ * other fragments of the document.
+ * <p>
+ * The links are sent as parsed: the stream parser normalizes them for the whole document, with a
+ * {@link LinkNormalizingListener}, after the events are cached. Use the {@link HTMLParser} to get normalized links.
+ *
+ * @version $Id$
+ */
+@Component
+@Named(HTMLFragmentParser.HINT)
+@Singleton
+public class HTMLFragmentParser extends AbstractParser
+    implements org.xwiki.contrib.asciidoc.asciidoc10.internal.parser.Parser
+{
+    /**
+     * The hint of this component.
+     */
+    public static final String HINT = "htmlFragment";
+
+    @Inject
+    @Named("html/4.01")
+    private Parser parser;
+
+    @Inject
+    private AsciiDocConfiguration configuration;
+
+    @Inject
+    private ParseMetrics parseMetrics;
+
+    private final InlineHTMLTokenizer inlineHTMLTokenizer = new InlineHTMLTokenizer();
+
+    @Override
+    public void parse(String text, Listener listener, boolean removeTopLevelBock) throws ParseException
+    {
+        // Try to stream the events directly when the HTML is simple enough, to avoid building and traversing an XDOM.
+        boolean streamed = false;
+        if (this.configuration.isStreamingHTMLParsingEnabled()) {
+            long start = this.parseMetrics.startTimer();
+            streamed = this.inlineHTMLTokenizer.parse(text, listener, removeTopLevelBock);
+            this.parseMetrics.stopTimer(ParsePhase.HTML_PARSING, start);
+        }
+        if (!streamed) {
+            if (listener instanceof HTMLFragmentBatch && !StringUtils.isBlank(text)) {
+                // The fragment will be parsed with the other fragments of the document.
+                ((HTMLFragmentBatch) listener).defer(text, removeTopLevelBock);
+            } else {
+                parseXDOM(text, listener, removeTopLevelBock);
+            }
+        }
+    }
+
+    private void parseXDOM(String text, Listener listener, boolean removeTopLevelBock) throws ParseException
+    {
+        long start = this.parseMetrics.startTimer();
+        XDOM xdom = this.parser.parse(new StringReader(text));
+        removeTopLevelBlock(xdom, removeTopLevelBock);
+        this.parseMetrics.stopTimer(ParsePhase.HTML_PARSING, start);
+
+        // Generate the events from the XDOM blocks so that they are sent to the listener.
+        start = this.parseMetrics.startTimer();
+        for (org.xwiki.rendering.block.Block block : xdom.getChildren()) {
+            block.traverse(listener);
+        }
+        this.parseMetrics.stopTimer(ParsePhase.EVENT_GENERATION, start);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Turns the HTML generated by AsciiDoctorJ for some inline content (e.g. a title) into plain text, for the consumers
+ * that don't need events.
+ *
+ * @version $Id$
+ */
+public final class HTMLText
+{
+    private static final Pattern LINE_BREAK = Pattern.compile("<br\\s*/?>");
+
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+
+    private static final Pattern ENTITY = Pattern.compile("&(?:#([0-9]{1,7})|#x([0-9a-fA-F]{1,6})|([a-z]+));");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final int HEXADECIMAL_RADIX = 16;
+
+    private static final String SPACE = " ";
+
+    private HTMLText()
+    {
+        // Utility class
+    }
+
+    /**
+     * @param html some inline HTML generated by AsciiDoctorJ
+     * @return the text of the HTML, without the tags, with the entities decoded and the whitespace collapsed
+     */
+    public static String toPlainText(String html)
+    {
+        String result = "";
+        if (html != null) {
+            // Line breaks separate words, unlike the other (inline) tags.
+            String text = LINE_BREAK.matcher(html).replaceAll(SPACE);
+            text = TAG.matcher(text).replaceAll("");
+            text = WHITESPACE.matcher(decodeEntities(text)).replaceAll(SPACE);
+            result = StringUtils.strip(text);
+        }
+        return result;
+    }
+
+    private static String decodeEntities(String text)
+    {
+        String result = text;
+        if (text.indexOf('&') >= 0) {
+            StringBuilder builder = new StringBuilder(text.length());
+            Matcher matcher = ENTITY.matcher(text);
+            int position = 0;
+            while (matcher.find()) {
+                builder.append(text, position, matcher.start());
+                String decoded = decodeEntity(matcher);
+                builder.append(decoded != null ? decoded : matcher.group());
+                position = matcher.end();
+            }
+            builder.append(text, position, text.length());
+            result = builder.toString();
+        }
+        return result;
+    }
+
+    private static String decodeEntity(Matcher matcher)
+    {
+        String result = null;
+        int codePoint = -1;
+        if (matcher.group(1) != null) {
+            codePoint = Integer.parseInt(matcher.group(1));
+        } else if (matcher.group(2) != null) {
+            codePoint = Integer.parseInt(matcher.group(2), HEXADECIMAL_RADIX);
+        } else {
+            result = decodeNamedEntity(matcher.group(3));
+        }
+        if (Character.isValidCodePoint(codePoint)) {
+            result = new String(Character.toChars(codePoint));
+        }
+        return result;
+    }
+
+    private static String decodeNamedEntity(String name)
+    {
+        String result;
+        switch (name) {
+            case "amp":
+                result = "&";
+                break;
+            case "lt":
+                result = "<";
+                break;
+            case "gt":
+                result = ">";
+                break;
+            case "quot":
+                result = "\"";
+                break;
+            case "apos":
+                result = "'";
+                break;
+            case "nbsp":
+                result = SPACE;
+                break;
+            default:
+                result = null;
+        }
+        return result;
+    }
+}
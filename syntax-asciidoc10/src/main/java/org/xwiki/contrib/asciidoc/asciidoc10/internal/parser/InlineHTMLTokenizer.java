@@ -0,0 +1,347 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.rendering.listener.Format;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.QueueListener;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+
+import static java.util.Collections.emptyMap;
+
+/**
+ * Sends the events for the restricted HTML that AsciiDoctorJ generates for inline content straight to a listener, in
+ * a single pass and without building any XDOM. Link references are generated the way {@link LinkNormalizingListener}
+ * normalizes them, except that links to documents are always generated as such: the listener turns them into URL links
+ * when not in wiki mode. Any HTML outside of the supported subset (unknown elements or entities, whitespace next to
+ * element boundaries, etc) makes the whole fragment unsupported so that the caller can fall back on the HTML parser.
+ *
+ * @version $Id$
+ */
+public class InlineHTMLTokenizer
+{
+    private static final String LINK_ELEMENT = "a";
+
+    private static final String HREF_ATTRIBUTE = "href";
+
+    private static final String MAILTO_SCHEME_PREFIX = "mailto:";
+
+    private static final String[] URL_SCHEME_PREFIXES = { "http://", "https://" };
+
+    private static final Map<String, Format> FORMATS = new HashMap<>();
+
+    /**
+     * Link attributes that end up as link parameters, which are removed anyway when the link is normalized.
+     */
+    private static final Set<String> IGNORED_LINK_ATTRIBUTES = new HashSet<>(Arrays.asList("class", "target", "rel"));
+
+    private static final Map<String, Character> NAMED_ENTITIES = new HashMap<>();
+
+    private static final Pattern START_TAG = Pattern.compile("<([a-z]+)((?:\\s+[a-z]+=\"[^\"&<]*\")*)>");
+
+    private static final Pattern ATTRIBUTE = Pattern.compile("\\s+([a-z]+)=\"([^\"]*)\"");
+
+    private static final Pattern END_TAG = Pattern.compile("</([a-z]+)>");
+
+    private static final Pattern ENTITY = Pattern.compile("&(?:#([0-9]{1,5})|#x([0-9a-fA-F]{1,4})|([a-z]+));");
+
+    private static final int HEXADECIMAL_RADIX = 16;
+
+    private static final int MAX_ASCII = 128;
+
+    static {
+        FORMATS.put("strong", Format.BOLD);
+        FORMATS.put("em", Format.ITALIC);
+        FORMATS.put("sup", Format.SUPERSCRIPT);
+        FORMATS.put("sub", Format.SUBSCRIPT);
+
+        NAMED_ENTITIES.put("amp", '&');
+        NAMED_ENTITIES.put("lt", '<');
+        NAMED_ENTITIES.put("gt", '>');
+        NAMED_ENTITIES.put("quot", '"');
+        NAMED_ENTITIES.put("apos", '\'');
+    }
+
+    private enum Token
+    {
+        START,
+        TEXT,
+        SPACE,
+        START_TAG,
+        END_TAG
+    }
+
+    /**
+     * @param html the HTML generated by AsciiDoctorJ for some inline content
+     * @param listener the listener to which to send the events for the parsed content
+     * @param removeTopLevelBock if true then don't wrap the content in a paragraph
+     * @return true if the HTML has been parsed, false if it's not supported, in which case no event has been sent to
+     *         the listener
+     */
+    public boolean parse(String html, Listener listener, boolean removeTopLevelBock)
+    {
+        String text = StringUtils.strip(html);
+        // The events are queued until the end of the fragment so that we never send partial events.
+        QueueListener queue = new QueueListener();
+        boolean supported = new Run(text, queue).process();
+        if (supported && !text.isEmpty()) {
+            if (!removeTopLevelBock) {
+                listener.beginParagraph(emptyMap());
+            }
+            queue.consumeEvents(listener);
+            if (!removeTopLevelBock) {
+                listener.endParagraph(emptyMap());
+            }
+        }
+        return supported;
+    }
+
+    /**
+     * The state of the pass over an HTML fragment.
+     */
+    private static final class Run
+    {
+        private final String text;
+
+        private final Listener listener;
+
+        private final Deque<Object> openElements = new ArrayDeque<>();
+
+        private final Matcher startTagMatcher;
+
+        private final Matcher endTagMatcher;
+
+        private final Matcher entityMatcher;
+
+        private int wordStart = -1;
+
+        private Token lastToken = Token.START;
+
+        Run(String text, Listener listener)
+        {
+            this.text = text;
+            this.listener = listener;
+            this.startTagMatcher = START_TAG.matcher(text);
+            this.endTagMatcher = END_TAG.matcher(text);
+            this.entityMatcher = ENTITY.matcher(text);
+        }
+
+        boolean process()
+        {
+            int position = 0;
+            while (position != -1 && position < this.text.length()) {
+                char c = this.text.charAt(position);
+                if (c == '<') {
+                    flushWord(position);
+                    position = processTag(position);
+                } else if (c == '&') {
+                    flushWord(position);
+                    position = processEntity(position);
+                } else {
+                    position = processCharacter(c, position);
+                }
+            }
+            flushWord(this.text.length());
+            return position != -1 && this.openElements.isEmpty();
+        }
+
+        private int processTag(int position)
+        {
+            int next = -1;
+            if (this.startTagMatcher.region(position, this.text.length()).lookingAt()) {
+                if (openElement(this.startTagMatcher.group(1), this.startTagMatcher.group(2))) {
+                    next = this.startTagMatcher.end();
+                }
+            } else if (this.endTagMatcher.region(position, this.text.length()).lookingAt()
+                && closeElement(this.endTagMatcher.group(1)))
+            {
+                next = this.endTagMatcher.end();
+            }
+            return next;
+        }
+
+        private boolean openElement(String name, String attributes)
+        {
+            Object element = FORMATS.get(name);
+            if (element == null && LINK_ELEMENT.equals(name)) {
+                element = parseLinkReference(attributes);
+            }
+            // Nested links aren't valid HTML.
+            boolean supported = element != null && !this.openElements.stream()
+                .anyMatch(openElement -> openElement instanceof ResourceReference);
+            if (supported) {
+                this.openElements.push(element);
+                this.lastToken = Token.START_TAG;
+                if (element instanceof Format) {
+                    this.listener.beginFormat((Format) element, emptyMap());
+                } else {
+                    this.listener.beginLink((ResourceReference) element, false, emptyMap());
+                }
+            }
+            return supported;
+        }
+
+        private boolean closeElement(String name)
+        {
+            Object element = this.openElements.peek();
+            boolean matching = element != null
+                && (element instanceof Format ? element == FORMATS.get(name) : LINK_ELEMENT.equals(name));
+            // Empty elements and whitespace before the end of an element are handled differently by the HTML
+            // cleaner and by the whitespace normalization of the HTML parser.
+            boolean supported = matching && this.lastToken != Token.START_TAG && this.lastToken != Token.SPACE;
+            if (supported) {
+                this.openElements.pop();
+                this.lastToken = Token.END_TAG;
+                if (element instanceof Format) {
+                    this.listener.endFormat((Format) element, emptyMap());
+                } else {
+                    this.listener.endLink((ResourceReference) element, false, emptyMap());
+                }
+            }
+            return supported;
+        }
+
+        private ResourceReference parseLinkReference(String attributes)
+        {
+            String href = null;
+            boolean onlyHref = true;
+            boolean supported = true;
+            Matcher matcher = ATTRIBUTE.matcher(attributes);
+            while (supported && matcher.find()) {
+                String attributeName = matcher.group(1);
+                if (HREF_ATTRIBUTE.equals(attributeName)) {
+                    href = matcher.group(2);
+                } else {
+                    onlyHref = false;
+                    supported = IGNORED_LINK_ATTRIBUTES.contains(attributeName);
+                }
+            }
+            ResourceReference reference = null;
+            if (supported && StringUtils.isNotEmpty(href)) {
+                reference = createLinkReference(href, onlyHref);
+            }
+            return reference;
+        }
+
+        private ResourceReference createLinkReference(String href, boolean onlyHref)
+        {
+            ResourceReference reference = null;
+            if (StringUtils.startsWithAny(href, URL_SCHEME_PREFIXES)) {
+                // We consider that it's not possible to specify parameters in AsciiDoc and thus we don't keep them.
+                reference = new ResourceReference(href, ResourceType.URL);
+            } else if (href.startsWith(MAILTO_SCHEME_PREFIX)) {
+                // Mailto links keep their parameters so we only support them when they don't have any.
+                if (onlyHref) {
+                    reference = new ResourceReference(StringUtils.removeStart(href, MAILTO_SCHEME_PREFIX),
+                        ResourceType.MAILTO);
+                }
+            } else if (StringUtils.containsNone(href, ':', '?', '#')) {
+                // Consider that all non-URL and non-mailto links in asciidoc are untyped links to documents.
+                reference = new ResourceReference(href, ResourceType.DOCUMENT);
+                reference.setTyped(false);
+            }
+            return reference;
+        }
+
+        private int processEntity(int position)
+        {
+            int next = -1;
+            if (this.entityMatcher.region(position, this.text.length()).lookingAt()) {
+                int decoded = decodeEntity();
+                // Only support entities standing for special symbols: there's no guarantee that other characters
+                // would be tokenized the same way by the HTML parser.
+                if (decoded > 0 && decoded < MAX_ASCII && TextTokenizer.isSpecialSymbol((char) decoded)) {
+                    onSpecialSymbol((char) decoded);
+                    next = this.entityMatcher.end();
+                }
+            }
+            return next;
+        }
+
+        private int decodeEntity()
+        {
+            int decoded = -1;
+            if (this.entityMatcher.group(1) != null) {
+                decoded = Integer.parseInt(this.entityMatcher.group(1));
+            } else if (this.entityMatcher.group(2) != null) {
+                decoded = Integer.parseInt(this.entityMatcher.group(2), HEXADECIMAL_RADIX);
+            } else {
+                Character namedEntity = NAMED_ENTITIES.get(this.entityMatcher.group(3));
+                if (namedEntity != null) {
+                    decoded = namedEntity;
+                }
+            }
+            return decoded;
+        }
+
+        private int processCharacter(char c, int position)
+        {
+            int next = position + 1;
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                flushWord(position);
+                if (this.lastToken == Token.START_TAG) {
+                    // See closeElement()
+                    next = -1;
+                } else if (this.lastToken != Token.SPACE) {
+                    this.lastToken = Token.SPACE;
+                    this.listener.onSpace();
+                }
+            } else if (TextTokenizer.isSpecialSymbol(c)) {
+                flushWord(position);
+                onSpecialSymbol(c);
+            } else if (Character.isLetterOrDigit(c)) {
+                if (this.wordStart == -1) {
+                    this.wordStart = position;
+                }
+                this.lastToken = Token.TEXT;
+            } else {
+                // Non-breaking spaces, typographic symbols, control characters, etc.
+                next = -1;
+            }
+            return next;
+        }
+
+        private void onSpecialSymbol(char symbol)
+        {
+            this.lastToken = Token.TEXT;
+            this.listener.onSpecialSymbol(symbol);
+        }
+
+        private void flushWord(int position)
+        {
+            if (this.wordStart != -1) {
+                this.listener.onWord(this.text.substring(this.wordStart, position));
+                this.wordStart = -1;
+            }
+        }
+    }
+}
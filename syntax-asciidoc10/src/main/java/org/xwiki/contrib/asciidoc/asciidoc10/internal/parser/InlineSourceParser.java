@@ -0,0 +1,43 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.listener.Listener;
+
+/**
+ * Converts the AsciiDoc source of inline content (e.g. the text of a paragraph or of a list item) directly into
+ * events, without asking AsciiDoctorJ to generate HTML and parsing it. Only a subset of the AsciiDoc inline syntax is
+ * supported and callers are expected to fall back to the HTML path for the rest.
+ *
+ * @version $Id$
+ */
+@Role
+public interface InlineSourceParser
+{
+    /**
+     * @param source the AsciiDoc source of the inline content
+     * @param listener the listener to which to send the events for the parsed content
+     * @param removeTopLevelBock if true then don't wrap the content in a paragraph
+     * @return true if the content has been parsed, false if it uses some syntax not supported by this parser, in
+     *         which case no event has been sent to the listener
+     */
+    boolean parse(String source, Listener listener, boolean removeTopLevelBock);
+}
@@ -0,0 +1,111 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Fails as soon as more than a given number of characters is read from the wrapped reader, so that oversized contents
+ * are rejected without being fully loaded in memory (or spooled on disk).
+ *
+ * @version $Id$
+ */
+public class LimitedReader extends FilterReader
+{
+    private final long maxSize;
+
+    private long size;
+
+    /**
+     * Thrown when the content read exceeds the maximum size.
+     *
+     * @version $Id$
+     */
+    public static class LimitExceededException extends IOException
+    {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param maxSize the maximum size that has been exceeded
+         */
+        public LimitExceededException(long maxSize)
+        {
+            super(String.format("The AsciiDoc content is larger than the maximum of [%d] characters", maxSize));
+        }
+    }
+
+    /**
+     * @param in the reader to wrap
+     * @param maxSize the maximum number of characters that can be read
+     */
+    public LimitedReader(Reader in, long maxSize)
+    {
+        super(in);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param source the reader to limit
+     * @param maxSize the maximum number of characters that can be read from the source, zero or negative for no limit
+     * @return the reader to use
+     */
+    public static Reader limit(Reader source, long maxSize)
+    {
+        return maxSize > 0 ? new LimitedReader(source, maxSize) : source;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        int result = super.read();
+        if (result >= 0) {
+            count(1);
+        }
+        return result;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException
+    {
+        int result = super.read(buffer, offset, length);
+        if (result > 0) {
+            count(result);
+        }
+        return result;
+    }
+
+    @Override
+    public long skip(long n) throws IOException
+    {
+        long result = super.skip(n);
+        count(result);
+        return result;
+    }
+
+    private void count(long read) throws LimitExceededException
+    {
+        this.size += read;
+        if (this.size > this.maxSize) {
+            throw new LimitExceededException(this.maxSize);
+        }
+    }
+}
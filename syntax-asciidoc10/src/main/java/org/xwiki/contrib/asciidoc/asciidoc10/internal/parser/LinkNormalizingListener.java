@@ -0,0 +1,118 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics.ParseCounter;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics.ParseMetrics;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.WrappingListener;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+
+import static java.util.Collections.emptyMap;
+
+/**
+ * Normalizes the link events before forwarding them to the wrapped listener, whatever the way they were generated
+ * (HTML parser, inline HTML tokenizer, cached events, etc):
+ * <ul>
+ * <li>there's no concept of typed links in AsciiDoc, so all links other than URL and mailto links are untyped links to
+ * documents, or to URLs when not in wiki mode;</li>
+ * <li>"{@code <a href="reference">label</a>}" is parsed by the HTML parser as a PATH link, including for mailto links
+ * since it fails to recognize them when there are no link comments (see
+ * <a href="https://jira.xwiki.org/browse/XRENDERING-612">XRENDERING-612</a>);</li>
+ * <li>AsciiDoctor adds a {@code class=bare} parameter to URL links, and we consider that it's not possible to specify
+ * link parameters in AsciiDoc, so they are all removed.</li>
+ * </ul>
+ * The references are normalized in place, which is fine since they belong to transient XDOMs or event copies, and
+ * which makes normalizing an already normalized reference a no-op.
+ *
+ * @version $Id$
+ */
+public class LinkNormalizingListener extends WrappingListener
+{
+    private static final String MAILTO_SCHEME_PREFIX = "mailto:";
+
+    private final ResourceType documentType;
+
+    private final ParseMetrics parseMetrics;
+
+    private boolean linkFreestanding;
+
+    private Map<String, String> linkParameters;
+
+    /**
+     * @param listener the listener to which to forward the normalized events
+     * @param wikiMode whether links to documents should be generated, resolved once for the whole parsing
+     * @param parseMetrics used to count the normalized links
+     */
+    public LinkNormalizingListener(Listener listener, boolean wikiMode, ParseMetrics parseMetrics)
+    {
+        setWrappedListener(listener);
+        this.documentType = wikiMode ? ResourceType.DOCUMENT : ResourceType.URL;
+        this.parseMetrics = parseMetrics;
+    }
+
+    @Override
+    public void beginLink(ResourceReference reference, boolean freestanding, Map<String, String> parameters)
+    {
+        String originalReference = reference.getReference();
+        ResourceType type = normalize(reference);
+        if (!type.equals(reference.getType()) || !Objects.equals(originalReference, reference.getReference())) {
+            this.parseMetrics.increment(ParseCounter.REWRITTEN_LINKS, 1);
+        }
+        // Links can't be nested so the end event can reuse the normalized values of the begin event.
+        if (ResourceType.MAILTO.equals(type)) {
+            this.linkFreestanding = freestanding;
+            this.linkParameters = parameters;
+        } else {
+            this.linkFreestanding = freestanding && ResourceType.URL.equals(type);
+            this.linkParameters = emptyMap();
+        }
+        super.beginLink(reference, this.linkFreestanding, this.linkParameters);
+    }
+
+    @Override
+    public void endLink(ResourceReference reference, boolean freestanding, Map<String, String> parameters)
+    {
+        normalize(reference);
+        super.endLink(reference, this.linkFreestanding, this.linkParameters);
+    }
+
+    /**
+     * @return {@link ResourceType#MAILTO} for mailto links, the type of the reference before normalization otherwise
+     */
+    private ResourceType normalize(ResourceReference reference)
+    {
+        ResourceType type = reference.getType();
+        if (ResourceType.PATH.equals(type) && reference.getReference().startsWith(MAILTO_SCHEME_PREFIX)) {
+            reference.setType(ResourceType.MAILTO);
+            reference.setReference(StringUtils.removeStart(reference.getReference(), MAILTO_SCHEME_PREFIX));
+            type = ResourceType.MAILTO;
+        } else if (!ResourceType.URL.equals(type) && !ResourceType.MAILTO.equals(type)) {
+            reference.setTyped(false);
+            reference.setType(this.documentType);
+        }
+        return type;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Enforces the limits of a single parsing (deadline, number of blocks and nesting level) and lets it be cancelled by
+ * interrupting the parsing thread. The limits are checked between blocks, so that a parsing exceeding them fails
+ * before generating more events, while leaving the AsciiDoctor runtime in a usable state. A limit that is zero or
+ * negative is disabled.
+ *
+ * @version $Id$
+ */
+public class ParseGuard
+{
+    private final long deadline;
+
+    private final long maxBlockCount;
+
+    private final int maxNestingLevel;
+
+    private long blockCount;
+
+    private int nestingLevel;
+
+    /**
+     * @param timeout the maximum duration of the parsing, in milliseconds
+     * @param maxBlockCount the maximum number of blocks (including list items and table cells) of the content
+     * @param maxNestingLevel the maximum nesting level of the blocks
+     */
+    public ParseGuard(long timeout, long maxBlockCount, int maxNestingLevel)
+    {
+        this.deadline = timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0;
+        this.maxBlockCount = maxBlockCount;
+        this.maxNestingLevel = maxNestingLevel;
+    }
+
+    /**
+     * Check that the parsing has not been cancelled and that its deadline has not passed.
+     *
+     * @throws ParseException if the parsing must stop
+     */
+    public void check() throws ParseException
+    {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new ParseException("The parsing of the AsciiDoc content has been cancelled");
+        }
+        if (this.deadline != 0 && System.nanoTime() - this.deadline > 0) {
+            throw new ParseException("The parsing of the AsciiDoc content has exceeded its deadline");
+        }
+    }
+
+    /**
+     * Count a new block.
+     *
+     * @throws ParseException if the maximum number of blocks is exceeded, or if the parsing must stop
+     */
+    public void enterBlock() throws ParseException
+    {
+        enterBlocks(1);
+    }
+
+    /**
+     * Count several new blocks at once.
+     *
+     * @param count the number of new blocks
+     * @throws ParseException if the maximum number of blocks is exceeded, or if the parsing must stop
+     */
+    public void enterBlocks(long count) throws ParseException
+    {
+        this.blockCount += count;
+        if (this.maxBlockCount > 0 && this.blockCount > this.maxBlockCount) {
+            throw new ParseException(
+                String.format("The AsciiDoc content has more than the maximum of [%d] blocks", this.maxBlockCount));
+        }
+        check();
+    }
+
+    /**
+     * Enter a list of nested blocks.
+     *
+     * @throws ParseException if the maximum nesting level is exceeded
+     */
+    public void enterNesting() throws ParseException
+    {
+        this.nestingLevel++;
+        checkNesting(0);
+    }
+
+    /**
+     * Check the nesting level of blocks that are not visited one by one.
+     *
+     * @param depth the number of levels the blocks are nested in, below the current nesting level
+     * @throws ParseException if the maximum nesting level is exceeded
+     */
+    public void checkNesting(int depth) throws ParseException
+    {
+        if (this.maxNestingLevel > 0 && this.nestingLevel + depth > this.maxNestingLevel) {
+            throw new ParseException(String.format(
+                "The AsciiDoc content has blocks nested deeper than the maximum of [%d] levels", this.maxNestingLevel));
+        }
+    }
+
+    /**
+     * Leave a list of nested blocks.
+     */
+    public void exitNesting()
+    {
+        this.nestingLevel--;
+    }
+}
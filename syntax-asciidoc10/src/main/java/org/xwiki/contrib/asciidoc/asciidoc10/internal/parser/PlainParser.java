@@ -19,40 +19,85 @@
  */
 package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
 
-import java.io.StringReader;
-
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
-import org.xwiki.rendering.block.XDOM;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics.ParseMetrics;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics.ParsePhase;
 import org.xwiki.rendering.listener.Listener;
-import org.xwiki.rendering.parser.ParseException;
-import org.xwiki.rendering.parser.Parser;
+
+import static java.util.Collections.emptyMap;
 
 /**
  * Parse plain content produced by AsciiDoctorJ for its inline block content (since AsciiDoctorJ currently
  * <a href="https://github.com/asciidoctor/asciidoctor/issues/61">doesn't implement any inline parser</a>.
+ * <p>
+ * The events are sent directly while scanning the text, without building an XDOM, but they are the same as the ones
+ * produced by the {@code plain/1.0} parser: every space and new line generates its own event, carriage returns are
+ * ignored and all the other characters are either special symbols or parts of words.
  *
  * @version $Id$
  */
 @Component
 @Named("plain")
 @Singleton
-public class PlainParser extends AbstractParser implements org.xwiki.contrib.asciidoc.asciidoc10.internal.parser.Parser
+public class PlainParser implements org.xwiki.contrib.asciidoc.asciidoc10.internal.parser.Parser
 {
+    /**
+     * The special symbols of the {@code plain/1.0} parser (which, unlike {@link TextTokenizer}, doesn't include the
+     * backslash).
+     */
+    private static final String SPECIAL_SYMBOLS = "!\"#$%&'()*+,-./:;<=>?@[]^_`{|}~";
+
     @Inject
-    @Named("plain/1.0")
-    private Parser parser;
+    private ParseMetrics parseMetrics;
 
     @Override
-    public void parse(String text, Listener listener, boolean removeTopLevelBock) throws ParseException
+    public void parse(String text, Listener listener, boolean removeTopLevelBock)
+    {
+        long start = this.parseMetrics.startTimer();
+        if (!text.isEmpty()) {
+            if (!removeTopLevelBock) {
+                listener.beginParagraph(emptyMap());
+            }
+            tokenize(text, listener);
+            if (!removeTopLevelBock) {
+                listener.endParagraph(emptyMap());
+            }
+        }
+        this.parseMetrics.stopTimer(ParsePhase.PLAIN_TEXT_PARSING, start);
+    }
+
+    private void tokenize(String source, Listener listener)
+    {
+        // Carriage returns are skipped without ending the current word.
+        String text = source.indexOf('\r') != -1 ? source.replace("\r", "") : source;
+        int wordStart = -1;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == ' ' || SPECIAL_SYMBOLS.indexOf(c) != -1) {
+                flushWord(text, wordStart, i, listener);
+                wordStart = -1;
+                if (c == '\n') {
+                    listener.onNewLine();
+                } else if (c == ' ') {
+                    listener.onSpace();
+                } else {
+                    listener.onSpecialSymbol(c);
+                }
+            } else if (wordStart == -1) {
+                wordStart = i;
+            }
+        }
+        flushWord(text, wordStart, text.length(), listener);
+    }
+
+    private void flushWord(String text, int wordStart, int wordEnd, Listener listener)
     {
-        XDOM xdom = this.parser.parse(new StringReader(text));
-        removeTopLevelBlock(xdom, removeTopLevelBock);
-        for (org.xwiki.rendering.block.Block block : xdom.getChildren()) {
-            block.traverse(listener);
+        if (wordStart != -1) {
+            listener.onWord(text.substring(wordStart, wordEnd));
         }
     }
 }
@@ -0,0 +1,182 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Splits AsciiDoc content at its top-level section titles so that each section can be parsed on its own. The document
+ * header is prepended to every section but the first one (which already contains it), so that the document attributes
+ * apply. Only contents for which parsing the sections separately produces the same result as parsing the whole content
+ * are split: anything that makes a section depend on the other sections (attribute entries outside of the header,
+ * cross references, footnotes, preprocessor directives, explicit anchors, etc) prevents the split. Duplicate section
+ * identifiers can only be detected after parsing, see {@link AsciiDocStreamParser}.
+ *
+ * @version $Id$
+ */
+public final class SectionSplitter
+{
+    static final Pattern SECTION_TITLE = Pattern.compile("^(={1,6})\\s+\\S.*$");
+
+    static final Pattern MARKDOWN_SECTION_TITLE = Pattern.compile("^#{1,6}\\s+\\S.*$");
+
+    static final Pattern ATTRIBUTE_ENTRY = Pattern.compile("^:!?\\w[\\w-]*!?:.*$");
+
+    static final Pattern BLOCK_DELIMITER =
+        Pattern.compile("^(?:-{4,}|\\.{4,}|={4,}|\\*{4,}|_{4,}|\\+{4,}|/{4,}|--|```.*|[|,:!]={3,})$");
+
+    private static final Pattern SETEXT_UNDERLINE = Pattern.compile("^(?:-{2,}|={2,}|~{2,}|\\^{2,}|\\+{2,})$");
+
+    static final String[] UNSUPPORTED_SEQUENCES = { "include::", "ifdef::", "ifndef::", "ifeval::", "endif::",
+        "<<", "xref:", "footnote:", "footnoteref:", "anchor:", "[[", "[#", "{counter", "[discrete", "[float" };
+
+    private static final String NEW_LINE = "\n";
+
+    private SectionSplitter()
+    {
+        // Utility class.
+    }
+
+    /**
+     * @param content the AsciiDoc content to split
+     * @return the AsciiDoc contents of the top-level sections, with the document header prepended to all of them, or
+     *         an empty list if the content can't be split safely
+     */
+    public static List<String> split(String content)
+    {
+        List<String> result = Collections.emptyList();
+        if (StringUtils.indexOfAny(content, UNSUPPORTED_SEQUENCES) == -1) {
+            String[] lines = content.split(NEW_LINE, -1);
+            int headerEnd = getHeaderEnd(lines);
+            List<Integer> boundaries = findBoundaries(lines, headerEnd);
+            // The first top-level section stays with the header and the preamble, since AsciiDoctor handles the
+            // preamble differently when there are no sections.
+            if (boundaries != null && boundaries.size() > 1) {
+                result = new ArrayList<>(boundaries.size());
+                String header = join(lines, 0, headerEnd);
+                boundaries.set(0, 0);
+                boundaries.add(lines.length);
+                for (int i = 0; i + 1 < boundaries.size(); i++) {
+                    String section = join(lines, boundaries.get(i), boundaries.get(i + 1));
+                    result.add(i == 0 || header.isEmpty() ? section : header + NEW_LINE + NEW_LINE + section);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the index of the line following the document header, i.e. the document title, the author and revision
+     *         lines and the attribute entries at the start of the content
+     */
+    private static int getHeaderEnd(String[] lines)
+    {
+        int result = 0;
+        String firstLine = strip(lines[0]);
+        if (isSectionTitle(firstLine, 0) || ATTRIBUTE_ENTRY.matcher(firstLine).matches()) {
+            while (result < lines.length && !strip(lines[result]).isEmpty()) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the indexes of the lines holding the top-level section titles, or null if the content can't be split
+     */
+    private static List<Integer> findBoundaries(String[] lines, int headerEnd)
+    {
+        List<Integer> result = new ArrayList<>();
+        int minLevel = Integer.MAX_VALUE;
+        String delimiter = null;
+        String previousLine = "";
+        boolean previousLineIsTitle = false;
+        for (int i = headerEnd; result != null && i < lines.length; i++) {
+            String line = strip(lines[i]);
+            boolean title = false;
+            if (ATTRIBUTE_ENTRY.matcher(line).matches() || isSetextUnderline(line, previousLine, delimiter)) {
+                // Attribute entries outside of the header apply to the following sections, and two-line section
+                // titles are too ambiguous to be worth supporting.
+                result = null;
+            } else if (delimiter != null) {
+                if (line.equals(delimiter)) {
+                    delimiter = null;
+                }
+            } else if (BLOCK_DELIMITER.matcher(line).matches()) {
+                delimiter = line;
+            } else if (SECTION_TITLE.matcher(line).matches() || MARKDOWN_SECTION_TITLE.matcher(line).matches()) {
+                int level = getLevel(line);
+                if (previousLine.isEmpty() || previousLineIsTitle) {
+                    title = true;
+                    if (level == 0 || line.charAt(0) != '=') {
+                        // Level 0 sections are parts of books, handled as document titles when parsed on their own.
+                        result = null;
+                    } else if (level < minLevel) {
+                        minLevel = level;
+                        result.clear();
+                        result.add(i);
+                    } else if (level == minLevel) {
+                        result.add(i);
+                    }
+                } else {
+                    // Either paragraph text or a section title preceded by block attributes, a block title, a block
+                    // delimiter, etc. Better safe than sorry.
+                    result = null;
+                }
+            }
+            previousLine = line;
+            previousLineIsTitle = title;
+        }
+        return result;
+    }
+
+    static boolean isSectionTitle(String line, int level)
+    {
+        Matcher matcher = SECTION_TITLE.matcher(line);
+        return matcher.matches() && matcher.group(1).length() - 1 == level;
+    }
+
+    static int getLevel(String line)
+    {
+        return StringUtils.indexOfAnyBut(line, "=#") - 1;
+    }
+
+    static boolean isSetextUnderline(String line, String previousLine, String delimiter)
+    {
+        return delimiter == null && !previousLine.isEmpty() && SETEXT_UNDERLINE.matcher(line).matches()
+            && Math.abs(line.length() - previousLine.length()) <= 1;
+    }
+
+    private static String strip(String line)
+    {
+        return StringUtils.stripEnd(line, null);
+    }
+
+    private static String join(String[] lines, int start, int end)
+    {
+        return StringUtils.join(lines, NEW_LINE, start, end);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * AsciiDoc content read from a {@link Reader}, kept in memory when it's small and written to a temporary file
+ * otherwise, while being scanned by a {@link BlockBoundaryScanner} to know whether it can be parsed chunk by chunk.
+ *
+ * @version $Id$
+ */
+public class SpooledSource implements Closeable
+{
+    private static final char NEW_LINE = '\n';
+
+    private final BlockBoundaryScanner scanner = new BlockBoundaryScanner();
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    private Path file;
+
+    private long length;
+
+    /**
+     * @param source the content to read
+     * @param threshold the number of characters above which the content is written to a temporary file
+     * @return the read content
+     * @throws IOException if the content fails to be read or written
+     */
+    public static SpooledSource spool(Reader source, long threshold) throws IOException
+    {
+        SpooledSource result = new SpooledSource();
+        try {
+            result.read(IOUtils.toBufferedReader(source), threshold);
+        } catch (IOException e) {
+            result.close();
+            throw e;
+        }
+        return result;
+    }
+
+    private void read(BufferedReader reader, long threshold) throws IOException
+    {
+        Writer writer = null;
+        try {
+            String line = reader.readLine();
+            while (line != null) {
+                this.scanner.accept(line);
+                this.length += line.length() + 1;
+                if (writer != null) {
+                    writer.append(line).append(NEW_LINE);
+                } else {
+                    this.buffer.append(line).append(NEW_LINE);
+                    if (this.buffer.length() > threshold) {
+                        this.file = Files.createTempFile("asciidoc", ".adoc");
+                        writer = Files.newBufferedWriter(this.file, StandardCharsets.UTF_8);
+                        writer.append(this.buffer);
+                        this.buffer.setLength(0);
+                        this.buffer.trimToSize();
+                    }
+                }
+                line = reader.readLine();
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * @return the number of characters of the content, with normalized line terminators
+     */
+    public long getLength()
+    {
+        return this.length;
+    }
+
+    /**
+     * @return true if the content was too large to be kept in memory and can be parsed chunk by chunk
+     */
+    public boolean isChunkable()
+    {
+        return this.file != null && this.scanner.isSafe();
+    }
+
+    /**
+     * @return true if the content has sections, see {@link BlockBoundaryScanner#hasSections()}
+     */
+    public boolean hasSections()
+    {
+        return this.scanner.hasSections();
+    }
+
+    /**
+     * @return the whole content
+     * @throws IOException if the temporary file fails to be read
+     */
+    public String getContent() throws IOException
+    {
+        String result;
+        if (this.file != null) {
+            result = new String(Files.readAllBytes(this.file), StandardCharsets.UTF_8);
+        } else {
+            result = this.buffer.toString();
+        }
+        return result;
+    }
+
+    /**
+     * @return a reader for the content
+     * @throws IOException if the temporary file fails to be opened
+     */
+    public BufferedReader openReader() throws IOException
+    {
+        BufferedReader result;
+        if (this.file != null) {
+            result = Files.newBufferedReader(this.file, StandardCharsets.UTF_8);
+        } else {
+            result = new BufferedReader(new StringReader(this.buffer.toString()));
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (this.file != null) {
+            Files.deleteIfExists(this.file);
+        }
+    }
+}
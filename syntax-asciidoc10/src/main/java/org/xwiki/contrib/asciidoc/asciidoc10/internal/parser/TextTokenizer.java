@@ -0,0 +1,91 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import org.xwiki.rendering.listener.Listener;
+
+/**
+ * Splits text into words, spaces and special symbols and sends the matching events to a listener, the same way the
+ * HTML parser does for the text found in the HTML generated by AsciiDoctorJ.
+ *
+ * @version $Id$
+ */
+public final class TextTokenizer
+{
+    private static final String SPECIAL_SYMBOLS = "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~";
+
+    private TextTokenizer()
+    {
+        // Utility class
+    }
+
+    /**
+     * @param c the character to check
+     * @return true if the character is sent as a {@link Listener#onSpecialSymbol(char)} event
+     */
+    public static boolean isSpecialSymbol(char c)
+    {
+        return SPECIAL_SYMBOLS.indexOf(c) != -1;
+    }
+
+    /**
+     * Send the events for a range of text. Consecutive whitespace characters are collapsed into a single
+     * {@link Listener#onSpace()} event, as HTML does.
+     *
+     * @param text the text containing the range to tokenize
+     * @param start the index of the first character to tokenize (inclusive)
+     * @param end the index of the last character to tokenize (exclusive)
+     * @param listener the listener to which to send the events
+     */
+    public static void tokenize(CharSequence text, int start, int end, Listener listener)
+    {
+        int wordStart = -1;
+        boolean afterSpace = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                flushWord(text, wordStart, i, listener);
+                wordStart = -1;
+                if (!afterSpace) {
+                    listener.onSpace();
+                    afterSpace = true;
+                }
+            } else if (isSpecialSymbol(c)) {
+                flushWord(text, wordStart, i, listener);
+                wordStart = -1;
+                listener.onSpecialSymbol(c);
+                afterSpace = false;
+            } else {
+                if (wordStart == -1) {
+                    wordStart = i;
+                }
+                afterSpace = false;
+            }
+        }
+        flushWord(text, wordStart, end, listener);
+    }
+
+    private static void flushWord(CharSequence text, int wordStart, int wordEnd, Listener listener)
+    {
+        if (wordStart != -1) {
+            listener.onWord(text.subSequence(wordStart, wordEnd).toString());
+        }
+    }
+}
@@ -0,0 +1,867 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.renderer;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.inject.Named;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.annotation.InstantiationStrategy;
+import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.parser.AsciiDocSyntaxProvider;
+import org.xwiki.rendering.listener.Format;
+import org.xwiki.rendering.listener.HeaderLevel;
+import org.xwiki.rendering.listener.ListType;
+import org.xwiki.rendering.listener.MetaData;
+import org.xwiki.rendering.listener.WrappingListener;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+import org.xwiki.rendering.renderer.PrintRenderer;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.syntax.SyntaxType;
+
+/**
+ * Renders the listener events as AsciiDoc, writing directly to the printer in a single pass: no intermediate XDOM is
+ * built and the state kept between events is limited to the nesting of the lists, quotations and tables, and to the
+ * last printed text (to escape the symbols that would form AsciiDoc markup with it). Only the content of the table
+ * cells is buffered, to know whether they must be AsciiDoc cells (i.e. when they hold a nested table). Events that
+ * have no AsciiDoc equivalent (macros, groups, etc) are ignored, but their content is rendered.
+ * <p>
+ * Some structures can't be represented exactly in AsciiDoc: level 5 and level 6 headings both use the deepest
+ * section level of AsciiDoc (so they are both parsed back as level 5), and only one level of nested tables is
+ * supported by AsciiDoc (tables nested deeper are rendered like the second level ones).
+ *
+ * @version $Id$
+ */
+@Component
+@Named("asciidoc/1.0")
+@InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
+public class AsciiDocRenderer extends WrappingListener implements PrintRenderer
+{
+    private static final String NEW_LINE = "\n";
+
+    private static final String BLANK_LINE = "\n\n";
+
+    private static final String SPACE = " ";
+
+    private static final String HARD_LINE_BREAK = " +\n";
+
+    private static final String LIST_CONTINUATION = "+\n";
+
+    /**
+     * Prevents the following line content from being interpreted as block syntax (list item, section title, etc).
+     */
+    private static final String EMPTY = "{empty}";
+
+    private static final String OPENING_BRACKET = "[";
+
+    private static final String CLOSING_BRACKET = "]";
+
+    private static final String ESCAPED_CLOSING_BRACKET = "\\]";
+
+    private static final char CELL_SEPARATOR = '|';
+
+    private static final char NESTED_CELL_SEPARATOR = '!';
+
+    private static final String HEAD_CELL_STYLE = "h";
+
+    private static final String ASCIIDOC_CELL_STYLE = "a";
+
+    private static final String FORMAT_END = "##";
+
+    private static final String VERBATIM_DELIMITER = "----";
+
+    private static final String PASSTHROUGH_DELIMITER = "++++";
+
+    private static final String PASSTHROUGH = "pass:[";
+
+    private static final String ESCAPED_PASSTHROUGH = "pass:c[";
+
+    private static final String LITERAL_PASSTHROUGH = "+";
+
+    private static final String MONOSPACE = "`";
+
+    private static final String TABLE_DELIMITER = "===";
+
+    private static final String QUOTATION_DELIMITER = "____";
+
+    private static final String SECTION_MARKER = "=";
+
+    /**
+     * AsciiDoc supports 6 section levels (from the document title to level 5), so XWiki level 6 headings are rendered
+     * as level 5 sections, like level 5 headings.
+     */
+    private static final int MAX_SECTION_MARKERS = 6;
+
+    private static final String BULLETED_LIST_MARKER = "*";
+
+    private static final String NUMBERED_LIST_MARKER = ".";
+
+    private static final String DEFINITION_MARKER = ":";
+
+    private static final char ESCAPED_SYMBOLS_END = 128;
+
+    private static final String HYPHEN = "-";
+
+    private static final String PERIOD = ".";
+
+    private static final String LESS_THAN = "{lt}";
+
+    /**
+     * Words that are turned into list markers when they start a line and are followed by a period.
+     */
+    private static final Pattern ORDERED_LIST_MARKER = Pattern.compile("\\d+|[a-zA-Z]");
+
+    /**
+     * Words that are turned into list markers when they start a line and are followed by a closing parenthesis.
+     */
+    private static final Pattern ROMAN_LIST_MARKER = Pattern.compile("[ivxIVX]+");
+
+    /**
+     * Words that are turned into admonition labels when they start a line and are followed by a colon.
+     */
+    private static final Set<String> ADMONITION_LABELS =
+        new HashSet<>(Arrays.asList("NOTE", "TIP", "IMPORTANT", "WARNING", "CAUTION"));
+
+    /**
+     * Words that are turned into typographic symbols when enclosed in parentheses, e.g. (C).
+     */
+    private static final Set<String> REPLACED_WORDS = new HashSet<>(Arrays.asList("C", "R", "TM"));
+
+    /**
+     * Words that are turned into links when followed by {@code ://}.
+     */
+    private static final Set<String> URL_SCHEMES = new HashSet<>(Arrays.asList("http", "https", "ftp", "irc", "file"));
+
+    /**
+     * The text printed for each ASCII symbol, escaped when the symbol could be interpreted as AsciiDoc markup.
+     */
+    private static final String[] SYMBOLS = new String[ESCAPED_SYMBOLS_END];
+
+    static {
+        for (char symbol = 0; symbol < ESCAPED_SYMBOLS_END; symbol++) {
+            SYMBOLS[symbol] = String.valueOf(symbol);
+        }
+        SYMBOLS['*'] = "{asterisk}";
+        SYMBOLS['`'] = "{backtick}";
+        SYMBOLS['^'] = "{caret}";
+        SYMBOLS['~'] = "{tilde}";
+        SYMBOLS['+'] = "{plus}";
+        SYMBOLS['\\'] = "{backslash}";
+        SYMBOLS['['] = "{startsb}";
+        SYMBOLS[']'] = "{endsb}";
+        SYMBOLS['|'] = "{vbar}";
+        SYMBOLS['<'] = "{lt}";
+        SYMBOLS['_'] = "pass:[_]";
+        SYMBOLS['#'] = "pass:[#]";
+        SYMBOLS['{'] = "pass:[{]";
+    }
+
+    private enum BlockKind
+    {
+        NONE,
+        BLOCK,
+        LIST
+    }
+
+    /**
+     * The state of a table being rendered.
+     */
+    private static final class TableState
+    {
+        private final char separator;
+
+        private int rowIndex;
+
+        private int cellIndex;
+
+        private boolean headerRow;
+
+        /**
+         * Whether the last cell ended with a block (e.g. a nested table) that must not be followed by the next cell on
+         * the same line.
+         */
+        private boolean afterBlockCell;
+
+        TableState(char separator)
+        {
+            this.separator = separator;
+        }
+    }
+
+    /**
+     * The state of a table cell being rendered, whose content is buffered until its end.
+     */
+    private static final class CellState
+    {
+        private final WikiPrinter parentPrinter;
+
+        private final String style;
+
+        private boolean asciidoc;
+
+        CellState(WikiPrinter parentPrinter, String style)
+        {
+            this.parentPrinter = parentPrinter;
+            this.style = style;
+        }
+    }
+
+    private WikiPrinter printer;
+
+    private final Deque<ListType> listTypes = new ArrayDeque<>();
+
+    private int documentDepth;
+
+    private BlockKind previousBlock = BlockKind.NONE;
+
+    private boolean lineStart = true;
+
+    private int listItemDepth;
+
+    private int definitionListDepth;
+
+    private boolean afterDefinitionTerm;
+
+    private int quotationDepth;
+
+    private final Deque<TableState> tables = new ArrayDeque<>();
+
+    private final Deque<CellState> cells = new ArrayDeque<>();
+
+    /**
+     * The last printed text, used to escape the symbols that would form AsciiDoc markup with it.
+     */
+    private String lastText = "";
+
+    /**
+     * The last printed word, when nothing has been printed after it.
+     */
+    private String lastWord;
+
+    private boolean lastWordAtLineStart;
+
+    /**
+     * The number of freestanding links being rendered, whose label must not be printed.
+     */
+    private int freestandingLinkDepth;
+
+    @Override
+    public WikiPrinter getPrinter()
+    {
+        return this.printer;
+    }
+
+    @Override
+    public void setPrinter(WikiPrinter printer)
+    {
+        this.printer = printer;
+    }
+
+    @Override
+    public void beginDocument(MetaData metadata)
+    {
+        // Nested documents (e.g. the result of an include macro) are rendered inline.
+        if (this.documentDepth++ == 0) {
+            this.previousBlock = BlockKind.NONE;
+            this.lineStart = true;
+        }
+    }
+
+    @Override
+    public void endDocument(MetaData metadata)
+    {
+        this.documentDepth--;
+    }
+
+    @Override
+    public void beginParagraph(Map<String, String> parameters)
+    {
+        beginBlock(false);
+    }
+
+    @Override
+    public void beginHeader(HeaderLevel level, String id, Map<String, String> parameters)
+    {
+        beginBlock(false);
+        // Lossy for level 6, see MAX_SECTION_MARKERS.
+        for (int i = 0; i <= level.getAsInt() && i < MAX_SECTION_MARKERS; i++) {
+            print(SECTION_MARKER);
+        }
+        print(SPACE);
+    }
+
+    @Override
+    public void beginList(ListType type, Map<String, String> parameters)
+    {
+        beginBlock(true);
+        this.listTypes.push(type);
+    }
+
+    @Override
+    public void endList(ListType type, Map<String, String> parameters)
+    {
+        this.listTypes.pop();
+    }
+
+    @Override
+    public void beginListItem()
+    {
+        newLine();
+        String marker = this.listTypes.peek() == ListType.NUMBERED ? NUMBERED_LIST_MARKER : BULLETED_LIST_MARKER;
+        for (int i = 0; i < this.listTypes.size(); i++) {
+            print(marker);
+        }
+        print(SPACE);
+        this.listItemDepth++;
+    }
+
+    @Override
+    public void endListItem()
+    {
+        this.listItemDepth--;
+    }
+
+    @Override
+    public void beginDefinitionList(Map<String, String> parameters)
+    {
+        beginBlock(true);
+        this.definitionListDepth++;
+    }
+
+    @Override
+    public void endDefinitionList(Map<String, String> parameters)
+    {
+        this.definitionListDepth--;
+    }
+
+    @Override
+    public void beginDefinitionTerm()
+    {
+        newLine();
+    }
+
+    @Override
+    public void endDefinitionTerm()
+    {
+        printDefinitionMarker();
+        this.afterDefinitionTerm = true;
+    }
+
+    @Override
+    public void beginDefinitionDescription()
+    {
+        if (!this.afterDefinitionTerm) {
+            newLine();
+            print(EMPTY);
+            printDefinitionMarker();
+        }
+        print(SPACE);
+        this.afterDefinitionTerm = false;
+        this.listItemDepth++;
+    }
+
+    @Override
+    public void endDefinitionDescription()
+    {
+        this.listItemDepth--;
+    }
+
+    @Override
+    public void beginQuotation(Map<String, String> parameters)
+    {
+        beginBlock(false);
+        this.quotationDepth++;
+        printQuotationDelimiter();
+        print(NEW_LINE);
+    }
+
+    @Override
+    public void endQuotation(Map<String, String> parameters)
+    {
+        newLine();
+        printQuotationDelimiter();
+        this.quotationDepth--;
+    }
+
+    @Override
+    public void beginQuotationLine()
+    {
+        if (!this.lineStart) {
+            print(HARD_LINE_BREAK);
+        }
+    }
+
+    @Override
+    public void beginTable(Map<String, String> parameters)
+    {
+        if (!this.cells.isEmpty()) {
+            // Nested tables are only supported in AsciiDoc cells.
+            this.cells.peek().asciidoc = true;
+        }
+        beginBlock(false);
+        // The cells of nested tables use another separator so that they're not mixed with the cells of the outer
+        // table.
+        TableState table = new TableState(this.tables.isEmpty() ? CELL_SEPARATOR : NESTED_CELL_SEPARATOR);
+        this.tables.push(table);
+        print(table.separator + TABLE_DELIMITER);
+    }
+
+    @Override
+    public void endTable(Map<String, String> parameters)
+    {
+        print(NEW_LINE);
+        print(this.tables.pop().separator + TABLE_DELIMITER);
+    }
+
+    @Override
+    public void beginTableRow(Map<String, String> parameters)
+    {
+        print(NEW_LINE);
+        this.tables.peek().cellIndex = 0;
+        this.tables.peek().afterBlockCell = false;
+    }
+
+    @Override
+    public void endTableRow(Map<String, String> parameters)
+    {
+        // A blank line after the first row makes it the header row.
+        TableState table = this.tables.peek();
+        if (table.rowIndex++ == 0 && table.headerRow) {
+            print(NEW_LINE);
+        }
+    }
+
+    @Override
+    public void beginTableCell(Map<String, String> parameters)
+    {
+        beginCell("");
+    }
+
+    @Override
+    public void endTableCell(Map<String, String> parameters)
+    {
+        endCell();
+    }
+
+    @Override
+    public void beginTableHeadCell(Map<String, String> parameters)
+    {
+        TableState table = this.tables.peek();
+        if (table.rowIndex == 0) {
+            table.headerRow = true;
+            beginCell("");
+        } else {
+            beginCell(HEAD_CELL_STYLE);
+        }
+    }
+
+    @Override
+    public void endTableHeadCell(Map<String, String> parameters)
+    {
+        endCell();
+    }
+
+    @Override
+    public void beginFormat(Format format, Map<String, String> parameters)
+    {
+        switch (format) {
+            case BOLD:
+                print("**");
+                break;
+            case ITALIC:
+                print("__");
+                break;
+            case MONOSPACE:
+                print("``");
+                break;
+            case SUPERSCRIPT:
+                print("^");
+                break;
+            case SUBSCRIPT:
+                print("~");
+                break;
+            case UNDERLINED:
+                print("[.underline]##");
+                break;
+            case STRIKEDOUT:
+                print("[.line-through]##");
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void endFormat(Format format, Map<String, String> parameters)
+    {
+        switch (format) {
+            case UNDERLINED:
+            case STRIKEDOUT:
+                print(FORMAT_END);
+                break;
+            default:
+                beginFormat(format, parameters);
+        }
+    }
+
+    @Override
+    public void beginLink(ResourceReference reference, boolean freestanding, Map<String, String> parameters)
+    {
+        ResourceType type = reference.getType();
+        if (freestanding && ResourceType.URL.equals(type)) {
+            print(reference.getReference());
+            this.freestandingLinkDepth++;
+        } else {
+            if (ResourceType.MAILTO.equals(type)) {
+                print("mailto:");
+            } else if (!ResourceType.URL.equals(type)) {
+                print("link:");
+            }
+            printTarget(reference.getReference());
+            print(OPENING_BRACKET);
+        }
+    }
+
+    @Override
+    public void endLink(ResourceReference reference, boolean freestanding, Map<String, String> parameters)
+    {
+        if (freestanding && ResourceType.URL.equals(reference.getType())) {
+            this.freestandingLinkDepth--;
+        } else {
+            print(CLOSING_BRACKET);
+        }
+    }
+
+    @Override
+    public void onImage(ResourceReference reference, boolean freestanding, Map<String, String> parameters)
+    {
+        print("image:");
+        printTarget(reference.getReference());
+        print(OPENING_BRACKET);
+        String alt = parameters.get("alt");
+        if (alt != null) {
+            print(alt);
+        }
+        print(CLOSING_BRACKET);
+    }
+
+    @Override
+    public void onId(String name)
+    {
+        print("[[");
+        print(name);
+        print("]]");
+    }
+
+    @Override
+    public void onWord(String word)
+    {
+        boolean atLineStart = this.lineStart;
+        if (REPLACED_WORDS.contains(word) && this.lastText.endsWith("(")) {
+            printPassthrough(PASSTHROUGH, word);
+        } else {
+            print(word);
+        }
+        this.lastWord = word;
+        this.lastWordAtLineStart = atLineStart;
+    }
+
+    @Override
+    public void onSpace()
+    {
+        // Leading spaces would turn the line into a literal paragraph.
+        if (!this.lineStart) {
+            print(SPACE);
+        }
+    }
+
+    @Override
+    public void onSpecialSymbol(char symbol)
+    {
+        boolean passthrough = isTypographicReplacement(symbol) || isAutolink(symbol);
+        if (this.lineStart || isBlockMarker(symbol)) {
+            print(EMPTY);
+        }
+        if (passthrough) {
+            // The content of the passthrough is not escaped otherwise.
+            printPassthrough(symbol == '>' ? ESCAPED_PASSTHROUGH : PASSTHROUGH, String.valueOf(symbol));
+        } else {
+            print(symbol < ESCAPED_SYMBOLS_END ? SYMBOLS[symbol] : String.valueOf(symbol));
+        }
+    }
+
+    /**
+     * @return true if the symbol would turn the current line into a block (list item, admonition paragraph or
+     *         description list term), which can be prevented by separating the symbol from the previous text
+     */
+    private boolean isBlockMarker(char symbol)
+    {
+        String lineStartWord = this.lastWordAtLineStart ? this.lastWord : null;
+        boolean result;
+        if (symbol == ':' || symbol == ';') {
+            result = this.lastText.endsWith(String.valueOf(symbol))
+                || (symbol == ':' && ADMONITION_LABELS.contains(lineStartWord));
+        } else if (lineStartWord != null && symbol == '.') {
+            result = ORDERED_LIST_MARKER.matcher(lineStartWord).matches();
+        } else if (lineStartWord != null && symbol == ')') {
+            result = ROMAN_LIST_MARKER.matcher(lineStartWord).matches();
+        } else {
+            result = false;
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the symbol would be replaced by a typographic symbol (dash, ellipsis, arrow, curved apostrophe)
+     *         along with the previous text, which can only be prevented by a passthrough since the replacements are
+     *         applied after the attribute references
+     */
+    private boolean isTypographicReplacement(char symbol)
+    {
+        boolean result;
+        switch (symbol) {
+            case '-':
+                result = this.lastText.endsWith(HYPHEN) || this.lastText.endsWith(LESS_THAN);
+                break;
+            case '.':
+                result = this.lastText.endsWith(PERIOD);
+                break;
+            case '>':
+                result = this.lastText.endsWith(HYPHEN) || this.lastText.endsWith(SECTION_MARKER);
+                break;
+            case '=':
+                result = this.lastText.endsWith(LESS_THAN);
+                break;
+            case '\'':
+                result = this.lastWord != null;
+                break;
+            default:
+                result = false;
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the symbol would turn the previous word into a link (URL or email address)
+     */
+    private boolean isAutolink(char symbol)
+    {
+        boolean result = false;
+        if (this.lastWord != null) {
+            if (symbol == '@') {
+                result = true;
+            } else if (symbol == ':') {
+                result = URL_SCHEMES.contains(this.lastWord.toLowerCase(Locale.ROOT));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void onNewLine()
+    {
+        print(HARD_LINE_BREAK);
+    }
+
+    @Override
+    public void onHorizontalLine(Map<String, String> parameters)
+    {
+        beginBlock(false);
+        print("'''");
+    }
+
+    @Override
+    public void onVerbatim(String content, boolean inline, Map<String, String> parameters)
+    {
+        if (inline) {
+            print(MONOSPACE);
+            if (content.contains(LITERAL_PASSTHROUGH)) {
+                print(ESCAPED_PASSTHROUGH);
+                print(content.replace(CLOSING_BRACKET, ESCAPED_CLOSING_BRACKET));
+                print(CLOSING_BRACKET);
+            } else {
+                print(LITERAL_PASSTHROUGH);
+                print(content);
+                print(LITERAL_PASSTHROUGH);
+            }
+            print(MONOSPACE);
+        } else {
+            beginBlock(false);
+            printDelimitedBlock(VERBATIM_DELIMITER, content);
+        }
+    }
+
+    @Override
+    public void onRawText(String text, Syntax syntax)
+    {
+        SyntaxType type = syntax.getType();
+        if (AsciiDocSyntaxProvider.ASCIIDOC.equals(type)) {
+            print(text);
+        } else if (SyntaxType.HTML.equals(type) || SyntaxType.XHTML.equals(type)) {
+            if (this.lineStart && this.listItemDepth == 0 && this.cells.isEmpty()) {
+                beginBlock(false);
+                printDelimitedBlock(PASSTHROUGH_DELIMITER, text);
+            } else {
+                print(PASSTHROUGH);
+                print(text.replace(CLOSING_BRACKET, ESCAPED_CLOSING_BRACKET));
+                print(CLOSING_BRACKET);
+            }
+        }
+    }
+
+    /**
+     * Separates the block that starts from the previous one.
+     *
+     * @param list true if the block is a list
+     */
+    private void beginBlock(boolean list)
+    {
+        if (!this.cells.isEmpty()) {
+            if (this.cells.peek().asciidoc) {
+                // The content of AsciiDoc cells is a nested document.
+                print(this.lineStart ? NEW_LINE : BLANK_LINE);
+            } else {
+                onSpace();
+            }
+        } else if (this.quotationDepth > 0) {
+            if (!this.lineStart) {
+                print(BLANK_LINE);
+            }
+        } else if (this.listItemDepth > 0) {
+            // Nested lists are attached to the list item by their markers, other blocks need a list continuation.
+            if (!list) {
+                newLine();
+                print(LIST_CONTINUATION);
+            }
+        } else {
+            if (this.previousBlock == BlockKind.LIST && list) {
+                // Consecutive lists would be merged otherwise.
+                print("\n\n//-");
+            }
+            if (this.previousBlock != BlockKind.NONE) {
+                print(BLANK_LINE);
+            }
+            this.previousBlock = list ? BlockKind.LIST : BlockKind.BLOCK;
+        }
+    }
+
+    private void beginCell(String style)
+    {
+        TableState table = this.tables.peek();
+        if (table.cellIndex++ > 0) {
+            print(table.afterBlockCell ? NEW_LINE : SPACE);
+        }
+        this.cells.push(new CellState(this.printer, style));
+        this.printer = new DefaultWikiPrinter();
+        // The content is printed after the cell marker, which is printed at the end of the cell.
+        this.lineStart = true;
+        this.lastText = String.valueOf(table.separator);
+        this.lastWord = null;
+    }
+
+    private void endCell()
+    {
+        CellState cell = this.cells.pop();
+        String content = this.printer.toString();
+        this.printer = cell.parentPrinter;
+        TableState table = this.tables.peek();
+        String marker = (cell.asciidoc ? ASCIIDOC_CELL_STYLE : cell.style) + table.separator;
+        print(content.startsWith(NEW_LINE) ? marker : marker + SPACE);
+        print(content);
+        table.afterBlockCell = cell.asciidoc;
+    }
+
+    private void printDefinitionMarker()
+    {
+        print(DEFINITION_MARKER);
+        for (int i = 0; i < this.definitionListDepth; i++) {
+            print(DEFINITION_MARKER);
+        }
+    }
+
+    private void printQuotationDelimiter()
+    {
+        print(QUOTATION_DELIMITER);
+        // Nested quotations need longer delimiters.
+        for (int i = 1; i < this.quotationDepth; i++) {
+            print("_");
+        }
+    }
+
+    private void printDelimitedBlock(String delimiter, String content)
+    {
+        String actualDelimiter = delimiter;
+        while (content.contains(actualDelimiter)) {
+            actualDelimiter += delimiter.charAt(0);
+        }
+        print(actualDelimiter);
+        print(NEW_LINE);
+        print(content);
+        print(NEW_LINE);
+        print(actualDelimiter);
+    }
+
+    private void printPassthrough(String passthrough, String text)
+    {
+        print(passthrough);
+        print(text);
+        print(CLOSING_BRACKET);
+    }
+
+    private void printTarget(String target)
+    {
+        if (target.indexOf(' ') >= 0) {
+            // The link macro target can't contain spaces, unless it's enclosed in a passthrough.
+            print("++");
+            print(target);
+            print("++");
+        } else {
+            print(target);
+        }
+    }
+
+    private void newLine()
+    {
+        if (!this.lineStart) {
+            print(NEW_LINE);
+        }
+    }
+
+    private void print(String text)
+    {
+        if (this.freestandingLinkDepth == 0 && !text.isEmpty()) {
+            this.printer.print(text);
+            this.lineStart = text.charAt(text.length() - 1) == '\n';
+            this.lastText = text;
+            this.lastWord = null;
+        }
+    }
+}
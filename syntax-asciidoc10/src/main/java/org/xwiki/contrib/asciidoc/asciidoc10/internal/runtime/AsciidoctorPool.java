@@ -0,0 +1,73 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.runtime;
+
+import org.asciidoctor.Asciidoctor;
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * A bounded pool of AsciiDoctor runtimes, so that AsciiDoc content can be parsed concurrently. A runtime is borrowed
+ * for the duration of a single parse (i.e. loading the content and walking the resulting AST, since AST nodes are
+ * bound to the runtime that created them) and must be released afterwards.
+ *
+ * @version $Id$
+ */
+@Role
+public interface AsciidoctorPool
+{
+    /**
+     * Borrow a runtime, waiting for one to be released if the pool has reached its maximum size.
+     *
+     * @return the borrowed runtime
+     * @throws ParseException if no runtime could be obtained in time
+     */
+    Asciidoctor borrow() throws ParseException;
+
+    /**
+     * @param asciidoctor the runtime to give back to the pool
+     */
+    void release(Asciidoctor asciidoctor);
+
+    /**
+     * @return the number of runtimes currently created (idle and borrowed)
+     */
+    int getSize();
+
+    /**
+     * @return the number of runtimes currently waiting to be borrowed
+     */
+    int getIdleCount();
+
+    /**
+     * @return the total number of times a runtime was borrowed
+     */
+    long getBorrowCount();
+
+    /**
+     * @return the total time, in milliseconds, spent waiting for a runtime (including the creation of new runtimes)
+     */
+    long getTotalWaitTime();
+
+    /**
+     * @return the maximum time, in milliseconds, spent waiting for a runtime (including the creation of new runtimes)
+     */
+    long getMaxWaitTime();
+}
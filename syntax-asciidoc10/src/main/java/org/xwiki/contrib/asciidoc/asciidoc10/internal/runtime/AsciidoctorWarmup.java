@@ -0,0 +1,145 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.apache.commons.io.IOUtils;
+import org.asciidoctor.Asciidoctor;
+import org.asciidoctor.Options;
+import org.asciidoctor.ast.Document;
+import org.slf4j.Logger;
+
+/**
+ * Runs a bundled corpus of AsciiDoc samples through a freshly created runtime until the parsing time stabilizes, so
+ * that the JRuby code paths used when parsing have been compiled before the runtime is used for real contents.
+ *
+ * @version $Id$
+ */
+public class AsciidoctorWarmup
+{
+    /**
+     * The samples bundled with this module, covering the syntax handled by the parser.
+     */
+    private static final List<String> CORPUS =
+        Arrays.asList("warmup/sections.adoc", "warmup/lists.adoc", "warmup/blocks.adoc");
+
+    /**
+     * The number of consecutive iterations that are compared to decide if the parsing time is stable.
+     */
+    private static final int WINDOW_SIZE = 5;
+
+    /**
+     * The maximum relative difference between the fastest and the slowest iteration of the window for the parsing time
+     * to be considered stable.
+     */
+    private static final double STABILITY_THRESHOLD = 0.1;
+
+    private final int maxIterations;
+
+    private final long maxDuration;
+
+    private final Logger logger;
+
+    /**
+     * @param maxIterations the maximum number of times the corpus is parsed
+     * @param maxDuration the maximum time, in milliseconds, spent warming up the runtime
+     * @param logger the logger used to report the warm-up progress
+     */
+    public AsciidoctorWarmup(int maxIterations, long maxDuration, Logger logger)
+    {
+        this.maxIterations = maxIterations;
+        this.maxDuration = TimeUnit.MILLISECONDS.toNanos(maxDuration);
+        this.logger = logger;
+    }
+
+    /**
+     * Parse the corpus repeatedly with the given runtime.
+     *
+     * @param asciidoctor the runtime to warm up
+     * @param stopRequested checked between iterations, to stop warming up as soon as the runtime is needed
+     * @return the number of iterations that have been executed
+     * @throws IOException if the corpus can't be read
+     */
+    public int warmUp(Asciidoctor asciidoctor, BooleanSupplier stopRequested) throws IOException
+    {
+        List<String> samples = readCorpus();
+        Options options = Options.builder().build();
+        LinkedList<Long> window = new LinkedList<>();
+        long start = System.nanoTime();
+        int iteration = 0;
+        while (iteration < this.maxIterations && System.nanoTime() - start < this.maxDuration && !isStable(window)
+            && !stopRequested.getAsBoolean())
+        {
+            long iterationStart = System.nanoTime();
+            for (String sample : samples) {
+                // Converting the blocks exercises the same code paths as the parser, which asks for the HTML of the
+                // inline content.
+                Document document = asciidoctor.load(sample, options);
+                document.getContent();
+            }
+            window.addLast(System.nanoTime() - iterationStart);
+            if (window.size() > WINDOW_SIZE) {
+                window.removeFirst();
+            }
+            iteration++;
+        }
+        this.logger.debug("Warmed up an AsciiDoctor runtime in [{}] ms and [{}] iterations",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), iteration);
+        return iteration;
+    }
+
+    private boolean isStable(List<Long> window)
+    {
+        boolean result = false;
+        if (window.size() == WINDOW_SIZE) {
+            long min = Long.MAX_VALUE;
+            long max = 0;
+            for (long time : window) {
+                min = Math.min(min, time);
+                max = Math.max(max, time);
+            }
+            result = max - min <= min * STABILITY_THRESHOLD;
+        }
+        return result;
+    }
+
+    private List<String> readCorpus() throws IOException
+    {
+        List<String> samples = new ArrayList<>(CORPUS.size());
+        for (String name : CORPUS) {
+            try (InputStream stream = getClass().getClassLoader().getResourceAsStream(name)) {
+                if (stream == null) {
+                    throw new IOException(String.format("Missing warm-up sample [%s]", name));
+                }
+                samples.add(IOUtils.toString(stream, StandardCharsets.UTF_8));
+            }
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.runtime;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.asciidoctor.Asciidoctor;
+import org.asciidoctor.jruby.internal.JRubyAsciidoctor;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.include.AsciiDocIncludeResolver;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.include.IncludeCache;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.include.ResolvingIncludeProcessor;
+
+/**
+ * Creates JRuby based AsciiDoctor runtimes, tuned according to the configuration. JRuby reads its options from the
+ * system properties when the first Ruby runtime is created, so they are set when this component is initialized, i.e.
+ * before the pool asks for the first AsciiDoctor runtime. The system properties that are already set (e.g. on the
+ * command line) are left untouched. When an include resolver is configured, an include processor using it is registered
+ * on each created runtime.
+ *
+ * @version $Id$
+ */
+@Component
+@Singleton
+public class DefaultAsciidoctorFactory implements AsciidoctorFactory, Initializable
+{
+    @Inject
+    private AsciiDocConfiguration configuration;
+
+    @Inject
+    private IncludeCache includeCache;
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    private Logger logger;
+
+    @Override
+    public void initialize()
+    {
+        Map<String, Object> jrubyOptions = new LinkedHashMap<>();
+        jrubyOptions.put("jruby.compile.mode", this.configuration.getJRubyCompileMode());
+        jrubyOptions.put("jruby.compile.invokedynamic", this.configuration.getJRubyInvokeDynamic());
+        jrubyOptions.put("jruby.jit.threshold", this.configuration.getJRubyJITThreshold());
+        for (Map.Entry<String, Object> option : jrubyOptions.entrySet()) {
+            if (option.getValue() != null) {
+                setSystemProperty(option.getKey(), String.valueOf(option.getValue()));
+            }
+        }
+
+        // AsciiDoctorJ can create a runtime either with a load path or with a gem path, not with both.
+        String gemPath = this.configuration.getRuntimeGemPath();
+        if (StringUtils.isNotEmpty(gemPath) && !this.configuration.getRuntimeLoadPath().isEmpty()) {
+            this.logger.warn("Ignoring the configured AsciiDoctor gem path [{}] since a load path is also configured.",
+                gemPath);
+        }
+    }
+
+    private void setSystemProperty(String name, String value)
+    {
+        String currentValue = System.getProperty(name);
+        if (currentValue == null) {
+            System.setProperty(name, value);
+        } else if (!currentValue.equals(value)) {
+            this.logger.warn("Ignoring the configured value [{}] of the JRuby option [{}] since the system property is "
+                + "already set to [{}].", value, name, currentValue);
+        }
+    }
+
+    @Override
+    public Asciidoctor create()
+    {
+        List<String> loadPath = this.configuration.getRuntimeLoadPath();
+        String gemPath = this.configuration.getRuntimeGemPath();
+        Asciidoctor asciidoctor;
+        if (!loadPath.isEmpty()) {
+            asciidoctor = JRubyAsciidoctor.create(loadPath);
+        } else if (StringUtils.isNotEmpty(gemPath)) {
+            asciidoctor = JRubyAsciidoctor.create(gemPath);
+        } else {
+            asciidoctor = JRubyAsciidoctor.create();
+        }
+
+        List<String> requiredLibraries = this.configuration.getRuntimeRequiredLibraries();
+        if (!requiredLibraries.isEmpty()) {
+            asciidoctor.requireLibraries(requiredLibraries);
+        }
+
+        AsciiDocIncludeResolver includeResolver = getIncludeResolver();
+        if (includeResolver != null) {
+            asciidoctor.javaExtensionRegistry()
+                .includeProcessor(new ResolvingIncludeProcessor(includeResolver, this.includeCache, this.logger));
+        }
+        return asciidoctor;
+    }
+
+    private AsciiDocIncludeResolver getIncludeResolver()
+    {
+        AsciiDocIncludeResolver result = null;
+        String hint = this.configuration.getIncludeResolver();
+        if (hint != null) {
+            try {
+                result = this.componentManagerProvider.get().getInstance(AsciiDocIncludeResolver.class, hint);
+            } catch (ComponentLookupException e) {
+                this.logger.warn("Failed to find the AsciiDoc include resolver [{}], letting AsciiDoctor handle the "
+                    + "include directives. Root cause: [{}]", hint, ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+        return result;
+    }
+}
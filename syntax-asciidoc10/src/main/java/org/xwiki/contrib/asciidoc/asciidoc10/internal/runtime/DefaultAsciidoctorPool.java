@@ -0,0 +1,376 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.runtime;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.asciidoctor.Asciidoctor;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Pool creating runtimes lazily, up to the configured maximum size, and shutting down the runtimes that stayed idle
+ * for too long, down to the configured minimum size. The idle runtimes are evicted when runtimes are borrowed or
+ * released, and periodically in the background so that the runtimes created for a burst of parsings are shut down
+ * even when no parsing follows. When the warm-up is enabled, the first runtime is created and
+ * warmed up in the background as soon as the pool is initialized, and the callers arriving in the meantime wait for it
+ * instead of creating another runtime.
+ *
+ * @version $Id$
+ */
+@Component
+@Singleton
+public class DefaultAsciidoctorPool implements AsciidoctorPool, Initializable, Disposable
+{
+    /**
+     * The minimum delay between two background evictions of the idle runtimes.
+     */
+    private static final long MIN_EVICTION_PERIOD = TimeUnit.SECONDS.toNanos(1);
+
+    @Inject
+    private AsciidoctorFactory asciidoctorFactory;
+
+    @Inject
+    private AsciiDocConfiguration configuration;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * The idle runtimes, the most recently released first so that the least used runtimes are the ones evicted.
+     */
+    private final Deque<IdleRuntime> idleRuntimes = new ArrayDeque<>();
+
+    private final AtomicLong borrowCount = new AtomicLong();
+
+    private final AtomicLong totalWaitTime = new AtomicLong();
+
+    private final LongAccumulator maxWaitTime = new LongAccumulator(Long::max, 0);
+
+    /**
+     * The number of callers waiting for the warm-up to finish, which ends the warm-up early to serve them.
+     */
+    private final AtomicInteger warmupWaiters = new AtomicInteger();
+
+    private CompletableFuture<Void> warmup = CompletableFuture.completedFuture(null);
+
+    private ScheduledExecutorService evictor;
+
+    private Semaphore permits;
+
+    private int minSize;
+
+    private long idleTimeout;
+
+    private long borrowTimeout;
+
+    /**
+     * The number of created runtimes, guarded by {@link #idleRuntimes}.
+     */
+    private int size;
+
+    private volatile boolean disposed;
+
+    private static final class IdleRuntime
+    {
+        private final Asciidoctor asciidoctor;
+
+        private final long releaseTime;
+
+        IdleRuntime(Asciidoctor asciidoctor, long releaseTime)
+        {
+            this.asciidoctor = asciidoctor;
+            this.releaseTime = releaseTime;
+        }
+    }
+
+    @Override
+    public void initialize()
+    {
+        int maxSize = Math.max(1, this.configuration.getRuntimePoolMaxSize());
+        this.minSize = Math.min(Math.max(0, this.configuration.getRuntimePoolMinSize()), maxSize);
+        this.idleTimeout = TimeUnit.MILLISECONDS.toNanos(this.configuration.getRuntimePoolIdleTimeout());
+        this.borrowTimeout = this.configuration.getRuntimePoolBorrowTimeout();
+        this.permits = new Semaphore(maxSize, true);
+        startEvictor();
+
+        if (this.configuration.isRuntimeWarmupEnabled()) {
+            this.warmup = new CompletableFuture<>();
+            Thread thread = new Thread(this::warmUp, "AsciiDoctor runtime warm-up");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void startEvictor()
+    {
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AsciiDoctor runtime evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(this.idleTimeout / 2, MIN_EVICTION_PERIOD);
+        this.evictor.scheduleWithFixedDelay(this::evict, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    private void evict()
+    {
+        try {
+            List<Asciidoctor> evicted;
+            synchronized (this.idleRuntimes) {
+                evicted = evictIdleRuntimes();
+            }
+            shutdown(evicted);
+        } catch (Exception e) {
+            // Don't cancel the next evictions.
+            this.logger.warn("Failed to shut down the idle AsciiDoctor runtimes. Root cause: [{}]",
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private void warmUp()
+    {
+        try {
+            Asciidoctor asciidoctor = createRuntime();
+            try {
+                new AsciidoctorWarmup(this.configuration.getRuntimeWarmupMaxIterations(),
+                    this.configuration.getRuntimeWarmupMaxDuration(), this.logger).warmUp(asciidoctor,
+                        () -> this.disposed || this.warmupWaiters.get() > 0);
+            } catch (Exception e) {
+                this.logger.warn("Failed to warm up the AsciiDoctor runtime. Root cause: [{}]",
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+            List<Asciidoctor> evicted;
+            synchronized (this.idleRuntimes) {
+                this.idleRuntimes.push(new IdleRuntime(asciidoctor, System.nanoTime()));
+                evicted = evictIdleRuntimes();
+            }
+            shutdown(evicted);
+        } catch (Exception e) {
+            // The runtimes will be created on demand.
+            this.logger.warn("Failed to create the AsciiDoctor runtime in the background. Root cause: [{}]",
+                ExceptionUtils.getRootCauseMessage(e));
+        } finally {
+            this.warmup.complete(null);
+        }
+    }
+
+    @Override
+    public Asciidoctor borrow() throws ParseException
+    {
+        long start = System.nanoTime();
+        awaitWarmup();
+        acquirePermit();
+        Asciidoctor asciidoctor = null;
+        try {
+            asciidoctor = pollIdleRuntime();
+            if (asciidoctor == null) {
+                asciidoctor = createRuntime();
+            }
+        } finally {
+            if (asciidoctor == null) {
+                this.permits.release();
+            }
+        }
+
+        long waitTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        this.borrowCount.incrementAndGet();
+        this.totalWaitTime.addAndGet(waitTime);
+        this.maxWaitTime.accumulate(waitTime);
+        this.logger.debug("Waited [{}] ms for an AsciiDoctor runtime", waitTime);
+
+        return asciidoctor;
+    }
+
+    @Override
+    public void release(Asciidoctor asciidoctor)
+    {
+        List<Asciidoctor> evicted;
+        synchronized (this.idleRuntimes) {
+            this.idleRuntimes.push(new IdleRuntime(asciidoctor, System.nanoTime()));
+            evicted = evictIdleRuntimes();
+        }
+        this.permits.release();
+        shutdown(evicted);
+    }
+
+    private void acquirePermit() throws ParseException
+    {
+        try {
+            if (!this.permits.tryAcquire(this.borrowTimeout, TimeUnit.MILLISECONDS)) {
+                throw new ParseException(String.format("Timed out after [%s] ms while waiting for an AsciiDoctor "
+                    + "runtime to be available", this.borrowTimeout));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParseException("Interrupted while waiting for an AsciiDoctor runtime to be available", e);
+        }
+    }
+
+    private void awaitWarmup() throws ParseException
+    {
+        if (!this.warmup.isDone()) {
+            this.warmupWaiters.incrementAndGet();
+            try {
+                this.warmup.get(this.borrowTimeout, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new ParseException(String.format("Timed out after [%s] ms while waiting for the AsciiDoctor "
+                    + "runtime to be warmed up", this.borrowTimeout), e);
+            } catch (ExecutionException e) {
+                // Never happens since the warm-up future is always completed normally.
+                throw new ParseException("Failed to warm up the AsciiDoctor runtime", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ParseException("Interrupted while waiting for the AsciiDoctor runtime to be warmed up", e);
+            } finally {
+                this.warmupWaiters.decrementAndGet();
+            }
+        }
+    }
+
+    private Asciidoctor pollIdleRuntime()
+    {
+        List<Asciidoctor> evicted;
+        IdleRuntime idleRuntime;
+        synchronized (this.idleRuntimes) {
+            idleRuntime = this.idleRuntimes.poll();
+            evicted = evictIdleRuntimes();
+        }
+        shutdown(evicted);
+        return idleRuntime != null ? idleRuntime.asciidoctor : null;
+    }
+
+    private Asciidoctor createRuntime()
+    {
+        synchronized (this.idleRuntimes) {
+            this.size++;
+        }
+        Asciidoctor asciidoctor = null;
+        try {
+            asciidoctor = this.asciidoctorFactory.create();
+            this.logger.debug("Created a new AsciiDoctor runtime");
+        } finally {
+            if (asciidoctor == null) {
+                synchronized (this.idleRuntimes) {
+                    this.size--;
+                }
+            }
+        }
+        return asciidoctor;
+    }
+
+    /**
+     * Must be called while holding the lock on {@link #idleRuntimes}.
+     *
+     * @return the runtimes that have been removed from the pool and need to be shut down
+     */
+    private List<Asciidoctor> evictIdleRuntimes()
+    {
+        List<Asciidoctor> evicted = new ArrayList<>();
+        long now = System.nanoTime();
+        while (!this.idleRuntimes.isEmpty() && (this.disposed || isExpired(this.idleRuntimes.peekLast(), now))) {
+            evicted.add(this.idleRuntimes.pollLast().asciidoctor);
+            this.size--;
+        }
+        return evicted;
+    }
+
+    private boolean isExpired(IdleRuntime idleRuntime, long now)
+    {
+        return this.size > this.minSize && now - idleRuntime.releaseTime >= this.idleTimeout;
+    }
+
+    private void shutdown(List<Asciidoctor> runtimes)
+    {
+        for (Asciidoctor asciidoctor : runtimes) {
+            asciidoctor.shutdown();
+            this.logger.debug("Shut down an idle AsciiDoctor runtime");
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        if (this.evictor != null) {
+            this.evictor.shutdownNow();
+        }
+        List<Asciidoctor> evicted;
+        synchronized (this.idleRuntimes) {
+            this.disposed = true;
+            evicted = evictIdleRuntimes();
+        }
+        shutdown(evicted);
+    }
+
+    @Override
+    public int getSize()
+    {
+        synchronized (this.idleRuntimes) {
+            return this.size;
+        }
+    }
+
+    @Override
+    public int getIdleCount()
+    {
+        synchronized (this.idleRuntimes) {
+            return this.idleRuntimes.size();
+        }
+    }
+
+    @Override
+    public long getBorrowCount()
+    {
+        return this.borrowCount.get();
+    }
+
+    @Override
+    public long getTotalWaitTime()
+    {
+        return this.totalWaitTime.get();
+    }
+
+    @Override
+    public long getMaxWaitTime()
+    {
+        return this.maxWaitTime.get();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.text;
+
+import java.io.Reader;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Extracts the plain text of AsciiDoc contents, e.g. to feed a full-text index, without building an XDOM and without
+ * generating rendering events.
+ *
+ * @version $Id$
+ */
+@Role
+public interface AsciiDocTextExtractor
+{
+    /**
+     * Write the normalized plain text of the given content (document title, section titles, paragraphs, list items,
+     * table cells, link labels, etc.) to the given output, one block per line. The extracted text is truncated after
+     * {@link org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration#getTextExtractionMaxSize()}
+     * characters.
+     *
+     * @param source the content to read
+     * @param output where to write the extracted text
+     * @return true if the whole text has been extracted, false if it has been truncated
+     * @throws ParseException if the content can't be read or loaded, or if the text can't be written
+     */
+    boolean extract(Reader source, Appendable output) throws ParseException;
+}
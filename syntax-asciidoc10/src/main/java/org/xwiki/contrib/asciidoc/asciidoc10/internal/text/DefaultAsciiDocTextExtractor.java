@@ -0,0 +1,238 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.text;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.io.IOUtils;
+import org.asciidoctor.Asciidoctor;
+import org.asciidoctor.Options;
+import org.asciidoctor.ast.Block;
+import org.asciidoctor.ast.Cell;
+import org.asciidoctor.ast.Document;
+import org.asciidoctor.ast.ListItem;
+import org.asciidoctor.ast.Row;
+import org.asciidoctor.ast.Section;
+import org.asciidoctor.ast.StructuralNode;
+import org.asciidoctor.ast.Table;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.parser.HTMLText;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.parser.LimitedReader;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.parser.ParseGuard;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.runtime.AsciidoctorPool;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Walks the AST of the AsciiDoc contents the same way as the AsciiDoc stream parser, but writes the text of each
+ * block straight to the output instead of generating events. The inline content is still converted to HTML by
+ * AsciiDoctor (that's the only way to apply the substitutions), but the HTML is only stripped, not parsed. The same
+ * limits as for the parsing (input size, deadline, number of blocks and nesting level) are enforced.
+ *
+ * @version $Id$
+ */
+@Component
+@Singleton
+public class DefaultAsciiDocTextExtractor implements AsciiDocTextExtractor
+{
+    @Inject
+    private AsciidoctorPool asciidoctorPool;
+
+    @Inject
+    private AsciiDocConfiguration configuration;
+
+    /**
+     * The options are only read when loading a content, so they can be shared by all the extractions.
+     */
+    private final Options options = Options.builder().build();
+
+    /**
+     * Writes the blocks to the output, one per line, until the maximum size is reached.
+     */
+    private static final class TextWriter
+    {
+        private final Appendable output;
+
+        private long remaining;
+
+        private boolean truncated;
+
+        private boolean empty = true;
+
+        TextWriter(Appendable output, long maxSize)
+        {
+            this.output = output;
+            // Zero or negative means no limit.
+            this.remaining = maxSize > 0 ? maxSize : Long.MAX_VALUE;
+        }
+
+        /**
+         * @return true if some text has been cut (a text that exactly fills the maximum size is not truncated)
+         */
+        boolean isTruncated()
+        {
+            return this.truncated;
+        }
+
+        void writeHTML(String html) throws IOException
+        {
+            write(HTMLText.toPlainText(html));
+        }
+
+        void write(String text) throws IOException
+        {
+            if (!text.isEmpty() && !this.truncated) {
+                if (!this.empty) {
+                    append("\n");
+                }
+                append(text);
+                this.empty = false;
+            }
+        }
+
+        private void append(String text) throws IOException
+        {
+            int length = (int) Math.min(text.length(), this.remaining);
+            this.output.append(text, 0, length);
+            this.remaining -= length;
+            this.truncated = length < text.length();
+        }
+    }
+
+    @Override
+    public boolean extract(Reader source, Appendable output) throws ParseException
+    {
+        boolean result;
+        try {
+            String content = IOUtils.toString(LimitedReader.limit(source, this.configuration.getMaxInputSize()));
+            TextWriter writer = new TextWriter(output, this.configuration.getTextExtractionMaxSize());
+            ParseGuard guard = new ParseGuard(this.configuration.getParseTimeout(),
+                this.configuration.getMaxBlockCount(), this.configuration.getMaxNestingLevel());
+            // The runtime is kept until the whole AST has been visited since the AST nodes are bound to it.
+            Asciidoctor asciidoctor = this.asciidoctorPool.borrow();
+            try {
+                Document document = asciidoctor.load(content, this.options);
+                // Loading can't be interrupted, so check right away whether the deadline passed meanwhile.
+                guard.check();
+                String title = document.getDoctitle();
+                if (title != null) {
+                    writer.writeHTML(title);
+                }
+                visitBlockList(document.getBlocks(), writer, guard);
+            } finally {
+                this.asciidoctorPool.release(asciidoctor);
+            }
+            result = !writer.isTruncated();
+        } catch (LimitedReader.LimitExceededException e) {
+            throw new ParseException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new ParseException("Failed to extract the text of AsciiDoc content", e);
+        }
+        return result;
+    }
+
+    private void visitBlockList(List<StructuralNode> nodes, TextWriter writer, ParseGuard guard)
+        throws IOException, ParseException
+    {
+        guard.enterNesting();
+        for (StructuralNode node : nodes) {
+            if (writer.isTruncated()) {
+                break;
+            }
+            guard.enterBlock();
+            if (node instanceof Section) {
+                writer.writeHTML(((Section) node).getTitle());
+                visitBlockList(node.getBlocks(), writer, guard);
+            } else if (node instanceof org.asciidoctor.ast.List) {
+                visitList((org.asciidoctor.ast.List) node, writer, guard);
+            } else if (node instanceof Table) {
+                visitTable((Table) node, writer, guard);
+            } else if (node instanceof Block) {
+                visitBlock((Block) node, writer, guard);
+            }
+        }
+        guard.exitNesting();
+    }
+
+    private void visitBlock(Block block, TextWriter writer, ParseGuard guard) throws IOException, ParseException
+    {
+        switch (block.getContext()) {
+            case "paragraph":
+                writer.writeHTML((String) block.getContent());
+                break;
+            case "listing":
+            case "literal":
+                // Keep the source as is, like the stream parser does for verbatim blocks.
+                writer.write(block.getSource());
+                break;
+            case "pass":
+                // Raw HTML, which is not meant to be indexed.
+                break;
+            default:
+                if (block.getBlocks().isEmpty()) {
+                    // Simple blocks, e.g. admonition paragraphs.
+                    writer.writeHTML((String) block.getContent());
+                } else {
+                    // Compound blocks, e.g. admonitions, examples, sidebars or quotes.
+                    visitBlockList(block.getBlocks(), writer, guard);
+                }
+        }
+    }
+
+    private void visitList(org.asciidoctor.ast.List list, TextWriter writer, ParseGuard guard)
+        throws IOException, ParseException
+    {
+        for (StructuralNode nodeItem : list.getItems()) {
+            if (nodeItem instanceof ListItem) {
+                guard.enterBlock();
+                writer.writeHTML(((ListItem) nodeItem).getText());
+                visitBlockList(nodeItem.getBlocks(), writer, guard);
+            }
+        }
+    }
+
+    private void visitTable(Table table, TextWriter writer, ParseGuard guard) throws IOException, ParseException
+    {
+        visitTableRows(table.getHeader(), writer, guard);
+        visitTableRows(table.getBody(), writer, guard);
+        visitTableRows(table.getFooter(), writer, guard);
+    }
+
+    private void visitTableRows(List<Row> rows, TextWriter writer, ParseGuard guard)
+        throws IOException, ParseException
+    {
+        for (Row row : rows) {
+            for (Cell cell : row.getCells()) {
+                guard.enterBlock();
+                if ("asciidoc".equals(cell.getStyle())) {
+                    // The content of AsciiDoc cells is a nested document.
+                    visitBlockList(cell.getInnerDocument().getBlocks(), writer, guard);
+                } else {
+                    writer.writeHTML(cell.getText());
+                }
+            }
+        }
+    }
+}
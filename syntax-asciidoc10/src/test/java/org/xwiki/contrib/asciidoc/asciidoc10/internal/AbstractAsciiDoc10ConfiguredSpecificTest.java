@@ -0,0 +1,58 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal;
+
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.rendering.test.integration.RenderingTestSuite;
+import org.xwiki.rendering.wiki.WikiModel;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Base class of the suites running all specific tests found in {@code *.test} files located in the classpath with some
+ * configuration, to verify that it produces the same events as the default configuration.
+ *
+ * @version $Id$
+ */
+public abstract class AbstractAsciiDoc10ConfiguredSpecificTest
+{
+    @RenderingTestSuite.Initialized
+    public void initialize(MockitoComponentManager componentManager) throws Exception
+    {
+        // Make sure we're in Wiki Mode so that parsed resource reference of type "doc:" (for example) are not
+        // considered as URL types.
+        componentManager.registerMockComponent(WikiModel.class);
+
+        ConfigurationSource configuration =
+            componentManager.registerMockComponent(ConfigurationSource.class, "xwikiproperties");
+        when(configuration.getProperty(anyString(), any(Object.class)))
+            .then(invocation -> invocation.getArgument(1));
+        configure(configuration);
+    }
+
+    /**
+     * @param configuration the configuration source, returning the default value of all the properties unless
+     *            configured otherwise
+     */
+    protected abstract void configure(ConfigurationSource configuration);
+}
@@ -0,0 +1,45 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal;
+
+import org.junit.runner.RunWith;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.rendering.test.integration.RenderingTestSuite;
+import org.xwiki.test.annotation.AllComponents;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Run all specific tests found in {@code *.test} files located in the classpath with the HTML of each document parsed
+ * at once, to verify that it produces the same events as parsing the HTML of each block separately.
+ *
+ * @version $Id$
+ */
+@RunWith(RenderingTestSuite.class)
+@RenderingTestSuite.Scope(value = "asciidoc10.specific")
+@AllComponents
+public class AsciiDoc10BatchedSpecificTest extends AbstractAsciiDoc10ConfiguredSpecificTest
+{
+    @Override
+    protected void configure(ConfigurationSource configuration)
+    {
+        when(configuration.getProperty("asciidoc.batchedHTMLParsing", false)).thenReturn(true);
+    }
+}
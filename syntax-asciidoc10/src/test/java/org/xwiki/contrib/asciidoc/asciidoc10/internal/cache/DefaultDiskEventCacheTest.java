@@ -0,0 +1,257 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.rendering.listener.Format;
+import org.xwiki.rendering.listener.HeaderLevel;
+import org.xwiki.rendering.listener.ListType;
+import org.xwiki.rendering.listener.MetaData;
+import org.xwiki.rendering.listener.QueueListener;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultDiskEventCache} and {@link EventLog}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultDiskEventCacheTest
+{
+    private static final long MAX_SIZE = 1024L * 1024;
+
+    @InjectMockComponents
+    private DefaultDiskEventCache cache;
+
+    @MockComponent
+    private AsciiDocConfiguration configuration;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Initialize the cache again, like after a restart.
+     */
+    private void initialize(long maxSize)
+    {
+        when(this.configuration.isDiskCacheEnabled()).thenReturn(true);
+        when(this.configuration.getDiskCacheDirectory()).thenReturn(this.directory.toString());
+        when(this.configuration.getDiskCacheMaxSize()).thenReturn(maxSize);
+        this.cache.initialize();
+    }
+
+    private QueueListener createEvents(String word)
+    {
+        QueueListener events = new QueueListener();
+        MetaData metadata = new MetaData(Collections.singletonMap(MetaData.SYNTAX, Syntax.XWIKI_2_1));
+        events.beginDocument(metadata);
+        events.beginHeader(HeaderLevel.LEVEL1, "_title", emptyMap());
+        events.onWord(word);
+        events.endHeader(HeaderLevel.LEVEL1, "_title", emptyMap());
+        events.beginParagraph(Collections.singletonMap("class", "lead"));
+        ResourceReference reference = new ResourceReference("Space.Page", ResourceType.DOCUMENT);
+        reference.setTyped(false);
+        reference.setParameter("anchor", "section");
+        reference.addBaseReferences(Arrays.asList("Main.WebHome"));
+        events.beginLink(reference, false, emptyMap());
+        events.onSpecialSymbol('!');
+        events.endLink(reference, false, emptyMap());
+        events.onSpace();
+        events.endParagraph(Collections.singletonMap("class", "lead"));
+        // Larger than what DataOutput#writeUTF supports.
+        events.onVerbatim(StringUtils.repeat("verbatim ", 10000), false, emptyMap());
+        events.endDocument(metadata);
+        return events;
+    }
+
+    private void assertSameEvents(QueueListener expected, QueueListener actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        Iterator<QueueListener.Event> actualEvents = actual.iterator();
+        for (QueueListener.Event expectedEvent : expected) {
+            QueueListener.Event actualEvent = actualEvents.next();
+            assertEquals(expectedEvent.eventType, actualEvent.eventType);
+            assertEquals(expectedEvent.eventParameters.length, actualEvent.eventParameters.length);
+            for (int i = 0; i < expectedEvent.eventParameters.length; i++) {
+                Object expectedParameter = expectedEvent.eventParameters[i];
+                Object actualParameter = actualEvent.eventParameters[i];
+                if (expectedParameter instanceof MetaData) {
+                    assertEquals(((MetaData) expectedParameter).getMetaData(),
+                        ((MetaData) actualParameter).getMetaData());
+                } else {
+                    assertEquals(expectedParameter, actualParameter);
+                }
+            }
+        }
+    }
+
+    private Path getVersionDirectory() throws Exception
+    {
+        try (Stream<Path> children = Files.list(this.directory)) {
+            return children.filter(Files::isDirectory).findFirst().get();
+        }
+    }
+
+    @Test
+    void putAndReplay()
+    {
+        initialize(MAX_SIZE);
+        QueueListener events = createEvents("first");
+        this.cache.put("key/+=", events);
+
+        QueueListener replayed = new QueueListener();
+        assertTrue(this.cache.replay("key/+=", replayed));
+        assertSameEvents(events, replayed);
+        assertFalse(this.cache.replay("other", new QueueListener()));
+
+        assertEquals(1, this.cache.getEntryCount());
+        assertEquals(1, this.cache.getHitCount());
+        assertEquals(1, this.cache.getMissCount());
+
+        // The stored events survive a restart.
+        initialize(MAX_SIZE);
+        replayed = new QueueListener();
+        assertTrue(this.cache.replay("key/+=", replayed));
+        assertSameEvents(events, replayed);
+    }
+
+    @Test
+    void evictLeastRecentlyUsed()
+    {
+        initialize(MAX_SIZE);
+        this.cache.put("first", createEvents("first"));
+        // Room for two entries.
+        initialize(2 * this.cache.getSize());
+
+        this.cache.put("second", createEvents("other"));
+        assertTrue(this.cache.replay("first", new QueueListener()));
+        this.cache.put("third", createEvents("third"));
+
+        assertEquals(2, this.cache.getEntryCount());
+        assertEquals(1, this.cache.getEvictionCount());
+        assertTrue(this.cache.replay("first", new QueueListener()));
+        assertFalse(this.cache.replay("second", new QueueListener()));
+        assertTrue(this.cache.replay("third", new QueueListener()));
+    }
+
+    @Test
+    void replayCorruptedEvents() throws Exception
+    {
+        initialize(MAX_SIZE);
+        this.cache.put("key", createEvents("first"));
+        try (Stream<Path> files = Files.list(getVersionDirectory())) {
+            Path file = files.findFirst().get();
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length - 1]++;
+            Files.write(file, bytes);
+        }
+
+        QueueListener replayed = new QueueListener();
+        assertFalse(this.cache.replay("key", replayed));
+        assertTrue(replayed.isEmpty());
+        assertEquals(0, this.cache.getEntryCount());
+    }
+
+    @Test
+    void replayInvalidEventsWithValidChecksum() throws Exception
+    {
+        initialize(MAX_SIZE);
+        this.cache.put("key", createEvents("first"));
+        try (Stream<Path> files = Files.list(getVersionDirectory())) {
+            Path file = files.findFirst().get();
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+            // Announce one more event than what is stored, after the header and the enumeration types.
+            int countOffset = 16 + 2 + 4 + HeaderLevel.class.getName().getBytes(StandardCharsets.UTF_8).length;
+            bytes.putInt(countOffset, bytes.getInt(countOffset) + 1);
+            CRC32 checksum = new CRC32();
+            checksum.update(bytes.array(), 16, bytes.capacity() - 16);
+            bytes.putInt(12, (int) checksum.getValue());
+            Files.write(file, bytes.array());
+        }
+
+        // None of the valid events preceding the invalid one is sent.
+        QueueListener replayed = new QueueListener();
+        assertFalse(this.cache.replay("key", replayed));
+        assertTrue(replayed.isEmpty());
+        assertEquals(0, this.cache.getEntryCount());
+    }
+
+    @Test
+    void readEnumerations() throws Exception
+    {
+        QueueListener events = new QueueListener();
+        events.beginFormat(Format.BOLD, emptyMap());
+        events.beginList(ListType.NUMBERED, emptyMap());
+        events.beginHeader(HeaderLevel.LEVEL2, "_id", emptyMap());
+        events.beginFormat(Format.ITALIC, emptyMap());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        EventLog.write(events, output);
+
+        assertSameEvents(events, EventLog.read(ByteBuffer.wrap(output.toByteArray())));
+    }
+
+    @Test
+    void deleteOtherVersions() throws Exception
+    {
+        Path otherVersion = Files.createDirectories(this.directory.resolve("0123456789abcdef"));
+        Files.write(otherVersion.resolve("key.events"), "events".getBytes(StandardCharsets.UTF_8));
+        Path unrelated = Files.createDirectories(this.directory.resolve("unrelated"));
+
+        initialize(MAX_SIZE);
+
+        assertFalse(Files.exists(otherVersion));
+        assertTrue(Files.exists(unrelated));
+        assertEquals(0, this.cache.getEntryCount());
+    }
+
+    @Test
+    void disabled()
+    {
+        this.cache.put("key", createEvents("first"));
+
+        assertFalse(this.cache.replay("key", new QueueListener()));
+        assertEquals(0, this.cache.getMissCount());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.rendering.listener.HeaderLevel;
+import org.xwiki.rendering.listener.QueueListener;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultSectionEventCache} and {@link CachedEvents}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultSectionEventCacheTest
+{
+    @InjectMockComponents
+    private DefaultSectionEventCache cache;
+
+    @MockComponent
+    private AsciiDocConfiguration configuration;
+
+    @BeforeComponent
+    void configure()
+    {
+        when(this.configuration.getIncrementalParsingCacheSize()).thenReturn(2);
+    }
+
+    @Test
+    void getAndPut()
+    {
+        CachedEvents events = createEvents("_first");
+        this.cache.put("key", events);
+
+        assertSame(events, this.cache.get("key"));
+        assertNull(this.cache.get("other"));
+        assertEquals(1, this.cache.getHitCount());
+        assertEquals(1, this.cache.getMissCount());
+    }
+
+    @Test
+    void putEvictsLeastRecentlyUsed()
+    {
+        this.cache.put("a", createEvents("_a"));
+        this.cache.put("b", createEvents("_b"));
+        this.cache.get("a");
+        this.cache.put("c", createEvents("_c"));
+
+        assertNotNull(this.cache.get("a"));
+        assertNull(this.cache.get("b"));
+        assertNotNull(this.cache.get("c"));
+    }
+
+    @Test
+    void replayCopiesTheMutableParameters()
+    {
+        CachedEvents events = createEvents("_first");
+        assertEquals(Arrays.asList("_first"), events.getHeaderIds());
+
+        QueueListener replayed = new QueueListener();
+        events.replay(replayed);
+        ResourceReference reference = (ResourceReference) replayed.get(3).eventParameters[0];
+        // Modifying the replayed events must not affect the cached events.
+        reference.setReference("Other.Page");
+
+        QueueListener replayedAgain = new QueueListener();
+        events.replay(replayedAgain);
+        ResourceReference cachedReference = (ResourceReference) replayedAgain.get(3).eventParameters[0];
+        assertNotSame(reference, cachedReference);
+        assertEquals("Space.Page", cachedReference.getReference());
+        assertEquals(replayed.size(), replayedAgain.size());
+    }
+
+    private static CachedEvents createEvents(String headerId)
+    {
+        QueueListener queue = new QueueListener();
+        queue.beginHeader(HeaderLevel.LEVEL1, headerId, emptyMap());
+        queue.onWord("Title");
+        queue.endHeader(HeaderLevel.LEVEL1, headerId, emptyMap());
+        ResourceReference reference = new ResourceReference("Space.Page", ResourceType.DOCUMENT);
+        queue.beginLink(reference, false, Collections.singletonMap("class", "link"));
+        queue.endLink(reference, false, Collections.singletonMap("class", "link"));
+        return new CachedEvents(queue);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.rendering.block.ParagraphBlock;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultXDOMCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultXDOMCacheTest
+{
+    @InjectMockComponents
+    private DefaultXDOMCache cache;
+
+    @MockComponent
+    private AsciiDocConfiguration configuration;
+
+    @BeforeComponent
+    void configure()
+    {
+        // Room for two single word XDOMs.
+        when(this.configuration.getXDOMCacheMaxSize()).thenReturn(2 * DefaultXDOMCache.estimateSize(createXDOM("a")));
+    }
+
+    @Test
+    void getReturnsCopies()
+    {
+        XDOM xdom = createXDOM("a");
+        this.cache.put("key", xdom);
+        // Modifying the cached XDOM must not affect the cache.
+        xdom.addChild(new WordBlock("b"));
+
+        XDOM cached = this.cache.get("key");
+        assertNotNull(cached);
+        assertNotSame(xdom, cached);
+        assertEquals(1, cached.getChildren().size());
+        cached.addChild(new WordBlock("c"));
+
+        assertEquals(1, this.cache.get("key").getChildren().size());
+        assertNull(this.cache.get("other"));
+        assertEquals(2, this.cache.getHitCount());
+        assertEquals(1, this.cache.getMissCount());
+    }
+
+    @Test
+    void putEvictsLeastRecentlyUsed()
+    {
+        this.cache.put("a", createXDOM("a"));
+        this.cache.put("b", createXDOM("b"));
+        this.cache.get("a");
+        this.cache.put("c", createXDOM("c"));
+
+        assertNotNull(this.cache.get("a"));
+        assertNull(this.cache.get("b"));
+        assertNotNull(this.cache.get("c"));
+        assertEquals(2, this.cache.getEntryCount());
+        assertEquals(1, this.cache.getEvictionCount());
+    }
+
+    @Test
+    void putIgnoresXDOMsLargerThanTheCache()
+    {
+        this.cache.put("big", createXDOM(StringUtils.repeat('a', 1000)));
+
+        assertNull(this.cache.get("big"));
+        assertEquals(0, this.cache.getSize());
+    }
+
+    @Test
+    void keyDependsOnContext()
+    {
+        assertEquals(CacheKey.of("content", "wikiMode=true"), CacheKey.of("content", "wikiMode=true"));
+        assertNotEquals(CacheKey.of("content", "wikiMode=true"), CacheKey.of("content", "wikiMode=false"));
+    }
+
+    private static XDOM createXDOM(String... words)
+    {
+        ParagraphBlock paragraph = new ParagraphBlock(Collections.emptyList());
+        Arrays.stream(words).forEach(word -> paragraph.addChild(new WordBlock(word)));
+        return new XDOM(Collections.singletonList(paragraph));
+    }
+}
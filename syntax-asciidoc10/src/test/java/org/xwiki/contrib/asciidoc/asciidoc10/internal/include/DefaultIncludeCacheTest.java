@@ -0,0 +1,157 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.include;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultIncludeCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultIncludeCacheTest
+{
+    @InjectMockComponents
+    private DefaultIncludeCache cache;
+
+    @MockComponent
+    private AsciiDocConfiguration configuration;
+
+    private AsciiDocIncludeResolver resolver;
+
+    @BeforeComponent
+    void configure()
+    {
+        // Room for two single line contents.
+        when(this.configuration.getIncludeCacheMaxSize())
+            .thenReturn(2 * DefaultIncludeCache.estimateSize(Collections.singletonList("a")));
+    }
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        this.resolver = mock(AsciiDocIncludeResolver.class);
+        when(this.resolver.getContent("a")).thenReturn("a");
+        when(this.resolver.getContent("b")).thenReturn("b");
+        when(this.resolver.getContent("c")).thenReturn("c");
+    }
+
+    @Test
+    void getReadsContentOnce() throws Exception
+    {
+        when(this.resolver.getContent("lines")).thenReturn("\uFEFFfirst\r\nsecond\n");
+
+        assertEquals(Arrays.asList("first", "second"), this.cache.get("lines", this.resolver));
+        assertEquals(Arrays.asList("first", "second"), this.cache.get("lines", this.resolver));
+
+        verify(this.resolver, times(1)).getContent("lines");
+        assertEquals(1, this.cache.getHitCount());
+        assertEquals(1, this.cache.getMissCount());
+    }
+
+    @Test
+    void getDoesNotCacheMissingContent() throws Exception
+    {
+        assertNull(this.cache.get("missing", this.resolver));
+        assertNull(this.cache.get("missing", this.resolver));
+
+        verify(this.resolver, times(2)).getContent("missing");
+        assertEquals(0, this.cache.getEntryCount());
+    }
+
+    @Test
+    void getFailsWhenContentCannotBeRead() throws Exception
+    {
+        IncludeException exception = new IncludeException("error", null);
+        when(this.resolver.getContent("error")).thenThrow(exception);
+
+        assertSame(exception, assertThrows(IncludeException.class, () -> this.cache.get("error", this.resolver)));
+        assertEquals(0, this.cache.getEntryCount());
+    }
+
+    @Test
+    void getEvictsLeastRecentlyUsed() throws Exception
+    {
+        this.cache.get("a", this.resolver);
+        this.cache.get("b", this.resolver);
+        this.cache.get("a", this.resolver);
+        this.cache.get("c", this.resolver);
+
+        assertEquals(2, this.cache.getEntryCount());
+        assertEquals(1, this.cache.getEvictionCount());
+        this.cache.get("b", this.resolver);
+        verify(this.resolver, times(2)).getContent("b");
+        verify(this.resolver, times(1)).getContent("a");
+    }
+
+    @Test
+    void invalidate() throws Exception
+    {
+        this.cache.get("a", this.resolver);
+        this.cache.get("b", this.resolver);
+        long generation = this.cache.getGeneration();
+
+        this.cache.invalidate("a");
+
+        assertEquals(generation + 1, this.cache.getGeneration());
+        assertEquals(1, this.cache.getEntryCount());
+        assertEquals(DefaultIncludeCache.estimateSize(Collections.singletonList("b")), this.cache.getSize());
+        this.cache.get("a", this.resolver);
+        verify(this.resolver, times(2)).getContent("a");
+
+        this.cache.invalidateAll();
+
+        assertEquals(generation + 2, this.cache.getGeneration());
+        assertEquals(0, this.cache.getEntryCount());
+        assertEquals(0, this.cache.getSize());
+    }
+
+    @Test
+    void getDoesNotCacheContentInvalidatedWhileRead() throws Exception
+    {
+        when(this.resolver.getContent("modified")).then(invocation -> {
+            this.cache.invalidate("modified");
+            return "old";
+        });
+
+        assertNotNull(this.cache.get("modified", this.resolver));
+        assertEquals(0, this.cache.getEntryCount());
+    }
+}
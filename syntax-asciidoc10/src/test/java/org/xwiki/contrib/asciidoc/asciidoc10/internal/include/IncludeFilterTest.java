@@ -0,0 +1,72 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.include;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for {@link IncludeFilter}.
+ *
+ * @version $Id$
+ */
+class IncludeFilterTest
+{
+    private static final List<String> LINES = Arrays.asList("one", "two", "three", "four", "five");
+
+    private static final List<String> TAGGED_LINES = Arrays.asList("before", "// tag::a[]", "in a", "// tag::b[]",
+        "in a and b", "// end::b[]", "// end::a[]", "// tag::c[]", "in c", "// end::c[]", "after");
+
+    @Test
+    void filterWithoutSelection()
+    {
+        assertEquals("one\ntwo\nthree\nfour\nfive", IncludeFilter.filter(LINES, Collections.emptyMap()));
+    }
+
+    @Test
+    void filterLines()
+    {
+        assertEquals("two\nthree", filter(LINES, "lines", "2..3"));
+        assertEquals("one\nfour\nfive", filter(LINES, "lines", "4..-1;1"));
+        assertEquals("three\nfour\nfive", filter(LINES, "lines", "3.."));
+        assertEquals("five", filter(LINES, "lines", "5,invalid,7..9"));
+    }
+
+    @Test
+    void filterTags()
+    {
+        assertEquals("in a\nin a and b", filter(TAGGED_LINES, "tag", "a"));
+        assertEquals("in a and b\nin c", filter(TAGGED_LINES, "tags", "b;c"));
+        assertEquals("before\nin a\nin c\nafter", filter(TAGGED_LINES, "tags", "!b"));
+        assertEquals("in a\nin a and b\nin c", filter(TAGGED_LINES, "tags", "*"));
+        assertEquals("before\nafter", filter(TAGGED_LINES, "tags", "!*"));
+        assertEquals("before\nin a\nin c\nafter", filter(TAGGED_LINES, "tags", "**;!b"));
+    }
+
+    private static String filter(List<String> lines, String attribute, String value)
+    {
+        return IncludeFilter.filter(lines, Collections.singletonMap(attribute, value));
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.include;
+
+import java.io.StringReader;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.rendering.parser.StreamParser;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.wiki.WikiModel;
+import org.xwiki.test.annotation.AllComponents;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration tests for {@link ResolvingIncludeProcessor}, checking that the include directives are resolved through
+ * the configured {@link AsciiDocIncludeResolver} and that the included contents are cached.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+@AllComponents
+class ResolvingIncludeProcessorTest
+{
+    private static final String SNIPPET = "snippet.adoc";
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    private AsciiDocIncludeResolver resolver;
+
+    @BeforeComponent
+    void configure(MockitoComponentManager manager) throws Exception
+    {
+        manager.registerMockComponent(WikiModel.class);
+        ConfigurationSource configuration = manager.registerMockComponent(ConfigurationSource.class, "xwikiproperties");
+        when(configuration.getProperty(anyString(), any(Object.class))).then(invocation -> invocation.getArgument(1));
+        when(configuration.getProperty("asciidoc.include.resolver", String.class)).thenReturn("test");
+
+        this.resolver = manager.registerMockComponent(AsciiDocIncludeResolver.class, "test");
+    }
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        when(this.resolver.getReference(anyString(), any())).then(invocation -> invocation.getArgument(0));
+        when(this.resolver.getContent(SNIPPET)).thenReturn("Included *bold* text.");
+        when(this.resolver.getContent("outer.adoc")).thenReturn("Outer\n\ninclude::nested.adoc[]");
+        when(this.resolver.getContent("nested.adoc")).thenReturn("Nested");
+        when(this.resolver.getContent("tagged.adoc"))
+            .thenReturn("// tag::part[]\nTagged part\n// end::part[]\nOther part");
+    }
+
+    @Test
+    void includeIsResolvedAndCached() throws Exception
+    {
+        String expected = parse("Before\n\nIncluded *bold* text.\n\nAfter");
+
+        assertEquals(expected, parse("Before\n\ninclude::snippet.adoc[]\n\nAfter"));
+        // The included content is read once for all the documents including it.
+        assertEquals(expected, parse("Before\n\ninclude::snippet.adoc[]\n\nAfter\n"));
+        verify(this.resolver, times(1)).getContent(SNIPPET);
+
+        when(this.resolver.getContent(SNIPPET)).thenReturn("Modified");
+        IncludeCache includeCache = this.componentManager.getInstance(IncludeCache.class);
+        includeCache.invalidate(SNIPPET);
+
+        assertEquals(parse("Before\n\nModified\n\nAfter"), parse("Before\n\ninclude::snippet.adoc[]\n\nAfter"));
+        verify(this.resolver, times(2)).getContent(SNIPPET);
+    }
+
+    @Test
+    void nestedIncludeIsResolvedFromParent() throws Exception
+    {
+        assertEquals(parse("Outer\n\nNested"), parse("include::outer.adoc[]"));
+        verify(this.resolver).getReference("nested.adoc", "outer.adoc");
+    }
+
+    @Test
+    void includeWithTag() throws Exception
+    {
+        assertEquals(parse("Tagged part"), parse("include::tagged.adoc[tag=part]"));
+    }
+
+    @Test
+    void unresolvedInclude() throws Exception
+    {
+        assertTrue(parse("include::missing.adoc[]").contains("onWord [Unresolved]"));
+    }
+
+    private String parse(String content) throws Exception
+    {
+        StreamParser parser = this.componentManager.getInstance(StreamParser.class, "asciidoc/1.0");
+        PrintRendererFactory rendererFactory =
+            this.componentManager.getInstance(PrintRendererFactory.class, "event/1.0");
+        DefaultWikiPrinter printer = new DefaultWikiPrinter();
+        parser.parse(new StringReader(content), rendererFactory.createRenderer(printer));
+        return printer.toString();
+    }
+}
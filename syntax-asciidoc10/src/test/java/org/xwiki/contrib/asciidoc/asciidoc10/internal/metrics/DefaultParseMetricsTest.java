@@ -0,0 +1,118 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import javax.inject.Named;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.test.LogLevel;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.LogCaptureExtension;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultParseMetrics}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultParseMetricsTest
+{
+    @RegisterExtension
+    LogCaptureExtension logCapture = new LogCaptureExtension(LogLevel.WARN);
+
+    @InjectMockComponents
+    private DefaultParseMetrics metrics;
+
+    @MockComponent
+    private AsciiDocConfiguration configuration;
+
+    @MockComponent
+    @Named("context")
+    private ComponentManager contextComponentManager;
+
+    private final ParseMetricsSink sink = mock(ParseMetricsSink.class);
+
+    @BeforeComponent
+    void configure() throws Exception
+    {
+        when(this.configuration.isMetricsEnabled()).thenReturn(true);
+        when(this.configuration.getSlowParseThreshold()).thenReturn(0L);
+        when(this.contextComponentManager.getInstanceList(ParseMetricsSink.class))
+            .thenReturn(Collections.singletonList(this.sink));
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        this.metrics.dispose();
+    }
+
+    @Test
+    void recordParse() throws Exception
+    {
+        this.metrics.beginParse();
+        // Nested parsing.
+        this.metrics.beginParse();
+        this.metrics.increment(ParseCounter.BLOCKS, 2);
+        this.metrics.endParse();
+        this.metrics.stopTimer(ParsePhase.HTML_PARSING, this.metrics.startTimer() - 5000000L);
+        this.metrics.increment(ParseCounter.CHARACTERS, 10);
+        this.metrics.endParse();
+
+        ArgumentCaptor<ParseStatistics> captor = ArgumentCaptor.forClass(ParseStatistics.class);
+        verify(this.sink).onParse(captor.capture());
+        ParseStatistics statistics = captor.getValue();
+        assertEquals(ParsePhase.HTML_PARSING, statistics.getDominantPhase());
+        assertTrue(statistics.getPhaseTime(ParsePhase.HTML_PARSING) >= 5);
+        assertEquals(2, statistics.getCounter(ParseCounter.BLOCKS));
+        assertEquals(10, statistics.getCounter(ParseCounter.CHARACTERS));
+
+        assertEquals(1, this.metrics.getParseCount());
+        assertEquals(1, this.metrics.getSlowParseCount());
+        assertEquals(2, this.metrics.getBlockCount());
+        assertTrue(this.logCapture.getMessage(0).startsWith("Slow AsciiDoc parsing: ["));
+        assertTrue(this.logCapture.getMessage(0).endsWith("mostly spent in the [HTML_PARSING] phase"
+            + " ([" + statistics.getPhaseTime(ParsePhase.HTML_PARSING) + "] ms)"));
+
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer()
+            .getAttribute(new ObjectName(DefaultParseMetrics.OBJECT_NAME), "ParseCount"));
+
+        this.metrics.reset();
+        assertEquals(0, this.metrics.getParseCount());
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.outline;
+
+import java.io.StringReader;
+
+import org.asciidoctor.Asciidoctor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.runtime.AsciidoctorPool;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultAsciiDocOutlineExtractor}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultAsciiDocOutlineExtractorTest
+{
+    private static final String CONTENT = "= The _Title_\n:product: XWiki\n\nPreamble.\n\n== First\n\nAbout {product}.\n\n"
+        + "=== Tom &amp; Jerry\n\n== Second\n\n:version: 1.0\n\n* item\n";
+
+    private static Asciidoctor asciidoctor;
+
+    @InjectMockComponents
+    private DefaultAsciiDocOutlineExtractor extractor;
+
+    @MockComponent
+    private AsciidoctorPool asciidoctorPool;
+
+    @MockComponent
+    private AsciiDocConfiguration configuration;
+
+    @BeforeAll
+    static void createRuntime()
+    {
+        asciidoctor = Asciidoctor.Factory.create();
+    }
+
+    @AfterAll
+    static void shutdownRuntime()
+    {
+        asciidoctor.shutdown();
+    }
+
+    @BeforeEach
+    void configure() throws Exception
+    {
+        when(this.asciidoctorPool.borrow()).thenReturn(asciidoctor);
+    }
+
+    @Test
+    void getOutline() throws Exception
+    {
+        DocumentOutline outline = this.extractor.getOutline(new StringReader(CONTENT));
+
+        assertEquals("The Title", outline.getTitle());
+        assertEquals("XWiki", outline.getAttributes().get("product"));
+        // The attributes defined in the body are only applied when the content is converted.
+        assertFalse(outline.getAttributes().containsKey("version"));
+        assertFalse(outline.getAttributes().containsKey("asciidoctor-version"));
+
+        assertEquals(2, outline.getSections().size());
+        SectionOutline first = outline.getSections().get(0);
+        assertEquals("_first", first.getId());
+        assertEquals(1, first.getLevel());
+        assertEquals("First", first.getTitle());
+        assertEquals(1, first.getChildren().size());
+        assertEquals(2, first.getChildren().get(0).getLevel());
+        assertEquals("Tom & Jerry", first.getChildren().get(0).getTitle());
+        assertEquals("_second", outline.getSections().get(1).getId());
+        assertTrue(outline.getSections().get(1).getChildren().isEmpty());
+
+        verify(this.asciidoctorPool).release(asciidoctor);
+    }
+
+    @Test
+    void getHeader() throws Exception
+    {
+        DocumentOutline outline = this.extractor.getHeader(new StringReader(CONTENT));
+
+        assertEquals("The Title", outline.getTitle());
+        assertEquals("XWiki", outline.getAttributes().get("product"));
+        assertTrue(outline.getSections().isEmpty());
+
+        DocumentOutline untitled = this.extractor.getHeader(new StringReader("Some text."));
+        assertNull(untitled.getTitle());
+        assertTrue(untitled.getAttributes().isEmpty());
+
+        verify(this.asciidoctorPool, times(2)).release(asciidoctor);
+    }
+
+    @Test
+    void getOutlineEnforcesTheParsingLimits() throws Exception
+    {
+        when(this.configuration.getMaxInputSize()).thenReturn(10L);
+        ParseException exception =
+            assertThrows(ParseException.class, () -> this.extractor.getOutline(new StringReader(CONTENT)));
+        assertEquals("The AsciiDoc content is larger than the maximum of [10] characters", exception.getMessage());
+        verify(this.asciidoctorPool, never()).borrow();
+
+        when(this.configuration.getMaxInputSize()).thenReturn(0L);
+        // The preamble and the two top-level sections.
+        when(this.configuration.getMaxBlockCount()).thenReturn(2L);
+        exception = assertThrows(ParseException.class, () -> this.extractor.getOutline(new StringReader(CONTENT)));
+        assertEquals("The AsciiDoc content has more than the maximum of [2] blocks", exception.getMessage());
+        verify(this.asciidoctorPool).release(asciidoctor);
+    }
+}
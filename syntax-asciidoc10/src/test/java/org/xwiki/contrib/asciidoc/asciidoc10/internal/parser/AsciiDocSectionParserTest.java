@@ -0,0 +1,147 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.wiki.WikiModel;
+import org.xwiki.test.annotation.AllComponents;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@link AsciiDocSectionParser} implemented by {@link AsciiDocStreamParser}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+@AllComponents
+class AsciiDocSectionParserTest
+{
+    private static final String CONTENT = "== First\n\nIntro *text*\n\n=== Sub-section\n\nSub-section text\n\n"
+        + "==== Nested\n\nNested text\n\n== Second\n\nSecond text";
+
+    private static final String SUB_SECTION_EVENTS = String.join("\n",
+        "beginDocument",
+        "beginSection",
+        "beginSection",
+        "beginHeader [2, _sub_section]",
+        "onWord [Sub]",
+        "onSpecialSymbol [-]",
+        "onWord [section]",
+        "endHeader [2, _sub_section]",
+        "endSection",
+        "endSection",
+        "beginParagraph",
+        "onWord [Sub]",
+        "onSpecialSymbol [-]",
+        "onWord [section]",
+        "onSpace",
+        "onWord [text]",
+        "endParagraph",
+        "beginSection",
+        "beginSection",
+        "beginSection",
+        "beginHeader [3, _nested]",
+        "onWord [Nested]",
+        "endHeader [3, _nested]",
+        "endSection",
+        "endSection",
+        "endSection",
+        "beginParagraph",
+        "onWord [Nested]",
+        "onSpace",
+        "onWord [text]",
+        "endParagraph",
+        "endDocument");
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    @BeforeComponent
+    void configure(MockitoComponentManager manager) throws Exception
+    {
+        manager.registerMockComponent(WikiModel.class);
+        ConfigurationSource configuration =
+            manager.registerMockComponent(ConfigurationSource.class, "xwikiproperties");
+        when(configuration.getProperty(anyString(), any(Object.class)))
+            .then(invocation -> invocation.getArgument(1));
+    }
+
+    private AsciiDocSectionParser getSectionParser() throws Exception
+    {
+        return this.componentManager.getInstance(AsciiDocSectionParser.class, "asciidoc/1.0");
+    }
+
+    private Listener createRenderer(DefaultWikiPrinter printer) throws Exception
+    {
+        PrintRendererFactory rendererFactory =
+            this.componentManager.getInstance(PrintRendererFactory.class, "event/1.0");
+        return rendererFactory.createRenderer(printer);
+    }
+
+    @Test
+    void parseSectionById() throws Exception
+    {
+        DefaultWikiPrinter printer = new DefaultWikiPrinter();
+
+        assertTrue(getSectionParser().parseSection(new StringReader(CONTENT), "_sub_section", createRenderer(printer)));
+        assertEquals(SUB_SECTION_EVENTS, printer.toString().trim());
+    }
+
+    @Test
+    void parseSectionByPath() throws Exception
+    {
+        DefaultWikiPrinter printer = new DefaultWikiPrinter();
+
+        assertTrue(getSectionParser().parseSection(new StringReader(CONTENT), Arrays.asList(0, 0),
+            createRenderer(printer)));
+        assertEquals(SUB_SECTION_EVENTS, printer.toString().trim());
+    }
+
+    @Test
+    void parseMissingSection() throws Exception
+    {
+        Listener listener = mock(Listener.class);
+
+        assertFalse(getSectionParser().parseSection(new StringReader(CONTENT), "_missing", listener));
+        assertFalse(getSectionParser().parseSection(new StringReader(CONTENT), Arrays.asList(0, 1), listener));
+        assertFalse(getSectionParser().parseSection(new StringReader(CONTENT), Collections.emptyList(), listener));
+        verifyNoInteractions(listener);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link BlockBoundaryScanner}.
+ *
+ * @version $Id$
+ */
+class BlockBoundaryScannerTest
+{
+    private BlockBoundaryScanner scan(String content)
+    {
+        BlockBoundaryScanner scanner = new BlockBoundaryScanner();
+        for (String line : content.split("\n", -1)) {
+            scanner.accept(line);
+        }
+        return scanner;
+    }
+
+    @Test
+    void scanSafeContent()
+    {
+        BlockBoundaryScanner scanner = scan("= Doc\n:a: b\n\n== One\n\n:c: d\n\nText\n\n----\n== Code\n----\n\n== Two");
+        assertTrue(scanner.isSafe());
+        assertTrue(scanner.hasSections());
+
+        assertFalse(scan("Text\n\n* item").hasSections());
+    }
+
+    @Test
+    void scanUnsafeContent()
+    {
+        // Cross reference.
+        assertFalse(scan("== One\n\n<<_two>>\n\n== Two").isSafe());
+        // Duplicate section identifiers.
+        assertFalse(scan("== One\n\n== one").isSafe());
+        // Attribute entry without document header.
+        assertFalse(scan("Text\n\n:a: b").isSafe());
+        // Attribute entry inside a paragraph.
+        assertFalse(scan("= Doc\n\nText\n:a: b").isSafe());
+        // Section title with block attributes.
+        assertFalse(scan("== One\n\n[appendix]\n\n== Two").isSafe());
+        // Two-line section title.
+        assertFalse(scan("Two\n---").isSafe());
+        // Level 0 section.
+        assertFalse(scan("= Doc\n\n= Part").isSafe());
+    }
+}
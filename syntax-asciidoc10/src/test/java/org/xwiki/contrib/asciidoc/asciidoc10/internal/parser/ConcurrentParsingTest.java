@@ -0,0 +1,389 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.junit.jupiter.api.Test;
+import org.reflections.Reflections;
+import org.reflections.scanners.ResourcesScanner;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.StreamParser;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.wiki.WikiModel;
+import org.xwiki.test.annotation.AllComponents;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stress test of the singleton parsers ({@link AsciiDocStreamParser}, {@link HTMLParser} and {@link PlainParser}),
+ * which share the AsciiDoctor runtimes and the injected parsers: a mixed corpus is parsed from an increasing number of
+ * threads, checking that every parse produces the same events as when parsed from a single thread, and that the
+ * throughput doesn't collapse when threads are added. The throughput and the latencies are logged for each thread
+ * count. Since they depend on the load of the machine running the test, the scaling is checked on the median of
+ * several runs, and only when there are several processors.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+@AllComponents
+class ConcurrentParsingTest
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentParsingTest.class);
+
+    private static final int[] THREAD_COUNTS = { 1, 2, 4, 8 };
+
+    /**
+     * The number of times each thread parses the whole corpus.
+     */
+    private static final int ROUNDS = 3;
+
+    /**
+     * The number of times the whole corpus is parsed before measuring, so that JRuby code gets compiled.
+     */
+    private static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * The number of runs measured for each thread count, whose median throughput is compared.
+     */
+    private static final int MEASURED_RUNS = 3;
+
+    /**
+     * The minimal ratio between the throughput with several threads and the throughput with a single thread. Adding
+     * threads is not expected to scale linearly (the runtime pool is bounded and the machine may have few cores) but
+     * it should never make the parsing much slower than when it's serialized.
+     */
+    private static final double MIN_SCALING = 0.5;
+
+    private static final long TIMEOUT_MINUTES = 10L;
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private static final double NANOS_PER_MILLISECOND = 1e6;
+
+    private static final double MEDIAN = 0.5;
+
+    private static final double TAIL = 0.99;
+
+    private static final String RESOURCE_PREFIX = "asciidoc10/";
+
+    private static final String INPUT_DIRECTIVE = ".input|";
+
+    private static final String EXPECT_DIRECTIVE = ".expect|";
+
+    private static final String COMMENT_DIRECTIVE = ".#";
+
+    private static final String ASCIIDOC_INPUT = INPUT_DIRECTIVE + "asciidoc/1.0";
+
+    private static final String[] DOCUMENT_RESOURCES = { "simple/bold/bold1.in.1.txt", "simple/link/link2.in.txt",
+        "simple/list/list1.in.txt", "simple/list/list1.in.1.txt", "simple/list/list2.in.txt",
+        "simple/list/list3.in.txt" };
+
+    /**
+     * The test files of the specific rendering test suites, whose AsciiDoc inputs are added to the corpus.
+     */
+    private static final String TEST_RESOURCE_PACKAGE = "asciidoc10.specific";
+
+    private static final Pattern TEST_RESOURCE_PATTERN = Pattern.compile(".*\\.test");
+
+    private static final String[] HTML_FRAGMENTS = { "Some <strong>bold</strong> and <em>italic</em> text.",
+        "See <a href=\"https://www.xwiki.org\">XWiki</a> or <a href=\"mailto:john@xwiki.org\">John</a>.",
+        "Some <code>code</code>, <mark>highlighted</mark> text and a<br>\nline break.",
+        "<span class=\"image\"><img src=\"image.png\" alt=\"Image\"></span> with a caption" };
+
+    private static final String[] TITLES = { "Introduction", "Some *bold* title", "Title with a link:Page[label]",
+        "Installation & Configuration (advanced)" };
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    @FunctionalInterface
+    private interface ParseTask
+    {
+        void parse(Listener listener) throws Exception;
+    }
+
+    private static final class Sample
+    {
+        private final String name;
+
+        private final ParseTask task;
+
+        private String expected;
+
+        Sample(String name, ParseTask task)
+        {
+            this.name = name;
+            this.task = task;
+        }
+    }
+
+    private static final class Run
+    {
+        private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+        private long[] latencies;
+
+        private long duration;
+
+        double getThroughput()
+        {
+            return this.latencies.length * NANOS_PER_SECOND / this.duration;
+        }
+
+        double getLatency(double percentile)
+        {
+            int index = Math.max(0, (int) Math.ceil(percentile * this.latencies.length) - 1);
+            return this.latencies[index] / NANOS_PER_MILLISECOND;
+        }
+    }
+
+    @BeforeComponent
+    void configure(MockitoComponentManager manager) throws Exception
+    {
+        manager.registerMockComponent(WikiModel.class);
+        ConfigurationSource configuration = manager.registerMockComponent(ConfigurationSource.class, "xwikiproperties");
+        when(configuration.getProperty(anyString(), any(Object.class))).then(invocation -> invocation.getArgument(1));
+    }
+
+    @Test
+    void parseConcurrently() throws Exception
+    {
+        List<Sample> corpus = createCorpus();
+        for (Sample sample : corpus) {
+            sample.expected = print(sample.task);
+        }
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(corpus, 1);
+        }
+
+        double singleThreadThroughput = 0;
+        for (int threadCount : THREAD_COUNTS) {
+            double[] throughputs = new double[MEASURED_RUNS];
+            for (int i = 0; i < MEASURED_RUNS; i++) {
+                Run run = run(corpus, threadCount);
+                LOGGER.info("[{}] threads: [{}] parses/s, median latency [{}] ms, p99 latency [{}] ms", threadCount,
+                    String.format("%.1f", run.getThroughput()), String.format("%.2f", run.getLatency(MEDIAN)),
+                    String.format("%.2f", run.getLatency(TAIL)));
+
+                assertEquals(Collections.emptyList(), new ArrayList<>(run.failures),
+                    String.format("Parses that differ from the single-threaded ones with [%s] threads", threadCount));
+                throughputs[i] = run.getThroughput();
+            }
+            Arrays.sort(throughputs);
+            double throughput = throughputs[MEASURED_RUNS / 2];
+            if (threadCount == 1) {
+                singleThreadThroughput = throughput;
+            } else if (Runtime.getRuntime().availableProcessors() > 1) {
+                // Threads can only compete for a single processor, so there's no scaling to check then.
+                assertTrue(throughput >= singleThreadThroughput * MIN_SCALING,
+                    String.format("The median throughput with [%s] threads ([%.1f] parses/s) collapsed compared to a "
+                        + "single thread ([%.1f] parses/s)", threadCount, throughput, singleThreadThroughput));
+            }
+        }
+    }
+
+    private Run run(List<Sample> corpus, int threadCount) throws Exception
+    {
+        Run run = new Run();
+        int parseCount = ROUNDS * corpus.size();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                // Each thread starts at a different position so that different contents are parsed at the same time.
+                int offset = i * corpus.size() / threadCount;
+                futures.add(executor.submit(() -> parse(corpus, offset, parseCount, start, run.failures)));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            List<long[]> latencies = new ArrayList<>();
+            for (Future<long[]> future : futures) {
+                latencies.add(future.get(TIMEOUT_MINUTES, TimeUnit.MINUTES));
+            }
+            run.duration = System.nanoTime() - begin;
+            run.latencies = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        } finally {
+            executor.shutdownNow();
+        }
+        return run;
+    }
+
+    private long[] parse(List<Sample> corpus, int offset, int parseCount, CountDownLatch start,
+        Queue<String> failures) throws InterruptedException
+    {
+        long[] latencies = new long[parseCount];
+        start.await();
+        for (int i = 0; i < parseCount; i++) {
+            Sample sample = corpus.get((offset + i) % corpus.size());
+            long begin = System.nanoTime();
+            try {
+                String actual = print(sample.task);
+                latencies[i] = System.nanoTime() - begin;
+                if (!sample.expected.equals(actual)) {
+                    failures.add(sample.name);
+                }
+            } catch (Exception e) {
+                latencies[i] = System.nanoTime() - begin;
+                failures.add(String.format("%s: %s", sample.name, ExceptionUtils.getRootCauseMessage(e)));
+            }
+        }
+        return latencies;
+    }
+
+    private String print(ParseTask task) throws Exception
+    {
+        PrintRendererFactory rendererFactory =
+            this.componentManager.getInstance(PrintRendererFactory.class, "event/1.0");
+        DefaultWikiPrinter printer = new DefaultWikiPrinter();
+        task.parse(rendererFactory.createRenderer(printer));
+        return printer.toString();
+    }
+
+    private List<Sample> createCorpus() throws Exception
+    {
+        StreamParser streamParser = this.componentManager.getInstance(StreamParser.class, "asciidoc/1.0");
+        Parser htmlParser = this.componentManager.getInstance(Parser.class, "html");
+        Parser plainParser = this.componentManager.getInstance(Parser.class, "plain");
+
+        List<String> documents = new ArrayList<>();
+        for (String resource : DOCUMENT_RESOURCES) {
+            documents.add(readResource(resource));
+        }
+        for (String resource : findTestResources()) {
+            documents.addAll(readTestInputs(readResource(resource)));
+        }
+        documents.add(generateDocument());
+
+        List<Sample> corpus = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) {
+            String document = documents.get(i);
+            corpus.add(new Sample("document " + i,
+                listener -> streamParser.parse(new StringReader(document), listener)));
+        }
+        for (int i = 0; i < HTML_FRAGMENTS.length; i++) {
+            String html = HTML_FRAGMENTS[i];
+            corpus.add(new Sample("HTML " + i, listener -> htmlParser.parse(html, listener, true)));
+        }
+        for (int i = 0; i < TITLES.length; i++) {
+            String title = TITLES[i];
+            corpus.add(new Sample("title " + i, listener -> plainParser.parse(title, listener, true)));
+        }
+        return corpus;
+    }
+
+    private List<String> readTestInputs(String test) throws Exception
+    {
+        List<String> inputs = new ArrayList<>();
+        StringBuilder input = null;
+        BufferedReader reader = new BufferedReader(new StringReader(test));
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.startsWith(INPUT_DIRECTIVE) || line.startsWith(EXPECT_DIRECTIVE)) {
+                if (input != null) {
+                    inputs.add(input.toString());
+                }
+                input = line.equals(ASCIIDOC_INPUT) ? new StringBuilder() : null;
+            } else if (input != null && !line.startsWith(COMMENT_DIRECTIVE)) {
+                // Lines starting with a dot are escaped in the test files.
+                input.append(line.startsWith("\\.") ? line.substring(1) : line).append('\n');
+            }
+        }
+        return inputs;
+    }
+
+    /**
+     * @return a larger document mixing most of the supported syntax, so that some parses take much longer than others
+     */
+    private String generateDocument()
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            builder.append("== Section ").append(i).append("\n\n");
+            builder.append("Paragraph with *bold*, _italic_, `code` and a https://www.xwiki.org[link].\n\n");
+            builder.append("* Item\n** Nested item with link:Page[a page]\n. Numbered\n\n");
+            builder.append("NOTE: An admonition.\n\n");
+            builder.append("|===\n|Name |Value\n\n|one |*1*\n|===\n\n");
+            builder.append("----\nverbatim\n----\n\n");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Find the test files on the classpath, the same way the rendering test suites do, so that the new ones are
+     * stress tested too.
+     *
+     * @return the paths of the test files, relative to the {@code asciidoc10} resource directory
+     */
+    private List<String> findTestResources()
+    {
+        Reflections reflections = new Reflections(new ConfigurationBuilder().setScanners(new ResourcesScanner())
+            .setUrls(ClasspathHelper.forPackage(""))
+            .filterInputsBy(new FilterBuilder.Include(FilterBuilder.prefix(TEST_RESOURCE_PACKAGE))));
+        Set<String> resources = reflections.getResources(TEST_RESOURCE_PATTERN);
+        List<String> result = new ArrayList<>();
+        for (String resource : resources) {
+            result.add(resource.substring(RESOURCE_PREFIX.length()));
+        }
+        // Sort them so that the corpus doesn't depend on the classpath scanning order.
+        Collections.sort(result);
+        return result;
+    }
+
+    private String readResource(String resource) throws Exception
+    {
+        try (InputStream stream = getClass().getResourceAsStream('/' + RESOURCE_PREFIX + resource)) {
+            return IOUtils.toString(stream, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.parser.ParseException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for {@link ContentChunker}.
+ *
+ * @version $Id$
+ */
+class ContentChunkerTest
+{
+    private static final String HEADER = "= Doc\n:product: XWiki\n";
+
+    private List<String> chunk(String content, boolean hasSections, int chunkSize) throws ParseException
+    {
+        List<String> chunks = new ArrayList<>();
+        ContentChunker chunker = new ContentChunker(hasSections, chunkSize, chunks::add);
+        for (String line : content.split("\n", -1)) {
+            chunker.accept(line);
+        }
+        chunker.finish();
+        return chunks;
+    }
+
+    @Test
+    void chunkAtBlockBoundaries() throws Exception
+    {
+        String content = HEADER + "\nPreamble.\n\n== One\n\nFirst {product}.\n\n:version: 1.0\n\n== Two\n\nSecond.";
+
+        // The preamble stays with the first section, the chunk starting in the middle of the first section is cut
+        // before the second section and the attribute entry is prepended to the following chunks.
+        assertEquals(Arrays.asList(HEADER + "\n\n\nPreamble.\n\n== One\n\n",
+            HEADER + "\n\nFirst {product}.\n\n:version: 1.0\n\n", HEADER + "\n:version: 1.0\n\n== Two\n\n",
+            HEADER + "\n:version: 1.0\n\nSecond.\n"), chunk(content, true, 1));
+
+        assertEquals(Collections.singletonList(HEADER + "\n\n" + content.substring(HEADER.length()) + "\n"),
+            chunk(content, true, 1000));
+    }
+
+    @Test
+    void chunkWithoutHeader() throws Exception
+    {
+        assertEquals(Arrays.asList("----\n\nCode\n\n----\n\n", "After\n"),
+            chunk("----\n\nCode\n\n----\n\nAfter", false, 1));
+    }
+
+    @Test
+    void keepListsTogether() throws Exception
+    {
+        assertEquals(Collections.singletonList("* a\n\n* b\n\nText\n"), chunk("* a\n\n* b\n\nText", false, 1));
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.parser.StreamParser;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultAsciiDocAsyncParser}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultAsciiDocAsyncParserTest
+{
+    @InjectMockComponents
+    private DefaultAsciiDocAsyncParser asyncParser;
+
+    @MockComponent
+    @Named("asciidoc/1.0")
+    private Parser parser;
+
+    @MockComponent
+    @Named("asciidoc/1.0")
+    private StreamParser streamParser;
+
+    @MockComponent
+    private AsciiDocConfiguration configuration;
+
+    private final Reader source = new StringReader("content");
+
+    @BeforeComponent
+    void configure()
+    {
+        when(this.configuration.getAsyncThreadCount()).thenReturn(1);
+        when(this.configuration.getAsyncQueueSize()).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        this.asyncParser.dispose();
+    }
+
+    @Test
+    void parse() throws Exception
+    {
+        XDOM xdom = mock(XDOM.class);
+        when(this.parser.parse(this.source)).thenReturn(xdom);
+
+        assertSame(xdom, this.asyncParser.parse(this.source).get());
+    }
+
+    @Test
+    void parseWithListener() throws Exception
+    {
+        Listener listener = mock(Listener.class);
+
+        assertNull(this.asyncParser.parse(this.source, listener).get());
+        verify(this.streamParser).parse(this.source, listener);
+    }
+
+    @Test
+    void parseFailure() throws Exception
+    {
+        ParseException exception = new ParseException("error");
+        when(this.parser.parse(this.source)).thenThrow(exception);
+
+        ExecutionException thrown =
+            assertThrows(ExecutionException.class, () -> this.asyncParser.parse(this.source).get());
+        assertSame(exception, thrown.getCause());
+    }
+
+    @Test
+    void parseRejectsContentsWhenTheQueueIsFull() throws Exception
+    {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(this.parser.parse(this.source)).then(invocation -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+
+        CompletableFuture<XDOM> running = this.asyncParser.parse(this.source);
+        started.await();
+        CompletableFuture<XDOM> queued = this.asyncParser.parse(this.source);
+        CompletableFuture<XDOM> rejected = this.asyncParser.parse(this.source);
+
+        assertEquals(1, this.asyncParser.getActiveCount());
+        assertEquals(1, this.asyncParser.getQueuedCount());
+        assertEquals(1, this.asyncParser.getRejectedCount());
+        ExecutionException thrown = assertThrows(ExecutionException.class, rejected::get);
+        assertTrue(thrown.getCause() instanceof ParseException);
+
+        release.countDown();
+        running.get();
+        queued.get();
+    }
+
+    @Test
+    void disposeFailsTheWaitingParsings() throws Exception
+    {
+        CountDownLatch started = new CountDownLatch(1);
+        when(this.parser.parse(this.source)).then(invocation -> {
+            started.countDown();
+            // Interrupted by the dispose.
+            new CountDownLatch(1).await();
+            return null;
+        });
+
+        CompletableFuture<XDOM> running = this.asyncParser.parse(this.source);
+        started.await();
+        CompletableFuture<XDOM> queued = this.asyncParser.parse(this.source);
+
+        this.asyncParser.dispose();
+
+        assertThrows(ExecutionException.class, running::get);
+        ExecutionException thrown = assertThrows(ExecutionException.class, queued::get);
+        assertEquals("The AsciiDoc asynchronous parser has been disposed", thrown.getCause().getMessage());
+
+        thrown = assertThrows(ExecutionException.class, () -> this.asyncParser.parse(this.source).get());
+        assertEquals("The AsciiDoc asynchronous parser has been disposed", thrown.getCause().getMessage());
+        assertEquals(0, this.asyncParser.getRejectedCount());
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.parser.StreamParser;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultAsciiDocBatchParser}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultAsciiDocBatchParserTest
+{
+    @InjectMockComponents
+    private DefaultAsciiDocBatchParser batchParser;
+
+    @MockComponent
+    @Named("asciidoc/1.0")
+    private Parser parser;
+
+    @MockComponent
+    @Named("asciidoc/1.0")
+    private StreamParser streamParser;
+
+    @MockComponent
+    private AsciiDocConfiguration configuration;
+
+    private final Reader first = new StringReader("first");
+
+    private final Reader second = new StringReader("second");
+
+    @BeforeComponent
+    void configure()
+    {
+        when(this.configuration.getBatchThreadCount()).thenReturn(2);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        this.batchParser.dispose();
+    }
+
+    @Test
+    void parseReportsFailuresPerContent() throws Exception
+    {
+        XDOM xdom = mock(XDOM.class);
+        ParseException exception = new ParseException("error");
+        when(this.parser.parse(this.first)).thenReturn(xdom);
+        when(this.parser.parse(this.second)).thenThrow(exception);
+
+        List<BatchParseResult> results = this.batchParser.parse(Arrays.asList(this.first, this.second));
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertSame(xdom, results.get(0).getXDOM());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals(1, results.get(1).getIndex());
+        assertSame(exception, results.get(1).getException());
+    }
+
+    @Test
+    void parseLargeBatch() throws Exception
+    {
+        XDOM xdom = mock(XDOM.class);
+        when(this.parser.parse(any(Reader.class))).thenReturn(xdom);
+        List<Reader> sources = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            sources.add(new StringReader("content " + i));
+        }
+
+        List<Integer> indexes = new ArrayList<>();
+        this.batchParser.parse(sources, result -> {
+            // Two contents per thread are parsed ahead of the consumer.
+            assertTrue(mockingDetails(this.parser).getInvocations().size() <= result.getIndex() + 4);
+            assertSame(xdom, result.getXDOM());
+            indexes.add(result.getIndex());
+        });
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), indexes);
+    }
+
+    @Test
+    void parseWithListeners() throws Exception
+    {
+        Listener firstListener = mock(Listener.class);
+        Listener secondListener = mock(Listener.class);
+        doThrow(new IllegalStateException("error")).when(this.streamParser).parse(this.second, secondListener);
+
+        List<BatchParseResult> results = this.batchParser.parse(Arrays.asList(this.first, this.second),
+            index -> index == 0 ? firstListener : secondListener);
+
+        verify(this.streamParser).parse(this.first, firstListener);
+        assertTrue(results.get(0).isSuccess());
+        assertNull(results.get(0).getXDOM());
+        assertEquals("error", results.get(1).getException().getCause().getMessage());
+    }
+}
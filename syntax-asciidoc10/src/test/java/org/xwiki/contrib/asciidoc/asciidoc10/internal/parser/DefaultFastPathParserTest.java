@@ -0,0 +1,140 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.rendering.listener.QueueListener;
+import org.xwiki.rendering.parser.StreamParser;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.wiki.WikiModel;
+import org.xwiki.test.annotation.AllComponents;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultFastPathParser}, checking that it produces the same events as when the content is
+ * loaded by AsciiDoctor.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+@AllComponents
+class DefaultFastPathParserTest
+{
+    private static final String FAST_PATH_PROPERTY = "asciidoc.fastPathParsing";
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    private ConfigurationSource configuration;
+
+    @BeforeComponent
+    void configure(MockitoComponentManager manager) throws Exception
+    {
+        manager.registerMockComponent(WikiModel.class);
+        this.configuration = manager.registerMockComponent(ConfigurationSource.class, "xwikiproperties");
+        when(this.configuration.getProperty(anyString(), any(Object.class)))
+            .then(invocation -> invocation.getArgument(1));
+    }
+
+    @Test
+    void parseSupportedResources() throws Exception
+    {
+        assertSameEvents(readResource("simple/bold/bold1.in.1.txt"), true);
+        assertSameEvents(readResource("simple/list/list1.in.txt"), true);
+        assertSameEvents(readResource("simple/list/list1.in.1.txt"), true);
+        assertSameEvents(readResource("simple/list/list2.in.txt"), true);
+    }
+
+    @Test
+    void parseUnsupportedResources() throws Exception
+    {
+        assertSameEvents(readResource("simple/link/link2.in.txt"), false);
+        // List separated by a line comment.
+        assertSameEvents(readResource("simple/list/list3.in.txt"), false);
+    }
+
+    @Test
+    void parseSupported() throws Exception
+    {
+        assertSameEvents(
+            "== Title\n\nSome *bold* and _italic_\ntext.\n\n=== Sub-section, with: punctuation (and more).\nText",
+            true);
+        assertSameEvents("== Same title\n\n== Same title\n\n== Same title", true);
+        assertSameEvents("== Title\n* First\nitem\n\n** Nested\n. Numbered\n* Second\n\nParagraph.", true);
+        assertSameEvents("Line with trailing spaces   \r\nand carriage return.\r\n", true);
+    }
+
+    @Test
+    void parseUnsupported() throws Exception
+    {
+        assertSameEvents("= Document title\n\nParagraph", false);
+        assertSameEvents("=== Out of sequence\n\nParagraph", false);
+        assertSameEvents("== Title with `code`", false);
+        assertSameEvents("NOTE: Admonition", false);
+        assertSameEvents("Paragraph\n* not a list item", false);
+        assertSameEvents("Term:: Definition", false);
+        assertSameEvents("a. Item", false);
+        assertSameEvents("Hard +\nline break", false);
+        assertSameEvents("* Item\n+\ncontinuation", false);
+        assertSameEvents("[source]\n----\ncode\n----", false);
+        assertSameEvents("Visit https://www.xwiki.org", false);
+    }
+
+    private void assertSameEvents(String content, boolean supported) throws Exception
+    {
+        FastPathParser fastPathParser = this.componentManager.getInstance(FastPathParser.class);
+        assertEquals(supported, fastPathParser.parse(content, new QueueListener(), new ParseGuard(0, 0, 0)), content);
+
+        assertEquals(parse(content, false), parse(content, true), content);
+    }
+
+    private String parse(String content, boolean fastPath) throws Exception
+    {
+        when(this.configuration.getProperty(FAST_PATH_PROPERTY, false)).thenReturn(fastPath);
+        StreamParser parser = this.componentManager.getInstance(StreamParser.class, "asciidoc/1.0");
+        PrintRendererFactory rendererFactory =
+            this.componentManager.getInstance(PrintRendererFactory.class, "event/1.0");
+        DefaultWikiPrinter printer = new DefaultWikiPrinter();
+        parser.parse(new StringReader(content), rendererFactory.createRenderer(printer));
+        return printer.toString();
+    }
+
+    private String readResource(String resource) throws Exception
+    {
+        try (InputStream stream = getClass().getResourceAsStream("/asciidoc10/" + resource)) {
+            return IOUtils.toString(stream, StandardCharsets.UTF_8);
+        }
+    }
+}
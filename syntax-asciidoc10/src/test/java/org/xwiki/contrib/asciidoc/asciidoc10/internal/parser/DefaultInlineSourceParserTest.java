@@ -0,0 +1,98 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.xwiki.rendering.listener.Format;
+import org.xwiki.rendering.listener.Listener;
+
+import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Unit tests for {@link DefaultInlineSourceParser}.
+ *
+ * @version $Id$
+ */
+class DefaultInlineSourceParserTest
+{
+    private final DefaultInlineSourceParser parser = new DefaultInlineSourceParser();
+
+    private final Listener listener = mock(Listener.class);
+
+    @Test
+    void parsePlainTextInParagraph()
+    {
+        assertTrue(this.parser.parse("Hello  world,\nagain!", this.listener, false));
+
+        InOrder order = inOrder(this.listener);
+        order.verify(this.listener).beginParagraph(emptyMap());
+        order.verify(this.listener).onWord("Hello");
+        order.verify(this.listener).onSpace();
+        order.verify(this.listener).onWord("world");
+        order.verify(this.listener).onSpecialSymbol(',');
+        order.verify(this.listener).onSpace();
+        order.verify(this.listener).onWord("again");
+        order.verify(this.listener).onSpecialSymbol('!');
+        order.verify(this.listener).endParagraph(emptyMap());
+        order.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void parseFormattingWithoutTopLevelBlock()
+    {
+        assertTrue(this.parser.parse("normal, _italic_, *bold*.", this.listener, true));
+
+        InOrder order = inOrder(this.listener);
+        order.verify(this.listener).onWord("normal");
+        order.verify(this.listener).onSpecialSymbol(',');
+        order.verify(this.listener).onSpace();
+        order.verify(this.listener).beginFormat(Format.ITALIC, emptyMap());
+        order.verify(this.listener).onWord("italic");
+        order.verify(this.listener).endFormat(Format.ITALIC, emptyMap());
+        order.verify(this.listener).onSpecialSymbol(',');
+        order.verify(this.listener).onSpace();
+        order.verify(this.listener).beginFormat(Format.BOLD, emptyMap());
+        order.verify(this.listener).onWord("bold");
+        order.verify(this.listener).endFormat(Format.BOLD, emptyMap());
+        order.verify(this.listener).onSpecialSymbol('.');
+        order.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void parseUnsupportedSyntax()
+    {
+        assertFalse(this.parser.parse("link:reference[label]", this.listener, false));
+        assertFalse(this.parser.parse("see http://xwiki.org", this.listener, false));
+        assertFalse(this.parser.parse("**unconstrained** bold", this.listener, false));
+        assertFalse(this.parser.parse("snake_case", this.listener, false));
+        assertFalse(this.parser.parse("*not closed", this.listener, false));
+        assertFalse(this.parser.parse("A (C) notice", this.listener, false));
+        assertFalse(this.parser.parse("It's an apostrophe", this.listener, false));
+        assertFalse(this.parser.parse("`mono`", this.listener, false));
+
+        verifyNoInteractions(this.listener);
+    }
+}
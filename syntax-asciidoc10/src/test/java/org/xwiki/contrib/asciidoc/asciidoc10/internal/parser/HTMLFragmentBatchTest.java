@@ -0,0 +1,133 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.ParagraphBlock;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.ListType;
+import org.xwiki.rendering.listener.Listener;
+
+import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link HTMLFragmentBatch}.
+ *
+ * @version $Id$
+ */
+class HTMLFragmentBatchTest
+{
+    private final HTMLFragmentBatch batch = new HTMLFragmentBatch();
+
+    private final Listener listener = mock(Listener.class);
+
+    private List<Block> prepare()
+    {
+        this.batch.beginList(ListType.BULLETED, emptyMap());
+        this.batch.beginListItem();
+        this.batch.defer("first", true);
+        this.batch.endListItem();
+        this.batch.endList(ListType.BULLETED, emptyMap());
+        this.batch.defer("second", false);
+
+        return Arrays.asList(paragraph("first", 0), paragraph("second", 1));
+    }
+
+    private Block paragraph(String word, int index)
+    {
+        return new ParagraphBlock(Collections.singletonList(new WordBlock(word)),
+            Collections.singletonMap("id", "asciidoc-fragment-" + index));
+    }
+
+    @Test
+    void getHTML()
+    {
+        assertFalse(this.batch.hasFragments());
+        prepare();
+
+        assertTrue(this.batch.hasFragments());
+        assertEquals("<p id=\"asciidoc-fragment-0\">first</p><p id=\"asciidoc-fragment-1\">second</p>",
+            this.batch.getHTML());
+    }
+
+    @Test
+    void splitAndReplay()
+    {
+        List<Block> paragraphs = prepare();
+        XDOM xdom = new XDOM(paragraphs);
+
+        List<Block> split = this.batch.split(xdom);
+        assertEquals(2, split.size());
+        assertSame(paragraphs.get(0), split.get(0));
+
+        this.batch.replay(this.listener, split);
+
+        InOrder order = inOrder(this.listener);
+        order.verify(this.listener).beginList(ListType.BULLETED, emptyMap());
+        order.verify(this.listener).beginListItem();
+        // The top level paragraph is removed.
+        order.verify(this.listener).onWord("first");
+        order.verify(this.listener).endListItem();
+        order.verify(this.listener).endList(ListType.BULLETED, emptyMap());
+        // The identifier of the paragraph is removed.
+        order.verify(this.listener).beginParagraph(emptyMap());
+        order.verify(this.listener).onWord("second");
+        order.verify(this.listener).endParagraph(emptyMap());
+        order.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void splitFailsWhenTheFragmentsDontMatch()
+    {
+        List<Block> paragraphs = prepare();
+
+        assertNull(this.batch.split(new XDOM(paragraphs.subList(0, 1))));
+        assertNull(this.batch.split(new XDOM(Arrays.asList(paragraphs.get(1), paragraphs.get(0)))));
+    }
+
+    @Test
+    void replayWithFragmentParser() throws Exception
+    {
+        prepare();
+        Parser fragmentParser = mock(Parser.class);
+
+        this.batch.replay(this.listener, fragmentParser);
+
+        InOrder order = inOrder(this.listener, fragmentParser);
+        order.verify(this.listener).beginListItem();
+        order.verify(fragmentParser).parse("first", this.listener, true);
+        order.verify(this.listener).endListItem();
+        order.verify(fragmentParser).parse("second", this.listener, false);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics.ParseMetrics;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+import org.xwiki.rendering.wiki.WikiModel;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static java.util.Collections.emptyMap;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link HTMLParser}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class HTMLParserTest
+{
+    private static final String HTML = "<a href=\"Page\">Page</a>";
+
+    @InjectMockComponents
+    private HTMLParser htmlParser;
+
+    @MockComponent
+    @Named(HTMLFragmentParser.HINT)
+    private Parser fragmentParser;
+
+    @MockComponent
+    private ParseMetrics parseMetrics;
+
+    @MockComponent
+    @Named("context")
+    private ComponentManager contextComponentManager;
+
+    @Test
+    void parseNormalizesTheLinks() throws Exception
+    {
+        when(this.contextComponentManager.hasComponent(WikiModel.class)).thenReturn(true);
+        ResourceReference reference = new ResourceReference("Page", ResourceType.PATH);
+        doAnswer(invocation -> {
+            Listener fragmentListener = invocation.getArgument(1);
+            fragmentListener.beginLink(reference, false, emptyMap());
+            fragmentListener.endLink(reference, false, emptyMap());
+            return null;
+        }).when(this.fragmentParser).parse(eq(HTML), any(), eq(true));
+        Listener listener = mock(Listener.class);
+
+        this.htmlParser.parse(HTML, listener, true);
+
+        ResourceReference expected = new ResourceReference("Page", ResourceType.DOCUMENT);
+        expected.setTyped(false);
+        verify(listener).beginLink(expected, false, emptyMap());
+        verify(listener).endLink(expected, false, emptyMap());
+    }
+}
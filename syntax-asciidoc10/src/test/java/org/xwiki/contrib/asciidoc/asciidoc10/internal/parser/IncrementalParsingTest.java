@@ -0,0 +1,103 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.cache.SectionEventCache;
+import org.xwiki.rendering.parser.StreamParser;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.wiki.WikiModel;
+import org.xwiki.test.annotation.AllComponents;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verify that the incremental parsing of {@link AsciiDocStreamParser} only parses again the edited sections and
+ * produces the same events as a full parsing.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+@AllComponents
+class IncrementalParsingTest
+{
+    private static final String INCREMENTAL_PARSING_PROPERTY = "asciidoc.incrementalParsing.enabled";
+
+    private static final String CONTENT = "Preamble *text*\n\n== First\n\nFirst text\n\n=== Sub-section\n\n"
+        + "* item\n* other item\n\n== Second\n\nSecond https://xwiki.org[link]\n\n== Third\n\n|===\n|a |b\n|===";
+
+    private static final String EDITED_CONTENT = CONTENT.replace("Second https", "Edited second https");
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    private ConfigurationSource configuration;
+
+    @BeforeComponent
+    void configure(MockitoComponentManager manager) throws Exception
+    {
+        manager.registerMockComponent(WikiModel.class);
+        this.configuration = manager.registerMockComponent(ConfigurationSource.class, "xwikiproperties");
+        when(this.configuration.getProperty(anyString(), any(Object.class)))
+            .then(invocation -> invocation.getArgument(1));
+    }
+
+    private String parse(String content, boolean incremental) throws Exception
+    {
+        when(this.configuration.getProperty(INCREMENTAL_PARSING_PROPERTY, false)).thenReturn(incremental);
+        StreamParser parser = this.componentManager.getInstance(StreamParser.class, "asciidoc/1.0");
+        PrintRendererFactory rendererFactory =
+            this.componentManager.getInstance(PrintRendererFactory.class, "event/1.0");
+        DefaultWikiPrinter printer = new DefaultWikiPrinter();
+        parser.parse(new StringReader(content), rendererFactory.createRenderer(printer));
+        return printer.toString();
+    }
+
+    @Test
+    void parseEditedSectionOnly() throws Exception
+    {
+        SectionEventCache cache = this.componentManager.getInstance(SectionEventCache.class);
+
+        // The preamble is kept with the first section.
+        assertEquals(parse(CONTENT, false), parse(CONTENT, true));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+
+        assertEquals(parse(EDITED_CONTENT, false), parse(EDITED_CONTENT, true));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+
+        // Nothing to parse again when the content didn't change.
+        assertEquals(parse(CONTENT, false), parse(CONTENT, true));
+        assertEquals(5, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+    }
+}
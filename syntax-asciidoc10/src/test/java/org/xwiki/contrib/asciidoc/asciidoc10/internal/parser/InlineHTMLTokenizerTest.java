@@ -0,0 +1,109 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.xwiki.rendering.listener.Format;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+
+import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Unit tests for {@link InlineHTMLTokenizer}.
+ *
+ * @version $Id$
+ */
+class InlineHTMLTokenizerTest
+{
+    private final InlineHTMLTokenizer tokenizer = new InlineHTMLTokenizer();
+
+    private final Listener listener = mock(Listener.class);
+
+    @Test
+    void parseFormattingAndEntities()
+    {
+        assertTrue(this.tokenizer.parse("This is <strong>bold &amp; <em>italic</em></strong>", this.listener, false));
+
+        InOrder order = inOrder(this.listener);
+        order.verify(this.listener).beginParagraph(emptyMap());
+        order.verify(this.listener).onWord("This");
+        order.verify(this.listener).onSpace();
+        order.verify(this.listener).onWord("is");
+        order.verify(this.listener).onSpace();
+        order.verify(this.listener).beginFormat(Format.BOLD, emptyMap());
+        order.verify(this.listener).onWord("bold");
+        order.verify(this.listener).onSpace();
+        order.verify(this.listener).onSpecialSymbol('&');
+        order.verify(this.listener).onSpace();
+        order.verify(this.listener).beginFormat(Format.ITALIC, emptyMap());
+        order.verify(this.listener).onWord("italic");
+        order.verify(this.listener).endFormat(Format.ITALIC, emptyMap());
+        order.verify(this.listener).endFormat(Format.BOLD, emptyMap());
+        order.verify(this.listener).endParagraph(emptyMap());
+        order.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void parseLinks()
+    {
+        assertTrue(this.tokenizer.parse("<a href=\"http://xwiki.org\" class=\"bare\">xwiki</a> "
+            + "<a href=\"reference\">label</a> <a href=\"mailto:john@doe.com\">john</a>", this.listener, true));
+
+        ResourceReference urlReference = new ResourceReference("http://xwiki.org", ResourceType.URL);
+        ResourceReference documentReference = new ResourceReference("reference", ResourceType.DOCUMENT);
+        documentReference.setTyped(false);
+        ResourceReference mailtoReference = new ResourceReference("john@doe.com", ResourceType.MAILTO);
+
+        InOrder order = inOrder(this.listener);
+        order.verify(this.listener).beginLink(urlReference, false, emptyMap());
+        order.verify(this.listener).onWord("xwiki");
+        order.verify(this.listener).endLink(urlReference, false, emptyMap());
+        order.verify(this.listener).onSpace();
+        order.verify(this.listener).beginLink(documentReference, false, emptyMap());
+        order.verify(this.listener).onWord("label");
+        order.verify(this.listener).endLink(documentReference, false, emptyMap());
+        order.verify(this.listener).onSpace();
+        order.verify(this.listener).beginLink(mailtoReference, false, emptyMap());
+        order.verify(this.listener).onWord("john");
+        order.verify(this.listener).endLink(mailtoReference, false, emptyMap());
+        order.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void parseUnsupportedHTML()
+    {
+        assertFalse(this.tokenizer.parse("<code>mono</code>", this.listener, false));
+        assertFalse(this.tokenizer.parse("line<br>\nbreak", this.listener, false));
+        assertFalse(this.tokenizer.parse("<strong> spaced</strong>", this.listener, false));
+        assertFalse(this.tokenizer.parse("it&#8217;s", this.listener, false));
+        assertFalse(this.tokenizer.parse("<strong>unclosed", this.listener, false));
+        assertFalse(this.tokenizer.parse("<a href=\"mailto:a@b.c\" title=\"t\">a</a>", this.listener, false));
+
+        verifyNoInteractions(this.listener);
+    }
+}
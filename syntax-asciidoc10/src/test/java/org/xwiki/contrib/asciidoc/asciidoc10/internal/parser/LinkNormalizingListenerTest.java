@@ -0,0 +1,102 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics.ParseCounter;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics.ParseMetrics;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+
+import static java.util.Collections.emptyMap;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link LinkNormalizingListener}.
+ *
+ * @version $Id$
+ */
+class LinkNormalizingListenerTest
+{
+    private static final Map<String, String> PARAMETERS = Collections.singletonMap("class", "bare");
+
+    private final Listener listener = mock(Listener.class);
+
+    private final ParseMetrics parseMetrics = mock(ParseMetrics.class);
+
+    private void link(Listener normalizingListener, ResourceReference reference, boolean freestanding)
+    {
+        normalizingListener.beginLink(reference, freestanding, PARAMETERS);
+        normalizingListener.endLink(reference, freestanding, PARAMETERS);
+    }
+
+    @Test
+    void normalizeLinksInWikiMode()
+    {
+        Listener normalizingListener = new LinkNormalizingListener(this.listener, true, this.parseMetrics);
+        link(normalizingListener, new ResourceReference("http://xwiki.org", ResourceType.URL), true);
+        link(normalizingListener, new ResourceReference("reference", ResourceType.PATH), true);
+        link(normalizingListener, new ResourceReference("mailto:john@doe.com", ResourceType.PATH), false);
+
+        ResourceReference urlReference = new ResourceReference("http://xwiki.org", ResourceType.URL);
+        ResourceReference documentReference = new ResourceReference("reference", ResourceType.DOCUMENT);
+        documentReference.setTyped(false);
+        ResourceReference mailtoReference = new ResourceReference("john@doe.com", ResourceType.MAILTO);
+
+        InOrder order = inOrder(this.listener);
+        order.verify(this.listener).beginLink(urlReference, true, emptyMap());
+        order.verify(this.listener).endLink(urlReference, true, emptyMap());
+        order.verify(this.listener).beginLink(documentReference, false, emptyMap());
+        order.verify(this.listener).endLink(documentReference, false, emptyMap());
+        order.verify(this.listener).beginLink(mailtoReference, false, PARAMETERS);
+        order.verify(this.listener).endLink(mailtoReference, false, PARAMETERS);
+        order.verifyNoMoreInteractions();
+        // The URL is kept as is.
+        verify(this.parseMetrics, times(2)).increment(ParseCounter.REWRITTEN_LINKS, 1);
+    }
+
+    @Test
+    void normalizeLinksInNonWikiMode()
+    {
+        Listener normalizingListener = new LinkNormalizingListener(this.listener, false, this.parseMetrics);
+        link(normalizingListener, new ResourceReference("reference", ResourceType.DOCUMENT), false);
+        link(normalizingListener, new ResourceReference("http://xwiki.org", ResourceType.URL), false);
+
+        ResourceReference urlReference = new ResourceReference("reference", ResourceType.URL);
+        urlReference.setTyped(false);
+        ResourceReference typedURLReference = new ResourceReference("http://xwiki.org", ResourceType.URL);
+
+        InOrder order = inOrder(this.listener);
+        order.verify(this.listener).beginLink(urlReference, false, emptyMap());
+        order.verify(this.listener).endLink(urlReference, false, emptyMap());
+        order.verify(this.listener).beginLink(typedURLReference, false, emptyMap());
+        order.verify(this.listener).endLink(typedURLReference, false, emptyMap());
+        order.verifyNoMoreInteractions();
+        verify(this.parseMetrics).increment(ParseCounter.REWRITTEN_LINKS, 1);
+    }
+}
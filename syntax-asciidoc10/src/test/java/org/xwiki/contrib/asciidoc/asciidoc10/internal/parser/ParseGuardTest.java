@@ -0,0 +1,112 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.parser.ParseException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link ParseGuard} and {@link LimitedReader}.
+ *
+ * @version $Id$
+ */
+class ParseGuardTest
+{
+    @AfterEach
+    void clearInterruption()
+    {
+        Thread.interrupted();
+    }
+
+    @Test
+    void noLimits() throws Exception
+    {
+        ParseGuard guard = new ParseGuard(0, 0, 0);
+        for (int i = 0; i < 100; i++) {
+            guard.enterNesting();
+            guard.enterBlock();
+        }
+        guard.check();
+    }
+
+    @Test
+    void maxBlockCount() throws Exception
+    {
+        ParseGuard guard = new ParseGuard(0, 2, 0);
+        guard.enterBlock();
+        guard.enterBlock();
+
+        ParseException exception = assertThrows(ParseException.class, guard::enterBlock);
+        assertEquals("The AsciiDoc content has more than the maximum of [2] blocks", exception.getMessage());
+    }
+
+    @Test
+    void maxNestingLevel() throws Exception
+    {
+        ParseGuard guard = new ParseGuard(0, 0, 2);
+        guard.enterNesting();
+        guard.enterNesting();
+        guard.exitNesting();
+        guard.enterNesting();
+
+        assertThrows(ParseException.class, guard::enterNesting);
+    }
+
+    @Test
+    void deadline() throws Exception
+    {
+        ParseGuard guard = new ParseGuard(1, 0, 0);
+        Thread.sleep(5);
+
+        ParseException exception = assertThrows(ParseException.class, guard::enterBlock);
+        assertEquals("The parsing of the AsciiDoc content has exceeded its deadline", exception.getMessage());
+    }
+
+    @Test
+    void cancellation()
+    {
+        ParseGuard guard = new ParseGuard(0, 0, 0);
+        Thread.currentThread().interrupt();
+
+        ParseException exception = assertThrows(ParseException.class, guard::check);
+        assertEquals("The parsing of the AsciiDoc content has been cancelled", exception.getMessage());
+    }
+
+    @Test
+    void limitedReader() throws Exception
+    {
+        StringReader source = new StringReader("content");
+        assertSame(source, LimitedReader.limit(source, 0));
+        assertEquals("content", IOUtils.toString(LimitedReader.limit(source, 7)));
+
+        IOException exception = assertThrows(LimitedReader.LimitExceededException.class,
+            () -> IOUtils.toString(LimitedReader.limit(new StringReader("content"), 6)));
+        assertEquals("The AsciiDoc content is larger than the maximum of [6] characters", exception.getMessage());
+    }
+}
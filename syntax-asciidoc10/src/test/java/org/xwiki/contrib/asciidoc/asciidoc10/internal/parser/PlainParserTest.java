@@ -0,0 +1,91 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.metrics.ParseMetrics;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static java.util.Collections.emptyMap;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Unit tests for {@link PlainParser}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class PlainParserTest
+{
+    @InjectMockComponents
+    private PlainParser parser;
+
+    @MockComponent
+    private ParseMetrics parseMetrics;
+
+    private final Listener listener = mock(Listener.class);
+
+    @Test
+    void parseLikeThePlainTextParser()
+    {
+        this.parser.parse("Tom\r\n&#8217;s  a\\b\tc", this.listener, true);
+
+        InOrder order = inOrder(this.listener);
+        order.verify(this.listener).onWord("Tom");
+        order.verify(this.listener).onNewLine();
+        order.verify(this.listener).onSpecialSymbol('&');
+        order.verify(this.listener).onSpecialSymbol('#');
+        order.verify(this.listener).onWord("8217");
+        order.verify(this.listener).onSpecialSymbol(';');
+        order.verify(this.listener).onWord("s");
+        // Spaces are not collapsed.
+        order.verify(this.listener, times(2)).onSpace();
+        // Backslashes and tabs are part of the words.
+        order.verify(this.listener).onWord("a\\b\tc");
+        order.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void parseWithTopLevelBlock()
+    {
+        this.parser.parse("Title", this.listener, false);
+
+        InOrder order = inOrder(this.listener);
+        order.verify(this.listener).beginParagraph(emptyMap());
+        order.verify(this.listener).onWord("Title");
+        order.verify(this.listener).endParagraph(emptyMap());
+        order.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void parseEmptyText()
+    {
+        this.parser.parse("", this.listener, false);
+
+        verifyNoInteractions(this.listener);
+    }
+}
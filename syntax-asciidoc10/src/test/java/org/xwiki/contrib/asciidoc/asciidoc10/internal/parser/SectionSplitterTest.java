@@ -0,0 +1,68 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.parser;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for {@link SectionSplitter}.
+ *
+ * @version $Id$
+ */
+class SectionSplitterTest
+{
+    @Test
+    void splitAtTopLevelSections()
+    {
+        assertEquals(Arrays.asList(":a: b\n\nPreamble\n\n== One\n", ":a: b\n\n== Two\n=== Sub\n\n----\n== Code\n----\n",
+            ":a: b\n\n== Three"),
+            SectionSplitter.split(":a: b\n\nPreamble\n\n== One\n\n== Two\n=== Sub\n\n----\n== Code\n----\n\n== Three"));
+    }
+
+    @Test
+    void splitWithoutHeader()
+    {
+        // The first top-level section is kept with the content preceding it.
+        assertEquals(Arrays.asList("=== One\n== Two", "== Three"),
+            SectionSplitter.split("=== One\n== Two\n== Three"));
+    }
+
+    @Test
+    void splitUnsafeContent()
+    {
+        // Single section.
+        assertEquals(Collections.emptyList(), SectionSplitter.split("== One\n\n=== Two"));
+        // Attribute entry outside of the header.
+        assertEquals(Collections.emptyList(), SectionSplitter.split("== One\n\n:a: b\n\n== Two"));
+        // Cross reference.
+        assertEquals(Collections.emptyList(), SectionSplitter.split("== One\n\n<<_two>>\n\n== Two"));
+        // Section title with block attributes.
+        assertEquals(Collections.emptyList(), SectionSplitter.split("== One\n\n[appendix]\n== Two"));
+        // Two-line section title.
+        assertEquals(Collections.emptyList(), SectionSplitter.split("== One\n\nTwo\n---\n\n== Three"));
+        // Level 0 section.
+        assertEquals(Collections.emptyList(), SectionSplitter.split("= Title\n\n= Part\n\n== One\n\n== Two"));
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.renderer;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.listener.HeaderLevel;
+import org.xwiki.rendering.listener.MetaData;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+
+import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for {@link AsciiDocRenderer}.
+ *
+ * @version $Id$
+ */
+class AsciiDocRendererTest
+{
+    private final DefaultWikiPrinter printer = new DefaultWikiPrinter();
+
+    private final AsciiDocRenderer renderer = new AsciiDocRenderer();
+
+    @BeforeEach
+    void setUp()
+    {
+        this.renderer.setPrinter(this.printer);
+        this.renderer.beginDocument(MetaData.EMPTY);
+    }
+
+    private String render()
+    {
+        this.renderer.endDocument(MetaData.EMPTY);
+        return this.printer.toString();
+    }
+
+    private void paragraph(Object... content)
+    {
+        this.renderer.beginParagraph(emptyMap());
+        for (Object item : content) {
+            if (item instanceof Character) {
+                char symbol = (Character) item;
+                if (symbol == ' ') {
+                    this.renderer.onSpace();
+                } else {
+                    this.renderer.onSpecialSymbol(symbol);
+                }
+            } else {
+                this.renderer.onWord((String) item);
+            }
+        }
+        this.renderer.endParagraph(emptyMap());
+    }
+
+    private void cell(boolean head, String word)
+    {
+        if (head) {
+            this.renderer.beginTableHeadCell(emptyMap());
+            this.renderer.onWord(word);
+            this.renderer.endTableHeadCell(emptyMap());
+        } else {
+            this.renderer.beginTableCell(emptyMap());
+            this.renderer.onWord(word);
+            this.renderer.endTableCell(emptyMap());
+        }
+    }
+
+    @Test
+    void escapeBlockMarkers()
+    {
+        paragraph("1", '.', ' ', "foo");
+        paragraph("Term", ':', ':', ' ', "def");
+        paragraph("NOTE", ':', ' ', "x");
+        paragraph("iv", ')', ' ', "x");
+        paragraph('*', ' ', "foo", '.');
+
+        assertEquals("1{empty}. foo\n\nTerm:{empty}: def\n\nNOTE{empty}: x\n\niv{empty}) x\n\n{empty}{asterisk} foo.",
+            render());
+    }
+
+    @Test
+    void escapeReplacementsAndAutolinks()
+    {
+        paragraph("a", ' ', '-', '-', ' ', "b", '.', '.', '.', ' ', '(', "C", ')', ' ', "don", '\'', "t", ' ', '-',
+            '>', ' ', '<', '=');
+        paragraph("john", '@', "xwiki", '.', "org", ' ', "see", ' ', "http", ':', '/', '/', "xwiki", '.', "org");
+
+        assertEquals("a -pass:[-] b.pass:[.]. (pass:[C]) donpass:[']t -pass:c[>] {lt}pass:[=]\n\n"
+            + "johnpass:[@]xwiki.org see httppass:[:]//xwiki.org", render());
+    }
+
+    @Test
+    void renderNestedTables()
+    {
+        this.renderer.beginTable(emptyMap());
+        this.renderer.beginTableRow(emptyMap());
+        cell(true, "A");
+        cell(true, "B");
+        this.renderer.endTableRow(emptyMap());
+        this.renderer.beginTableRow(emptyMap());
+        cell(false, "x");
+        this.renderer.beginTableCell(emptyMap());
+        this.renderer.beginTable(emptyMap());
+        this.renderer.beginTableRow(emptyMap());
+        cell(false, "y");
+        cell(false, "z");
+        this.renderer.endTableRow(emptyMap());
+        this.renderer.endTable(emptyMap());
+        this.renderer.endTableCell(emptyMap());
+        this.renderer.endTableRow(emptyMap());
+        this.renderer.beginTableRow(emptyMap());
+        cell(true, "h");
+        cell(false, "w");
+        this.renderer.endTableRow(emptyMap());
+        this.renderer.endTable(emptyMap());
+
+        assertEquals("|===\n| A | B\n\n| x a|\n!===\n! y ! z\n!===\nh| h | w\n|===", render());
+    }
+
+    @Test
+    void renderVerbatimQuotationAndDefinitionList()
+    {
+        this.renderer.onVerbatim("a\n----\nb", false, emptyMap());
+
+        this.renderer.beginQuotation(emptyMap());
+        this.renderer.beginQuotationLine();
+        this.renderer.onWord("q1");
+        this.renderer.endQuotationLine();
+        this.renderer.beginQuotationLine();
+        this.renderer.onWord("q2");
+        this.renderer.endQuotationLine();
+        this.renderer.endQuotation(emptyMap());
+
+        this.renderer.beginDefinitionList(emptyMap());
+        this.renderer.beginDefinitionTerm();
+        this.renderer.onWord("Term");
+        this.renderer.endDefinitionTerm();
+        this.renderer.beginDefinitionDescription();
+        this.renderer.onWord("def");
+        this.renderer.endDefinitionDescription();
+        this.renderer.endDefinitionList(emptyMap());
+
+        assertEquals("-----\na\n----\nb\n-----\n\n____\nq1 +\nq2\n____\n\nTerm:: def", render());
+    }
+
+    @Test
+    void renderLinksAndImages()
+    {
+        ResourceReference mailto = new ResourceReference("john@xwiki.org", ResourceType.MAILTO);
+        ResourceReference document = new ResourceReference("Space.Page", ResourceType.DOCUMENT);
+        ResourceReference url = new ResourceReference("http://xwiki.org", ResourceType.URL);
+
+        this.renderer.beginParagraph(emptyMap());
+        this.renderer.beginLink(mailto, false, emptyMap());
+        this.renderer.onWord("John");
+        this.renderer.endLink(mailto, false, emptyMap());
+        this.renderer.onSpace();
+        this.renderer.beginLink(document, false, emptyMap());
+        this.renderer.onWord("Page");
+        this.renderer.endLink(document, false, emptyMap());
+        this.renderer.onSpace();
+        this.renderer.onImage(new ResourceReference("http://xwiki.org/logo.png", ResourceType.URL), false,
+            Collections.singletonMap("alt", "Logo"));
+        this.renderer.onSpace();
+        this.renderer.beginLink(url, true, emptyMap());
+        this.renderer.onWord("http");
+        this.renderer.endLink(url, true, emptyMap());
+        this.renderer.endParagraph(emptyMap());
+
+        assertEquals("mailto:john@xwiki.org[John] link:Space.Page[Page] image:http://xwiki.org/logo.png[Logo] "
+            + "http://xwiki.org", render());
+    }
+
+    @Test
+    void renderDeepHeadingsAtTheDeepestSectionLevel()
+    {
+        this.renderer.beginHeader(HeaderLevel.LEVEL5, "a", emptyMap());
+        this.renderer.onWord("a");
+        this.renderer.endHeader(HeaderLevel.LEVEL5, "a", emptyMap());
+        this.renderer.beginHeader(HeaderLevel.LEVEL6, "b", emptyMap());
+        this.renderer.onWord("b");
+        this.renderer.endHeader(HeaderLevel.LEVEL6, "b", emptyMap());
+
+        assertEquals("====== a\n\n====== b", render());
+    }
+}
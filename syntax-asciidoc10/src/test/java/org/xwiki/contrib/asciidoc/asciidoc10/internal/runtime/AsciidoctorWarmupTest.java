@@ -0,0 +1,68 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.runtime;
+
+import org.asciidoctor.Asciidoctor;
+import org.asciidoctor.Options;
+import org.asciidoctor.ast.Document;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link AsciidoctorWarmup}.
+ *
+ * @version $Id$
+ */
+class AsciidoctorWarmupTest
+{
+    private final Asciidoctor asciidoctor = mock(Asciidoctor.class);
+
+    private final AsciidoctorWarmup warmup = new AsciidoctorWarmup(2, 60000L, mock(Logger.class));
+
+    @Test
+    void warmUpParsesTheCorpusUpToMaxIterations() throws Exception
+    {
+        Document document = mock(Document.class);
+        when(this.asciidoctor.load(anyString(), any(Options.class))).thenReturn(document);
+
+        assertEquals(2, this.warmup.warmUp(this.asciidoctor, () -> false));
+
+        // The corpus has 3 samples.
+        verify(this.asciidoctor, times(6)).load(anyString(), any(Options.class));
+        verify(document, times(6)).getContent();
+    }
+
+    @Test
+    void warmUpStopsWhenRequested() throws Exception
+    {
+        assertEquals(0, this.warmup.warmUp(this.asciidoctor, () -> true));
+
+        verifyNoInteractions(this.asciidoctor);
+    }
+}
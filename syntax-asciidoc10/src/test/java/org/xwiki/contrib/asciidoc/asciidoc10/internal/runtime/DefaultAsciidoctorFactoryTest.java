@@ -0,0 +1,95 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.runtime;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.test.LogLevel;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.LogCaptureExtension;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultAsciidoctorFactory}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultAsciidoctorFactoryTest
+{
+    private static final String COMPILE_MODE = "jruby.compile.mode";
+
+    private static final String JIT_THRESHOLD = "jruby.jit.threshold";
+
+    private static final String INVOKE_DYNAMIC = "jruby.compile.invokedynamic";
+
+    @RegisterExtension
+    LogCaptureExtension logCapture = new LogCaptureExtension(LogLevel.WARN);
+
+    @InjectMockComponents
+    private DefaultAsciidoctorFactory factory;
+
+    @MockComponent
+    private AsciiDocConfiguration configuration;
+
+    @BeforeComponent
+    void configure()
+    {
+        when(this.configuration.getJRubyCompileMode()).thenReturn("JIT");
+        when(this.configuration.getJRubyInvokeDynamic()).thenReturn(null);
+        when(this.configuration.getJRubyJITThreshold()).thenReturn(10);
+        when(this.configuration.getRuntimeLoadPath()).thenReturn(Collections.singletonList("/extensions"));
+        when(this.configuration.getRuntimeGemPath()).thenReturn("/gems");
+        System.setProperty(JIT_THRESHOLD, "50");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.clearProperty(COMPILE_MODE);
+        System.clearProperty(JIT_THRESHOLD);
+        System.clearProperty(INVOKE_DYNAMIC);
+    }
+
+    @Test
+    void initializeSetsTheJRubyOptions()
+    {
+        // The component is initialized when it's injected.
+        assertEquals("JIT", System.getProperty(COMPILE_MODE));
+        assertNull(System.getProperty(INVOKE_DYNAMIC));
+        // The system properties set on the command line take precedence.
+        assertEquals("50", System.getProperty(JIT_THRESHOLD));
+        assertEquals("Ignoring the configured value [10] of the JRuby option [jruby.jit.threshold] since the system "
+            + "property is already set to [50].", this.logCapture.getMessage(0));
+        // AsciiDoctorJ can't use both a load path and a gem path.
+        assertEquals("Ignoring the configured AsciiDoctor gem path [/gems] since a load path is also configured.",
+            this.logCapture.getMessage(1));
+    }
+}
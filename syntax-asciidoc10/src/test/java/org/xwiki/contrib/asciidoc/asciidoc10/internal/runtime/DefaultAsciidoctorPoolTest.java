@@ -0,0 +1,146 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.runtime;
+
+import org.asciidoctor.Asciidoctor;
+import org.asciidoctor.Options;
+import org.asciidoctor.ast.Document;
+import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultAsciidoctorPool}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultAsciidoctorPoolTest
+{
+    @InjectMockComponents
+    private DefaultAsciidoctorPool pool;
+
+    @MockComponent
+    private AsciidoctorFactory asciidoctorFactory;
+
+    @MockComponent
+    private AsciiDocConfiguration configuration;
+
+    private final Asciidoctor firstRuntime = mock(Asciidoctor.class, "first");
+
+    private final Asciidoctor secondRuntime = mock(Asciidoctor.class, "second");
+
+    @BeforeComponent
+    void configure()
+    {
+        when(this.configuration.getRuntimePoolMinSize()).thenReturn(1);
+        when(this.configuration.getRuntimePoolMaxSize()).thenReturn(2);
+        when(this.configuration.getRuntimePoolIdleTimeout()).thenReturn(60000L);
+        when(this.configuration.getRuntimePoolBorrowTimeout()).thenReturn(10L);
+        when(this.asciidoctorFactory.create()).thenReturn(this.firstRuntime, this.secondRuntime);
+    }
+
+    @Test
+    void borrowReusesReleasedRuntimes() throws Exception
+    {
+        Asciidoctor asciidoctor = this.pool.borrow();
+        assertSame(this.firstRuntime, asciidoctor);
+        this.pool.release(asciidoctor);
+
+        assertSame(this.firstRuntime, this.pool.borrow());
+        assertEquals(1, this.pool.getSize());
+        assertEquals(0, this.pool.getIdleCount());
+        assertEquals(2, this.pool.getBorrowCount());
+        verify(this.asciidoctorFactory).create();
+    }
+
+    @Test
+    void borrowGrowsUpToMaxSizeThenTimesOut() throws Exception
+    {
+        assertSame(this.firstRuntime, this.pool.borrow());
+        assertSame(this.secondRuntime, this.pool.borrow());
+        assertEquals(2, this.pool.getSize());
+
+        ParseException exception = assertThrows(ParseException.class, () -> this.pool.borrow());
+        assertEquals("Timed out after [10] ms while waiting for an AsciiDoctor runtime to be available",
+            exception.getMessage());
+        verify(this.asciidoctorFactory, times(2)).create();
+    }
+
+    @Test
+    void disposeShutsDownIdleRuntimes() throws Exception
+    {
+        Asciidoctor asciidoctor = this.pool.borrow();
+        this.pool.release(asciidoctor);
+        verify(this.firstRuntime, never()).shutdown();
+
+        this.pool.dispose();
+
+        verify(this.firstRuntime).shutdown();
+        assertEquals(0, this.pool.getSize());
+    }
+
+    @Test
+    void idleRuntimesAreShutDownWithoutTraffic() throws Exception
+    {
+        when(this.configuration.getRuntimePoolMinSize()).thenReturn(0);
+        when(this.configuration.getRuntimePoolIdleTimeout()).thenReturn(10L);
+        this.pool.initialize();
+
+        this.pool.release(this.pool.borrow());
+
+        // No runtime is borrowed or released anymore, so the runtime has to be evicted in the background.
+        verify(this.firstRuntime, timeout(10000)).shutdown();
+        assertEquals(0, this.pool.getSize());
+    }
+
+    @Test
+    void borrowWaitsForWarmup() throws Exception
+    {
+        when(this.configuration.isRuntimeWarmupEnabled()).thenReturn(true);
+        when(this.configuration.getRuntimeWarmupMaxIterations()).thenReturn(3);
+        when(this.configuration.getRuntimeWarmupMaxDuration()).thenReturn(60000L);
+        when(this.configuration.getRuntimePoolBorrowTimeout()).thenReturn(60000L);
+        when(this.firstRuntime.load(anyString(), any(Options.class))).thenReturn(mock(Document.class));
+        this.pool.initialize();
+
+        assertSame(this.firstRuntime, this.pool.borrow());
+        assertEquals(1, this.pool.getSize());
+        verify(this.firstRuntime, atLeastOnce()).load(anyString(), any(Options.class));
+        verify(this.asciidoctorFactory).create();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.asciidoc.asciidoc10.internal.text;
+
+import java.io.StringReader;
+
+import org.asciidoctor.Asciidoctor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.AsciiDocConfiguration;
+import org.xwiki.contrib.asciidoc.asciidoc10.internal.runtime.AsciidoctorPool;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultAsciiDocTextExtractor}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultAsciiDocTextExtractorTest
+{
+    private static final String TEXT =
+        "The Title\nFirst\nSome bold text with a link.\none\ntwo\nTom & Jerry\nint x = 1;\nA\nB";
+
+    private static final String CONTENT = "= The Title\n\n== First\n\nSome *bold* text with a https://xwiki.org[link].\n\n"
+        + "* one\n* two\n\nNOTE: Tom &amp; Jerry\n\n----\nint x = 1;\n----\n\n|===\n|A |B\n|===\n";
+
+    private static Asciidoctor asciidoctor;
+
+    @InjectMockComponents
+    private DefaultAsciiDocTextExtractor extractor;
+
+    @MockComponent
+    private AsciidoctorPool asciidoctorPool;
+
+    @MockComponent
+    private AsciiDocConfiguration configuration;
+
+    @BeforeAll
+    static void createRuntime()
+    {
+        asciidoctor = Asciidoctor.Factory.create();
+    }
+
+    @AfterAll
+    static void shutdownRuntime()
+    {
+        asciidoctor.shutdown();
+    }
+
+    @BeforeEach
+    void configure() throws Exception
+    {
+        when(this.asciidoctorPool.borrow()).thenReturn(asciidoctor);
+        when(this.configuration.getTextExtractionMaxSize()).thenReturn(1000L);
+    }
+
+    @Test
+    void extract() throws Exception
+    {
+        StringBuilder output = new StringBuilder();
+
+        assertTrue(this.extractor.extract(new StringReader(CONTENT), output));
+
+        assertEquals(TEXT, output.toString());
+        verify(this.asciidoctorPool).release(asciidoctor);
+    }
+
+    @Test
+    void extractTheTextThatExactlyFillsTheMaximumSize() throws Exception
+    {
+        when(this.configuration.getTextExtractionMaxSize()).thenReturn((long) TEXT.length());
+        StringBuilder output = new StringBuilder();
+
+        assertTrue(this.extractor.extract(new StringReader(CONTENT), output));
+
+        assertEquals(TEXT, output.toString());
+    }
+
+    @Test
+    void extractWithoutMaximumSize() throws Exception
+    {
+        when(this.configuration.getTextExtractionMaxSize()).thenReturn(0L);
+        StringBuilder output = new StringBuilder();
+
+        assertTrue(this.extractor.extract(new StringReader(CONTENT), output));
+
+        assertEquals(TEXT, output.toString());
+    }
+
+    @Test
+    void extractTruncatesTheText() throws Exception
+    {
+        when(this.configuration.getTextExtractionMaxSize()).thenReturn(12L);
+        StringBuilder output = new StringBuilder();
+
+        assertFalse(this.extractor.extract(new StringReader(CONTENT), output));
+
+        assertEquals("The Title\nFi", output.toString());
+    }
+
+    @Test
+    void extractEnforcesTheParsingLimits() throws Exception
+    {
+        when(this.configuration.getMaxInputSize()).thenReturn(10L);
+        ParseException exception = assertThrows(ParseException.class,
+            () -> this.extractor.extract(new StringReader(CONTENT), new StringBuilder()));
+        assertEquals("The AsciiDoc content is larger than the maximum of [10] characters", exception.getMessage());
+        verify(this.asciidoctorPool, never()).borrow();
+
+        when(this.configuration.getMaxInputSize()).thenReturn(0L);
+        // The list items are nested in the list, which is nested in the section.
+        when(this.configuration.getMaxNestingLevel()).thenReturn(2);
+        exception = assertThrows(ParseException.class,
+            () -> this.extractor.extract(new StringReader(CONTENT), new StringBuilder()));
+        assertEquals("The AsciiDoc content has blocks nested deeper than the maximum of [2] levels",
+            exception.getMessage());
+        verify(this.asciidoctorPool).release(asciidoctor);
+    }
+}